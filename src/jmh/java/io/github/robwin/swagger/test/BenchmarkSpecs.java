@@ -0,0 +1,140 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.ComposedModel;
+import io.swagger.models.Info;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.RefModel;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.HeaderParameter;
+import io.swagger.models.parameters.PathParameter;
+import io.swagger.models.parameters.QueryParameter;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.DateTimeProperty;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.models.properties.LongProperty;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+import io.swagger.parser.SwaggerParser;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Provides the specs the benchmarks run on. {@code bundled} is the {@code swagger.json} used by the tests, a number
+ * generates a synthetic spec with that many paths. Every call returns a new, independent object graph so that expected
+ * and actual never share instances.
+ */
+final class BenchmarkSpecs {
+
+    static final String BUNDLED = "bundled";
+
+    private static final String JSON = "application/json";
+
+    private BenchmarkSpecs() {
+    }
+
+    static Swagger load(String specSize) {
+        if (BUNDLED.equals(specSize)) {
+            File swaggerFile = new File(BenchmarkSpecs.class.getResource("/swagger.json").getFile());
+            return new SwaggerParser().read(swaggerFile.getAbsolutePath());
+        }
+        return synthetic(Integer.parseInt(specSize));
+    }
+
+    /**
+     * Generates a spec with {@code pathCount} paths and a tenth as many definitions. Every third definition extends
+     * {@code Base} through {@code allOf}, and every definition references the next one, so that property resolution
+     * and the ref handling of the validators are exercised as well.
+     *
+     * @param pathCount number of paths
+     * @return synthetic Swagger model
+     */
+    static Swagger synthetic(int pathCount) {
+        int definitionCount = Math.max(10, pathCount / 10);
+        Swagger swagger = new Swagger()
+                .info(new Info().title("Synthetic API").version("1.0.0"))
+                .basePath("/api")
+                .consumes(JSON)
+                .produces(JSON);
+
+        swagger.addDefinition("Base", new ModelImpl()
+                .type(ModelImpl.OBJECT)
+                .property("id", new LongProperty())
+                .property("createdAt", new DateTimeProperty())
+                .required("id"));
+        for (int i = 0; i < definitionCount; i++) {
+            swagger.addDefinition(definitionName(i), definition(i, definitionCount));
+        }
+        for (int i = 0; i < pathCount; i++) {
+            swagger.path("/resources" + i + "/{id}", path(i, definitionCount));
+        }
+        return swagger;
+    }
+
+    private static Model definition(int index, int definitionCount) {
+        ModelImpl model = new ModelImpl()
+                .type(ModelImpl.OBJECT)
+                .property("name", new StringProperty())
+                .property("status", new StringProperty()._enum(Arrays.asList("ACTIVE", "INACTIVE", "DELETED")))
+                .property("tags", new ArrayProperty(new StringProperty()))
+                .property("next", new RefProperty(definitionName((index + 1) % definitionCount)))
+                .required("name");
+        if (index % 3 != 0) {
+            return model;
+        }
+        ComposedModel composedModel = new ComposedModel();
+        composedModel.setAllOf(Arrays.asList(new RefModel("Base"), model));
+        return composedModel;
+    }
+
+    private static Path path(int index, int definitionCount) {
+        String definitionName = definitionName(index % definitionCount);
+        Operation get = operation(definitionName)
+                .parameter(new PathParameter().name("id").type("string"))
+                .parameter(new QueryParameter().name("fields").type("string"))
+                .parameter(new HeaderParameter().name("X-Request-Id").type("string"));
+        Operation put = operation(definitionName)
+                .parameter(new PathParameter().name("id").type("string"))
+                .parameter(new BodyParameter().name("body").schema(new RefModel(definitionName)));
+        Operation delete = new Operation()
+                .parameter(new PathParameter().name("id").type("string"))
+                .response(204, new Response().description("No Content"));
+        return new Path().get(get).put(put).delete(delete);
+    }
+
+    private static Operation operation(String definitionName) {
+        return new Operation()
+                .response(200, new Response()
+                        .description("OK")
+                        .responseSchema(new RefModel(definitionName))
+                        .header("X-Rate-Limit", new IntegerProperty()))
+                .response(404, new Response().description("Not Found"));
+    }
+
+    private static String definitionName(int index) {
+        return "Model" + index;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Model;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.Property;
+import org.assertj.core.api.SoftAssertions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link PropertyValidator#validateProperty} over all definition properties of two equal specs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PropertyValidatorBenchmark {
+
+    @Param({BenchmarkSpecs.BUNDLED, "100", "1000", "5000"})
+    public String specSize;
+
+    private SwaggerAssertionConfig assertionConfig;
+    private List<Property> actualProperties;
+    private List<Property> expectedProperties;
+    private List<String> propertyNames;
+    private List<String> definitionNames;
+
+    @Setup
+    public void setUp() {
+        assertionConfig = new SwaggerAssertionConfig();
+        Swagger actual = BenchmarkSpecs.load(specSize);
+        Swagger expected = BenchmarkSpecs.load(specSize);
+        SchemaObjectResolver schemaObjectResolver = new SchemaObjectResolver(expected, actual);
+
+        actualProperties = new ArrayList<>();
+        expectedProperties = new ArrayList<>();
+        propertyNames = new ArrayList<>();
+        definitionNames = new ArrayList<>();
+        for (Map.Entry<String, Model> expectedDefinition : expected.getDefinitions().entrySet()) {
+            Map<String, Property> expectedDefinitionProperties = schemaObjectResolver.resolvePropertiesFromExpected(expectedDefinition.getValue());
+            Map<String, Property> actualDefinitionProperties = schemaObjectResolver.resolvePropertiesFromActual(actual.getDefinitions().get(expectedDefinition.getKey()));
+            for (Map.Entry<String, Property> expectedProperty : expectedDefinitionProperties.entrySet()) {
+                actualProperties.add(actualDefinitionProperties.get(expectedProperty.getKey()));
+                expectedProperties.add(expectedProperty.getValue());
+                propertyNames.add(expectedProperty.getKey());
+                definitionNames.add(expectedDefinition.getKey());
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean validateProperty() {
+        SoftAssertions softAssertions = new SoftAssertions();
+        PropertyValidator propertyValidator = new PropertyValidator(assertionConfig, softAssertions);
+        for (int i = 0; i < expectedProperties.size(); i++) {
+            propertyValidator.validateProperty(actualProperties.get(i), expectedProperties.get(i),
+                    LazyDescription.of("Checking property '%s' of definition '%s'", propertyNames.get(i), definitionNames.get(i)));
+        }
+        return softAssertions.wasSuccess();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Model;
+import io.swagger.models.Swagger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks resolving the properties of every definition of a spec, the way the validators do it once per
+ * definition.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SchemaObjectResolverBenchmark {
+
+    @Param({BenchmarkSpecs.BUNDLED, "100", "1000", "5000"})
+    public String specSize;
+
+    private Swagger actual;
+    private Swagger expected;
+    private List<Model> actualDefinitions;
+    private List<Model> expectedDefinitions;
+
+    @Setup
+    public void setUp() {
+        actual = BenchmarkSpecs.load(specSize);
+        expected = BenchmarkSpecs.load(specSize);
+        actualDefinitions = new ArrayList<>(actual.getDefinitions().values());
+        expectedDefinitions = new ArrayList<>(expected.getDefinitions().values());
+    }
+
+    @Benchmark
+    public void resolvePropertiesFromActual(Blackhole blackhole) {
+        SchemaObjectResolver schemaObjectResolver = new SchemaObjectResolver(expected, actual);
+        for (Model definition : actualDefinitions) {
+            blackhole.consume(schemaObjectResolver.resolvePropertiesFromActual(definition));
+        }
+    }
+
+    @Benchmark
+    public void resolvePropertiesFromExpected(Blackhole blackhole) {
+        SchemaObjectResolver schemaObjectResolver = new SchemaObjectResolver(expected, actual);
+        for (Model definition : expectedDefinitions) {
+            blackhole.consume(schemaObjectResolver.resolvePropertiesFromExpected(definition));
+        }
+    }
+}
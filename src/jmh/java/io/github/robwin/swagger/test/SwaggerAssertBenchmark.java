@@ -0,0 +1,71 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Swagger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a full comparison of two equal specs through {@link SwaggerAssert}, i.e. the passing case every contract
+ * test pays for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SwaggerAssertBenchmark {
+
+    @Param({BenchmarkSpecs.BUNDLED, "100", "1000", "5000"})
+    public String specSize;
+
+    private SwaggerAssertionConfig assertionConfig;
+    private Swagger actual;
+    private Swagger expected;
+
+    @Setup
+    public void setUp() {
+        assertionConfig = new SwaggerAssertionConfig();
+        actual = BenchmarkSpecs.load(specSize);
+        expected = BenchmarkSpecs.load(specSize);
+    }
+
+    @Benchmark
+    public SwaggerAssert isEqualTo() {
+        return new SwaggerAssert(actual, assertionConfig).isEqualTo(expected);
+    }
+
+    @Benchmark
+    public SwaggerAssert satisfiesContract() {
+        return new SwaggerAssert(actual, assertionConfig).satisfiesContract(expected);
+    }
+}
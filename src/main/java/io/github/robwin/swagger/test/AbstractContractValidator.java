@@ -18,17 +18,156 @@
  */
 package io.github.robwin.swagger.test;
 
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Operation;
 import io.swagger.models.Path;
 import io.swagger.models.Swagger;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.PathParameter;
+import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.assertj.core.api.SoftAssertions;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Offers functionality shared across concrete validator implementations.
+ *
+ * @param <V> type of the concrete validator, which validates the paths and definitions handed out by
+ *            {@link #validateEach} and {@link #validateIfChanged}
  */
-public abstract class AbstractContractValidator implements ContractValidator {
+public abstract class AbstractContractValidator<V extends AbstractContractValidator<V>> implements ContractValidator {
+
+    SwaggerAssertionConfig assertionConfig;
+    ValidationPlan plan;
+    SoftAssertions softAssertions;
+    LazySoftAssertions lazySoftAssertions;
+    LazySoftAssertions modelSoftAssertions;
+    PropertyValidator propertyValidator;
+    ValidationReport report;
+    ErrorBudget errorBudget;
+    ValidationMetrics metrics;
+    ValidationListener listener;
+    IncrementalValidationState.Section validationState;
+
+    /**
+     * Collects the errors of failed checks in {@code softAssertions}, or writes them to {@code report} if it is not
+     * {@code null}, until {@code errorBudget} is used up. Counts the checks and measures the phases in {@code metrics},
+     * and tells {@code listener}, if not {@code null}, about every check.
+     */
+    void collectErrors(SoftAssertions softAssertions, ValidationReport report, ErrorBudget errorBudget, ValidationMetrics metrics,
+                       ValidationListener listener) {
+        this.softAssertions = softAssertions;
+        this.report = report;
+        this.errorBudget = errorBudget;
+        this.metrics = metrics;
+        this.listener = listener;
+        this.lazySoftAssertions = new LazySoftAssertions(softAssertions, report, new ValidationLocation(), errorBudget, metrics, listener);
+        this.modelSoftAssertions = lazySoftAssertions.checking(SwaggerAssertionType.MODELS);
+        this.propertyValidator = new PropertyValidator(lazySoftAssertions.checking(SwaggerAssertionType.PROPERTIES), plan, isConsumerDriven());
+    }
+
+    /**
+     * @return {@code true} if the actual spec only needs to contain what the expected one describes, so that nested
+     * object schemas may have additional properties as well
+     */
+    boolean isConsumerDriven() {
+        return false;
+    }
+
+    /**
+     * Creates a validator which shares the state of the current validation with this one, but collects its errors as
+     * given, for the items handed out by {@link #validateEach} and {@link #validateIfChanged}.
+     */
+    abstract V forTask(SoftAssertions taskSoftAssertions, ValidationReport taskReport, ErrorBudget taskErrorBudget, ValidationMetrics taskMetrics,
+                       ValidationListener taskListener);
+
+    /**
+     * @return {@code true} if the error budget is used up or the listener asks to stop, so no further path, operation or
+     * definition is to be started
+     */
+    boolean isStopped() {
+        return errorBudget.isExhausted() || listener != null && listener.isStopRequested();
+    }
+
+    /**
+     * Validates each item, in parallel if the configured parallelism allows it. A parallel run reports the same errors
+     * in the same order as a sequential one: every range of items collects its errors in soft assertions or a report of
+     * its own, with an error budget of its own, and they are merged into those of this validator in item order, as far
+     * as the error budget of this validator lasts.
+     */
+    <T> void validateEach(Collection<T> items, BiConsumer<V, T> validation) {
+        if (assertionConfig.getParallelism() > 1 && items.size() > 1) {
+            List<V> rangeValidators = ValidationTasks.forEach(new ArrayList<>(items), assertionConfig.getParallelism(), this::forRange, validation);
+            for (V rangeValidator : rangeValidators) {
+                mergeErrorsOf(rangeValidator);
+            }
+        } else {
+            for (T item : items) {
+                validation.accept(self(), item);
+            }
+        }
+    }
+
+    /**
+     * Validates a path or definition, unless the fingerprints of both sides are equal, in which case it cannot fail, or
+     * the state file already holds the verdict for these fingerprints.
+     */
+    void validateIfChanged(String entry, long actualFingerprint, long expectedFingerprint, Consumer<V> validation) {
+        boolean known = actualFingerprint != StructuralFingerprints.UNKNOWN && expectedFingerprint != StructuralFingerprints.UNKNOWN;
+        if (known && actualFingerprint == expectedFingerprint) {
+            return;
+        }
+        if (!known || validationState == null) {
+            validation.accept(self());
+            return;
+        }
+        List<String> errorMessages = validationState.errorMessages(entry, actualFingerprint, expectedFingerprint);
+        if (errorMessages == null) {
+            SoftAssertions entrySoftAssertions = new SoftAssertions();
+            // the state keeps all error messages, so they are collected even if there is a report or an error limit;
+            // the listener is told about them below
+            validation.accept(forTask(entrySoftAssertions, null, ErrorBudget.UNLIMITED, metrics, null));
+            errorMessages = ValidationTasks.errorMessagesOf(entrySoftAssertions);
+            validationState.record(entry, actualFingerprint, expectedFingerprint, errorMessages);
+        }
+        for (String errorMessage : errorMessages) {
+            lazySoftAssertions.fail(errorMessage);
+        }
+    }
+
+    private V forRange() {
+        // without a report, an error limit and a listener, the error messages are all that is needed
+        boolean buffered = report != null || !errorBudget.isUnlimited() || listener != null;
+        return forTask(new SoftAssertions(), buffered ? ValidationReport.buffer() : null, errorBudget.forRange(), metrics, listener);
+    }
+
+    private void mergeErrorsOf(V rangeValidator) {
+        if (rangeValidator.report != null) {
+            for (Violation violation : rangeValidator.report.getBufferedViolations()) {
+                lazySoftAssertions.add(violation);
+            }
+        } else {
+            for (String errorMessage : ValidationTasks.errorMessagesOf(rangeValidator.softAssertions)) {
+                softAssertions.fail(errorMessage);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V self() {
+        return (V) this;
+    }
 
     /**
      * Finds the expected paths considering both {@code pathsPrependExpected} in the config and {@code basePath} in the Swagger model. The configured value
@@ -72,13 +211,286 @@ public abstract class AbstractContractValidator implements ContractValidator {
                 getPathsWithPrefix(actual, basePath);
     }
 
+    /**
+     * Matches the expected paths to the actual paths. An expected path which is not found under its own name is looked
+     * up by its shape, see {@link PathTrie}, so that {@code /pets/{id}} matches {@code /pets/{petId}} and
+     * {@code /pets/} matches {@code /pets}. A path matched that way is returned under the name of the actual path, with
+     * its path parameters renamed by position to the names used in the actual path.
+     *
+     * @param actualPaths   actual paths, see {@link #getPathsIncludingBasePath}
+     * @param expectedPaths expected paths, see {@link #findExpectedPaths}
+     * @return expected paths, keyed by the names of the actual paths they match
+     */
+    protected Map<String, Path> matchExpectedPaths(Map<String, Path> actualPaths, Map<String, Path> expectedPaths) {
+        if (MapUtils.isEmpty(actualPaths) || MapUtils.isEmpty(expectedPaths)) {
+            return expectedPaths;
+        }
+        PathTrie actualPathTrie = null;
+        Map<String, String> matchedNames = new HashMap<>();   // expected name by actual name
+        for (String expectedName : expectedPaths.keySet()) {
+            if (actualPaths.containsKey(expectedName)) {
+                continue;
+            }
+            if (actualPathTrie == null) {
+                actualPathTrie = actualPaths instanceof PrefixedPaths ?
+                        new PathTrie(((PrefixedPaths) actualPaths).prefix, ((PrefixedPaths) actualPaths).paths.keySet()) :
+                        new PathTrie("", actualPaths.keySet());
+            }
+            String actualName = actualPathTrie.match(expectedName);
+            if (actualName != null && !expectedPaths.containsKey(actualName)) {
+                matchedNames.putIfAbsent(actualName, expectedName);
+            }
+        }
+        if (matchedNames.isEmpty()) {
+            return expectedPaths;
+        }
+        Map<String, Path> renamedPaths = new HashMap<>();   // by actual name
+        matchedNames.forEach((actualName, expectedName) -> {
+            Path expectedPath = expectedPaths.get(expectedName);
+            renamedPaths.put(actualName, expectedPath == null ? null :
+                    withPathParameterNames(expectedPath, PathTrie.parameterNames(expectedName, actualName)));
+        });
+        return new MatchedPaths(expectedPaths, matchedNames, renamedPaths);
+    }
+
+    @SuppressWarnings("unchecked")
     private Map<String, Path> getPathsWithPrefix(Swagger swagger, String prefix) {
-        return swagger.getPaths().entrySet().stream().collect(Collectors.toMap(
-                e -> prefix + e.getKey(),
-                e -> e.getValue()));
+        if (swagger.getPaths() instanceof SpooledSection) {
+            return ((SpooledSection<Path>) swagger.getPaths()).withKeyPrefix(prefix);
+        }
+        return new PrefixedPaths(prefix, swagger.getPaths());
     }
 
     private boolean isBlankOrSlash(String basePath) {
         return StringUtils.isBlank(basePath) || basePath.equals("/");
     }
+
+    /**
+     * Copies a path with its path parameters renamed. The operations are copied shallowly, only the renamed parameters
+     * are new objects, so the given path, which may belong to a cached model, stays unchanged.
+     */
+    private static Path withPathParameterNames(Path path, Map<String, String> parameterNames) {
+        Path renamedPath = new Path();
+        renamedPath.setParameters(withPathParameterNames(path.getParameters(), parameterNames));
+        renamedPath.setVendorExtensions(path.getVendorExtensions());
+        for (Map.Entry<HttpMethod, Operation> operation : path.getOperationMap().entrySet()) {
+            renamedPath.set(operation.getKey().name().toLowerCase(), withPathParameterNames(operation.getValue(), parameterNames));
+        }
+        return renamedPath;
+    }
+
+    private static Operation withPathParameterNames(Operation operation, Map<String, String> parameterNames) {
+        Operation renamedOperation = new Operation();
+        renamedOperation.setTags(operation.getTags());
+        renamedOperation.setSummary(operation.getSummary());
+        renamedOperation.setDescription(operation.getDescription());
+        renamedOperation.setOperationId(operation.getOperationId());
+        renamedOperation.setSchemes(operation.getSchemes());
+        renamedOperation.setConsumes(operation.getConsumes());
+        renamedOperation.setProduces(operation.getProduces());
+        renamedOperation.setParameters(withPathParameterNames(operation.getParameters(), parameterNames));
+        renamedOperation.setResponses(operation.getResponses());
+        renamedOperation.setSecurity(operation.getSecurity());
+        renamedOperation.setExternalDocs(operation.getExternalDocs());
+        renamedOperation.setDeprecated(operation.isDeprecated());
+        renamedOperation.setVendorExtensions(operation.getVendorExtensions());
+        return renamedOperation;
+    }
+
+    private static List<Parameter> withPathParameterNames(List<Parameter> parameters, Map<String, String> parameterNames) {
+        if (parameters == null) {
+            return null;
+        }
+        List<Parameter> renamedParameters = new ArrayList<>(parameters.size());
+        for (Parameter parameter : parameters) {
+            String name = parameter instanceof PathParameter ? parameterNames.get(parameter.getName()) : null;
+            if (name == null) {
+                renamedParameters.add(parameter);
+            } else {
+                renamedParameters.add(copyOf((PathParameter) parameter).name(name));
+            }
+        }
+        return renamedParameters;
+    }
+
+    private static PathParameter copyOf(PathParameter parameter) {
+        PathParameter copy = new PathParameter();
+        copy.setName(parameter.getName());
+        copy.setDescription(parameter.getDescription());
+        copy.setRequired(parameter.getRequired());
+        copy.setAccess(parameter.getAccess());
+        copy.setReadOnly(parameter.isReadOnly());
+        copy.setVendorExtensions(parameter.getVendorExtensions());
+        copy.setType(parameter.getType());
+        copy.setFormat(parameter.getFormat());
+        copy.setCollectionFormat(parameter.getCollectionFormat());
+        copy.setItems(parameter.getItems());
+        copy.setEnum(parameter.getEnum());
+        // the getters convert the default and the example to the parameter type, the setters take them as text
+        copy.setDefaultValue(parameter.getDefaultValue() == null ? null : String.valueOf(parameter.getDefaultValue()));
+        copy.setExample(parameter.getExample() == null ? null : String.valueOf(parameter.getExample()));
+        copy.setMaximum(parameter.getMaximum());
+        copy.setExclusiveMaximum(parameter.isExclusiveMaximum());
+        copy.setMinimum(parameter.getMinimum());
+        copy.setExclusiveMinimum(parameter.isExclusiveMinimum());
+        copy.setMaxItems(parameter.getMaxItems());
+        copy.setMinItems(parameter.getMinItems());
+        copy.setMaxLength(parameter.getMaxLength());
+        copy.setMinLength(parameter.getMinLength());
+        copy.setPattern(parameter.getPattern());
+        copy.setUniqueItems(parameter.isUniqueItems());
+        copy.setMultipleOf(parameter.getMultipleOf());
+        copy.setAllowEmptyValue(parameter.getAllowEmptyValue());
+        return copy;
+    }
+
+    /**
+     * Read-only view of paths with a prefix prepended to their names, so that the paths need not be copied into a new
+     * map. The view iterates in the order of the underlying map.
+     */
+    static final class PrefixedPaths extends AbstractMap<String, Path> {
+
+        private final String prefix;
+        private final Map<String, Path> paths;
+
+        PrefixedPaths(String prefix, Map<String, Path> paths) {
+            this.prefix = prefix;
+            this.paths = paths;
+        }
+
+        @Override
+        public int size() {
+            return paths.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && ((String) key).startsWith(prefix) && paths.containsKey(((String) key).substring(prefix.length()));
+        }
+
+        @Override
+        public Path get(Object key) {
+            return containsKey(key) ? paths.get(((String) key).substring(prefix.length())) : null;
+        }
+
+        @Override
+        public Set<Map.Entry<String, Path>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Path>>() {
+                @Override
+                public Iterator<Map.Entry<String, Path>> iterator() {
+                    Iterator<Map.Entry<String, Path>> iterator = paths.entrySet().iterator();
+                    return new Iterator<Map.Entry<String, Path>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<String, Path> next() {
+                            Map.Entry<String, Path> path = iterator.next();
+                            return new SimpleImmutableEntry<>(prefix + path.getKey(), path.getValue());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return paths.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * Read-only view of the expected paths in which the paths matched by shape appear under the names of the actual
+     * paths. The renamed copies of the matched paths are made once, when the view is created.
+     */
+    private static final class MatchedPaths extends AbstractMap<String, Path> {
+
+        private final Map<String, Path> expectedPaths;
+        private final Map<String, String> expectedNames;   // by actual name
+        private final Map<String, String> actualNames;     // by expected name
+        private final Map<String, Path> renamedPaths;      // by actual name
+
+        MatchedPaths(Map<String, Path> expectedPaths, Map<String, String> expectedNames, Map<String, Path> renamedPaths) {
+            this.expectedPaths = expectedPaths;
+            this.expectedNames = expectedNames;
+            this.renamedPaths = renamedPaths;
+            this.actualNames = new HashMap<>();
+            expectedNames.forEach((actualName, expectedName) -> actualNames.put(expectedName, actualName));
+        }
+
+        @Override
+        public int size() {
+            return expectedPaths.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return expectedNames.containsKey(key) || !actualNames.containsKey(key) && expectedPaths.containsKey(key);
+        }
+
+        @Override
+        public Path get(Object key) {
+            if (expectedNames.containsKey(key)) {
+                return renamedPaths.get(key);
+            }
+            return actualNames.containsKey(key) ? null : expectedPaths.get(key);
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return new AbstractSet<String>() {
+                @Override
+                public Iterator<String> iterator() {
+                    Iterator<String> iterator = expectedPaths.keySet().iterator();
+                    return new Iterator<String>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public String next() {
+                            String expectedName = iterator.next();
+                            return actualNames.getOrDefault(expectedName, expectedName);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return expectedPaths.size();
+                }
+            };
+        }
+
+        @Override
+        public Set<Map.Entry<String, Path>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Path>>() {
+                @Override
+                public Iterator<Map.Entry<String, Path>> iterator() {
+                    Iterator<String> iterator = expectedPaths.keySet().iterator();
+                    return new Iterator<Map.Entry<String, Path>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<String, Path> next() {
+                            String expectedName = iterator.next();
+                            String name = actualNames.getOrDefault(expectedName, expectedName);
+                            return new SimpleImmutableEntry<>(name, get(name));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return expectedPaths.size();
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a batch of validations, see {@link SwaggerBatchRunner}.
+ */
+public final class BatchSummary {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final List<Result> results;
+    private final long wallTimeMillis;
+
+    BatchSummary(List<Result> results, long wallTimeMillis) {
+        List<Result> sortedResults = new ArrayList<>(results);
+        sortedResults.sort((result, other) -> result.getSpec().compareTo(other.getSpec()));
+        this.results = Collections.unmodifiableList(sortedResults);
+        this.wallTimeMillis = wallTimeMillis;
+    }
+
+    /**
+     * @return the outcome of every spec, ordered by the path of the spec
+     */
+    public List<Result> getResults() {
+        return results;
+    }
+
+    /**
+     * @param status status
+     * @return number of specs with that status
+     */
+    public int count(Status status) {
+        int count = 0;
+        for (Result result : results) {
+            if (result.getStatus() == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return {@code true} if every spec passed; also if there were no specs
+     */
+    public boolean isSuccessful() {
+        return count(Status.PASSED) == results.size();
+    }
+
+    /**
+     * @return wall time of the whole batch, in milliseconds
+     */
+    public long getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+
+    /**
+     * @return the number of specs per status followed by the errors of every spec which did not pass
+     */
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder(String.format("Validated %d specs in %.1f s: %d passed, %d failed, %d could not be validated",
+                results.size(), wallTimeMillis / 1000.0, count(Status.PASSED), count(Status.FAILED), count(Status.ERROR)));
+        for (Result result : results) {
+            if (result.getStatus() == Status.PASSED) {
+                continue;
+            }
+            summary.append(LINE_SEPARATOR).append(result.getStatus()).append(' ').append(result.getSpec());
+            List<String> errorMessages = result.getErrorMessages();
+            for (int i = 0; i < errorMessages.size(); i++) {
+                summary.append(LINE_SEPARATOR).append("  ").append(i + 1).append(") ")
+                        .append(errorMessages.get(i).trim().replace(LINE_SEPARATOR, LINE_SEPARATOR + "     "));
+            }
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Outcome of one spec.
+     */
+    public enum Status {
+        /** All checks passed. */
+        PASSED,
+        /** At least one check failed. */
+        FAILED,
+        /** The spec could not be validated, e.g. because it could not be read or has no counterpart. */
+        ERROR
+    }
+
+    /**
+     * Outcome of validating one spec against its counterpart.
+     */
+    public static final class Result {
+
+        private final String spec;
+        private final Status status;
+        private final List<String> errorMessages;
+
+        Result(String spec, Status status, List<String> errorMessages) {
+            this.spec = spec;
+            this.status = status;
+            this.errorMessages = Collections.unmodifiableList(errorMessages);
+        }
+
+        /**
+         * @return path of the expected spec, relative to the directory of the expected specs
+         */
+        public String getSpec() {
+            return spec;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the messages of the failed checks, or why the spec could not be validated; empty if it passed
+         */
+        public List<String> getErrorMessages() {
+            return errorMessages;
+        }
+
+        @Override
+        public String toString() {
+            return spec + ": " + status;
+        }
+    }
+}
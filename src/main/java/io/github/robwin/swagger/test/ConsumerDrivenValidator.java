@@ -18,8 +18,8 @@
  */
 package io.github.robwin.swagger.test;
 
+import io.github.robwin.swagger.test.SwaggerIndex.ParameterKey;
 import io.swagger.models.ArrayModel;
-import io.swagger.models.Info;
 import io.swagger.models.Model;
 import io.swagger.models.ModelImpl;
 import io.swagger.models.Operation;
@@ -36,12 +36,14 @@ import io.swagger.models.parameters.PathParameter;
 import io.swagger.models.parameters.QueryParameter;
 import io.swagger.models.parameters.RefParameter;
 import io.swagger.models.properties.Property;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.assertj.core.api.SoftAssertions;
@@ -49,106 +51,249 @@ import org.assertj.core.api.SoftAssertions;
 /**
  * Created by raceconditions on 3/17/16.
  */
-class ConsumerDrivenValidator extends AbstractContractValidator {
-
-    private SwaggerAssertionConfig assertionConfig;
-    private SoftAssertions softAssertions;
-    private PropertyValidator propertyValidator;
+class ConsumerDrivenValidator extends AbstractContractValidator<ConsumerDrivenValidator> {
 
     private Swagger actual;
+    private SwaggerIndex actualIndex;
     private SchemaObjectResolver schemaObjectResolver;   // provide means to fall back from local to global properties
+    private StructuralFingerprints structuralFingerprints;
+    private ProviderIndex providerIndex;   // shared by the contracts of a batch, see validateContracts
 
     ConsumerDrivenValidator(Swagger actual, SwaggerAssertionConfig assertionConfig) {
+        this(actual, assertionConfig, new SoftAssertions(), null, ErrorBudget.UNLIMITED, ValidationMetrics.DISABLED, null);
+    }
+
+    private ConsumerDrivenValidator(Swagger actual, SwaggerAssertionConfig assertionConfig, SoftAssertions softAssertions, ValidationReport report, ErrorBudget errorBudget, ValidationMetrics metrics, ValidationListener listener) {
         this.actual = actual;
         this.assertionConfig = assertionConfig;
-        softAssertions = new SoftAssertions();
-        propertyValidator = new PropertyValidator(assertionConfig, softAssertions);
+        this.plan = assertionConfig.getValidationPlan();
+        collectErrors(softAssertions, report, errorBudget, metrics, listener);
     }
 
     @Override
     public void validateSwagger(Swagger expected, SchemaObjectResolver schemaObjectResolver) {
-        this.schemaObjectResolver = schemaObjectResolver;
-
-        validateInfo(actual.getInfo(), expected.getInfo());
-
-        // Check Paths
-        if (isAssertionEnabled(SwaggerAssertionType.PATHS)) {
-            final Set<String> filter = assertionConfig.getPathsToIgnoreInExpected();
-            final Map<String, Path> expectedPaths = findExpectedPaths(expected, assertionConfig);
-            final Map<String, Path> actualPaths = getPathsIncludingBasePath(actual);
-            validatePaths(actualPaths, removeAllFromMap(expectedPaths, filter));
-        }
+        validateSwagger(expected, schemaObjectResolver, ValidationMetrics.DISABLED, null);
+    }
 
-        // Check Definitions
-        if (isAssertionEnabled(SwaggerAssertionType.DEFINITIONS)) {
-            final Set<String> filter = assertionConfig.getDefinitionsToIgnoreInExpected();
-            validateDefinitions(actual.getDefinitions(), removeAllFromMap(expected.getDefinitions(), filter));
+    /**
+     * Like {@link #validateSwagger(Swagger, SchemaObjectResolver)}, measuring the validation in {@code metrics} and
+     * telling {@code listener}, if not {@code null}, about its progress. Every call collects its errors anew, but the
+     * validator holds the state of one validation at a time, see {@link ValidationEngine}.
+     */
+    void validateSwagger(Swagger expected, SchemaObjectResolver schemaObjectResolver, ValidationMetrics metrics, ValidationListener listener) {
+        this.actualIndex = SwaggerSpecCache.index(actual);
+        collectErrors(new SoftAssertions(), ValidationReport.open(assertionConfig, "consumer-driven"), ErrorBudget.of(assertionConfig), metrics, listener);
+        try {
+            validate(expected, schemaObjectResolver);
+        } finally {
+            if (report != null) {
+                report.close();
+            }
         }
-
         softAssertions.assertAll();
+        if (report != null) {
+            report.assertNoViolations();
+        }
     }
 
+    /**
+     * Validates the actual schema against several consumer contracts. The actual paths including the base path, the
+     * {@link SwaggerIndex} of the actual schema and the fingerprints of the actual paths and definitions are computed
+     * once for all contracts, the resolved properties of the actual definitions are those of {@code providerResolver}.
+     * The contracts are validated in parallel if the configured parallelism allows it.
+     *
+     * @param contracts        contracts by consumer name
+     * @param providerResolver resolver whose actual side is the actual schema, shared by all contracts; its expected
+     *                         side is not used
+     * @return the error messages of each consumer, in the order of {@code contracts}; empty if its contract is satisfied
+     */
+    Map<String, List<String>> validateContracts(Map<String, Swagger> contracts, SchemaObjectResolver providerResolver) {
+        ProviderIndex index = new ProviderIndex(getPathsIncludingBasePath(actual));
+        SwaggerIndex contractActualIndex = SwaggerSpecCache.index(actual);
+        List<List<String>> errorMessages = ValidationTasks.map(new ArrayList<>(contracts.values()), assertionConfig.getParallelism(), contract -> {
+            ConsumerDrivenValidator contractValidator = new ConsumerDrivenValidator(actual, assertionConfig, new SoftAssertions(), null, ErrorBudget.of(assertionConfig), ValidationMetrics.DISABLED, null);
+            contractValidator.actualIndex = contractActualIndex;
+            contractValidator.providerIndex = index;
+            contractValidator.validate(contract, providerResolver.withExpected(contract));
+            return ValidationTasks.errorMessagesOf(contractValidator.softAssertions);
+        });
+
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        Iterator<List<String>> contractErrorMessages = errorMessages.iterator();
+        for (String consumer : contracts.keySet()) {
+            result.put(consumer, contractErrorMessages.next());
+        }
+        return result;
+    }
 
-    private void validateInfo(Info actualInfo, Info expectedInfo) {
+    private void validate(Swagger expected, SchemaObjectResolver schemaObjectResolver) {
+        this.schemaObjectResolver = schemaObjectResolver;
+        this.structuralFingerprints = new StructuralFingerprints(assertionConfig, schemaObjectResolver);
+        if (assertionConfig.getStateFile() != null) {
+            this.validationState = IncrementalValidationState.forFile(assertionConfig.getStateFile()).section("consumer-driven", assertionConfig);
+        }
 
-        // Version.  OFF by default.
-        if (isAssertionEnabled(SwaggerAssertionType.VERSION)) {
-            softAssertions.assertThat(actualInfo.getVersion()).as("Checking Version").isEqualTo(expectedInfo.getVersion());
+        Map<String, Path> actualPaths = null;
+        Map<String, Path> expectedPaths = null;
+        Map<String, Model> expectedDefinitions = null;
+        for (ValidationPlan.Step step : plan.getSteps()) {
+            if (isStopped()) {
+                break;
+            }
+            switch (step) {
+                case VERSION:
+                    // Version.  OFF by default.
+                    lazySoftAssertions.location().at(SwaggerAssertionType.VERSION);
+                    lazySoftAssertions.isEqualTo(actual.getInfo().getVersion(), expected.getInfo().getVersion(), LazyDescription.of("Checking Version"));
+                    break;
+                case INFO:
+                    // Everything (but potentially brittle, therefore OFF by default)
+                    lazySoftAssertions.location().at(SwaggerAssertionType.INFO);
+                    lazySoftAssertions.isEqualToComparingFieldByField(actual.getInfo(), expected.getInfo(), LazyDescription.of("Checking Info"));
+                    break;
+                case PATH_KEYS:
+                    lazySoftAssertions.location().at(SwaggerAssertionType.PATHS);
+                    actualPaths = providerIndex != null ? providerIndex.pathsIncludingBasePath : getPathsIncludingBasePath(actual);
+                    expectedPaths = matchExpectedPaths(actualPaths, removeAllFromMap(findExpectedPaths(expected, assertionConfig), assertionConfig.getPathIgnoreRules()));
+                    validatePathKeys(actualPaths, expectedPaths);
+                    break;
+                case PATHS:
+                    lazySoftAssertions.location().at(SwaggerAssertionType.PATHS);
+                    validatePathEntries(actualPaths, expectedPaths);
+                    break;
+                case DEFINITION_KEYS:
+                    lazySoftAssertions.location().at(SwaggerAssertionType.DEFINITIONS);
+                    expectedDefinitions = removeAllFromMap(expected.getDefinitions(), assertionConfig.getDefinitionIgnoreRules());
+                    validateDefinitionKeys(actual.getDefinitions(), expectedDefinitions);
+                    break;
+                case DEFINITIONS:
+                    lazySoftAssertions.location().at(SwaggerAssertionType.DEFINITIONS);
+                    validateDefinitionEntries(actual.getDefinitions(), expectedDefinitions);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown validation step " + step);
+            }
         }
 
-        // Everything (but potentially brittle, therefore OFF by default)
-        if (isAssertionEnabled(SwaggerAssertionType.INFO)) {
-            softAssertions.assertThat(actualInfo).as("Checking Info").isEqualToComparingFieldByField(expectedInfo);
+        if (validationState != null) {
+            validationState.save();
         }
     }
 
-    private void validatePaths(Map<String, Path> actualPaths, Map<String, Path> expectedPaths) {
+
+    private void validatePathKeys(Map<String, Path> actualPaths, Map<String, Path> expectedPaths) {
         if (MapUtils.isNotEmpty(expectedPaths)) {
-            softAssertions.assertThat(actualPaths).as("Checking Paths").isNotEmpty();
+            lazySoftAssertions.isNotEmpty(actualPaths, LazyDescription.of("Checking Paths"));
             if (MapUtils.isNotEmpty(actualPaths)) {
-                softAssertions.assertThat(actualPaths.keySet()).as("Checking Paths").containsAll(expectedPaths.keySet());
-                for (Map.Entry<String, Path> actualPathEntry : actualPaths.entrySet()) {
-                    Path expectedPath = expectedPaths.get(actualPathEntry.getKey());
-                    Path actualPath = actualPathEntry.getValue();
-                    String pathName = actualPathEntry.getKey();
-                    validatePath(pathName, actualPath, expectedPath);
-                }
+                lazySoftAssertions.containsAll(actualPaths.keySet(), expectedPaths.keySet(), LazyDescription.of("Checking Paths"));
             }
         } else {
-            softAssertions.assertThat(actualPaths).as("Checking Paths").isNullOrEmpty();
+            lazySoftAssertions.isNullOrEmpty(actualPaths, LazyDescription.of("Checking Paths"));
         }
     }
 
-    private void validateDefinitions(Map<String, Model> actualDefinitions, Map<String, Model> expectedDefinitions) {
+    private void validatePathEntries(Map<String, Path> actualPaths, Map<String, Path> expectedPaths) {
+        if (MapUtils.isNotEmpty(expectedPaths) && MapUtils.isNotEmpty(actualPaths)) {
+            validateEach(actualPaths.entrySet(), (validator, actualPathEntry) -> {
+                Path expectedPath = expectedPaths.get(actualPathEntry.getKey());
+                Path actualPath = actualPathEntry.getValue();
+                String pathName = actualPathEntry.getKey();
+                validator.validatePathIfChanged(pathName, actualPath, expectedPath);
+            });
+        }
+    }
+
+    private void validateDefinitionKeys(Map<String, Model> actualDefinitions, Map<String, Model> expectedDefinitions) {
         if (MapUtils.isNotEmpty(expectedDefinitions)) {
-            softAssertions.assertThat(actualDefinitions).as("Checking Definitions").isNotEmpty();
+            lazySoftAssertions.isNotEmpty(actualDefinitions, LazyDescription.of("Checking Definitions"));
             if (MapUtils.isNotEmpty(actualDefinitions)) {
-                softAssertions.assertThat(actualDefinitions.keySet()).as("Checking Definitions").containsAll(expectedDefinitions.keySet());
-                for (Map.Entry<String, Model> expectedDefinitionEntry : expectedDefinitions.entrySet()) {
-                    Model expectedDefinition = expectedDefinitionEntry.getValue();
-                    Model actualDefinition = actualDefinitions.get(expectedDefinitionEntry.getKey());
-                    String definitionName = expectedDefinitionEntry.getKey();
-                    validateDefinition(definitionName, actualDefinition, expectedDefinition);
-                }
+                lazySoftAssertions.containsAll(actualDefinitions.keySet(), expectedDefinitions.keySet(), LazyDescription.of("Checking Definitions"));
+            }
+        }
+    }
+
+    private void validateDefinitionEntries(Map<String, Model> actualDefinitions, Map<String, Model> expectedDefinitions) {
+        if (MapUtils.isNotEmpty(expectedDefinitions) && MapUtils.isNotEmpty(actualDefinitions)) {
+            validateEach(expectedDefinitions.entrySet(), (validator, expectedDefinitionEntry) -> {
+                Model expectedDefinition = expectedDefinitionEntry.getValue();
+                Model actualDefinition = actualDefinitions.get(expectedDefinitionEntry.getKey());
+                String definitionName = expectedDefinitionEntry.getKey();
+                validator.validateDefinitionIfChanged(definitionName, actualDefinition, expectedDefinition);
+            });
+        }
+    }
+
+    private void validatePathIfChanged(String pathName, Path actualPath, Path expectedPath) {
+        if (isStopped()) {
+            return;
+        }
+        lazySoftAssertions.location().atPath(pathName);
+        if (listener != null) {
+            listener.pathStarted(pathName);
+        }
+        try (ValidationMetrics.Span ignored = metrics.start(ValidationMetrics.Phase.PATHS, pathName)) {
+            if (actualPath == null || expectedPath == null) {
+                validatePath(pathName, actualPath, expectedPath);
+            } else {
+                validateIfChanged("path " + pathName,
+                        actualFingerprintOfPath(pathName, actualPath), structuralFingerprints.ofPath(expectedPath, false),
+                        validator -> validator.validatePath(pathName, actualPath, expectedPath));
+            }
+        }
+        if (listener != null) {
+            listener.pathFinished(pathName);
+        }
+    }
+
+    private void validateDefinitionIfChanged(String definitionName, Model actualDefinition, Model expectedDefinition) {
+        if (isStopped()) {
+            return;
+        }
+        lazySoftAssertions.location().atDefinition(definitionName);
+        try (ValidationMetrics.Span ignored = metrics.start(ValidationMetrics.Phase.DEFINITIONS, definitionName)) {
+            if (actualDefinition == null || expectedDefinition == null) {
+                validateDefinition(definitionName, actualDefinition, expectedDefinition);
+            } else {
+                validateIfChanged("definition " + definitionName,
+                        actualFingerprintOfDefinition(definitionName, actualDefinition),
+                        structuralFingerprints.ofDefinition(definitionName, expectedDefinition, false),
+                        validator -> validator.validateDefinition(definitionName, actualDefinition, expectedDefinition));
             }
         }
+        if (listener != null) {
+            listener.definitionCompared(definitionName);
+        }
+    }
+
+    private long actualFingerprintOfPath(String pathName, Path actualPath) {
+        if (providerIndex == null) {
+            return structuralFingerprints.ofPath(actualPath, true);
+        }
+        return providerIndex.pathFingerprints.computeIfAbsent(pathName, name -> structuralFingerprints.ofPath(actualPath, true));
+    }
+
+    private long actualFingerprintOfDefinition(String definitionName, Model actualDefinition) {
+        if (providerIndex == null) {
+            return structuralFingerprints.ofDefinition(definitionName, actualDefinition, true);
+        }
+        return providerIndex.definitionFingerprints.computeIfAbsent(definitionName, name -> structuralFingerprints.ofDefinition(name, actualDefinition, true));
     }
 
     private void validatePath(String pathName, Path actualPath, Path expectedPath) {
         if (expectedPath != null) {
-            softAssertions.assertThat(actualPath.getOperations().size()).as("Checking number of operations of path '%s'", pathName).isGreaterThanOrEqualTo(expectedPath.getOperations().size());
-            validateOperation(actualPath.getGet(), expectedPath.getGet(), pathName, "GET");
-            validateOperation(actualPath.getDelete(), expectedPath.getDelete(), pathName, "DELETE");
-            validateOperation(actualPath.getPost(), expectedPath.getPost(), pathName, "POST");
-            validateOperation(actualPath.getPut(), expectedPath.getPut(), pathName, "PUT");
-            validateOperation(actualPath.getPatch(), expectedPath.getPatch(), pathName, "PATCH");
-            validateOperation(actualPath.getOptions(), expectedPath.getOptions(), pathName, "OPTIONS");
+            lazySoftAssertions.isGreaterThanOrEqualTo(actualPath.getOperations().size(), expectedPath.getOperations().size(), LazyDescription.of("Checking number of operations of path '%s'", pathName));
+            for (ValidationPlan.OperationStep operationStep : plan.getOperationSteps()) {
+                if (isStopped()) {
+                    break;
+                }
+                validateOperation(operationStep.operationOf(actualPath), operationStep.operationOf(expectedPath), pathName, operationStep.getHttpMethod());
+            }
         }
     }
 
     private void validateDefinition(String definitionName, Model actualDefinition, Model expectedDefinition) {
         if (expectedDefinition != null && actualDefinition != null) {
-            validateModel(actualDefinition, expectedDefinition, String.format("Checking model of definition '%s", definitionName));
+            validateModel(actualDefinition, expectedDefinition, LazyDescription.of("Checking model of definition '%s", definitionName));
             validateDefinitionProperties(schemaObjectResolver.resolvePropertiesFromActual(actualDefinition),
                                          schemaObjectResolver.resolvePropertiesFromExpected(expectedDefinition),
                                          definitionName);
@@ -162,185 +307,187 @@ class ConsumerDrivenValidator extends AbstractContractValidator {
     }
 
     private void validateDefinitionRequiredProperties(List<String> actualRequiredProperties, List<String> expectedRequiredProperties, String definitionName) {
+        LazyDescription description = LazyDescription.of("Checking required properties of definition '%s'", definitionName);
         if (CollectionUtils.isNotEmpty(expectedRequiredProperties)) {
-            softAssertions.assertThat(actualRequiredProperties).as("Checking required properties of definition '%s'", definitionName).isNotEmpty();
+            lazySoftAssertions.isNotEmpty(actualRequiredProperties, description);
             if (CollectionUtils.isNotEmpty(actualRequiredProperties)) {
                 final Set<String> filteredExpectedProperties = filterWhitelistedPropertyNames(definitionName, new HashSet<>(expectedRequiredProperties));
-                softAssertions.assertThat(actualRequiredProperties).as("Checking required properties of definition '%s'", definitionName).hasSameElementsAs(filteredExpectedProperties);
+                lazySoftAssertions.hasSameElementsAs(actualRequiredProperties, filteredExpectedProperties, description);
             }
         } else {
-            softAssertions.assertThat(actualRequiredProperties).as("Checking required properties of definition '%s'", definitionName).isNullOrEmpty();
+            lazySoftAssertions.isNullOrEmpty(actualRequiredProperties, description);
         }
     }
 
-    private void validateModel(Model actualDefinition, Model expectedDefinition, String message) {
-        if (isAssertionEnabled(SwaggerAssertionType.MODELS)) {
+    private void validateModel(Model actualDefinition, Model expectedDefinition, LazyDescription description) {
+        if (plan.isModelsValidated()) {
             if (expectedDefinition instanceof ModelImpl) {
                 // TODO Validate ModelImpl
-                softAssertions.assertThat(actualDefinition).as(message).isExactlyInstanceOf(ModelImpl.class);
+                modelSoftAssertions.isExactlyInstanceOf(actualDefinition, ModelImpl.class, description);
             } else if (expectedDefinition instanceof RefModel) {
                 // TODO Validate RefModel
-                softAssertions.assertThat(actualDefinition).as(message).isExactlyInstanceOf(RefModel.class);
+                modelSoftAssertions.isExactlyInstanceOf(actualDefinition, RefModel.class, description);
             } else if (expectedDefinition instanceof ArrayModel) {
                 ArrayModel arrayModel = (ArrayModel) expectedDefinition;
                 // TODO Validate ArrayModel
-                softAssertions.assertThat(actualDefinition).as(message).isExactlyInstanceOf(ArrayModel.class);
+                modelSoftAssertions.isExactlyInstanceOf(actualDefinition, ArrayModel.class, description);
             } else {
                 // TODO Validate all model types
-                softAssertions.assertThat(actualDefinition).isExactlyInstanceOf(expectedDefinition.getClass());
+                modelSoftAssertions.isExactlyInstanceOf(actualDefinition, expectedDefinition.getClass(), null);
             }
         }
     }
 
     private void validateDefinitionProperties(Map<String, Property> actualDefinitionProperties, Map<String, Property> expectedDefinitionProperties, String definitionName) {
         if (MapUtils.isNotEmpty(expectedDefinitionProperties)) {
-            softAssertions.assertThat(actualDefinitionProperties).as("Checking properties of definition '%s", definitionName).isNotEmpty();
+            lazySoftAssertions.isNotEmpty(actualDefinitionProperties, LazyDescription.of("Checking properties of definition '%s", definitionName));
             if (MapUtils.isNotEmpty(actualDefinitionProperties)) {
                 final Set<String> filteredExpectedProperties = filterWhitelistedPropertyNames(definitionName, expectedDefinitionProperties.keySet());
-                softAssertions.assertThat(actualDefinitionProperties.keySet()).as("Checking properties of definition '%s'", definitionName).containsAll(filteredExpectedProperties);
+                lazySoftAssertions.containsAll(actualDefinitionProperties.keySet(), filteredExpectedProperties, LazyDescription.of("Checking properties of definition '%s'", definitionName));
                 for (Map.Entry<String, Property> expectedDefinitionPropertyEntry : expectedDefinitionProperties.entrySet()) {
                     Property expectedDefinitionProperty = expectedDefinitionPropertyEntry.getValue();
                     Property actualDefinitionProperty = actualDefinitionProperties.get(expectedDefinitionPropertyEntry.getKey());
                     String propertyName = expectedDefinitionPropertyEntry.getKey();
-                    validateProperty(actualDefinitionProperty, expectedDefinitionProperty, String.format("Checking property '%s' of definition '%s'", propertyName, definitionName));
+                    lazySoftAssertions.location().atProperty(propertyName);
+                    validateProperty(actualDefinitionProperty, expectedDefinitionProperty, LazyDescription.of("Checking property '%s' of definition '%s'", propertyName, definitionName));
                 }
+                lazySoftAssertions.location().atProperty(null);
             }
         } else {
-            softAssertions.assertThat(actualDefinitionProperties).as("Checking properties of definition '%s", definitionName).isNullOrEmpty();
+            lazySoftAssertions.isNullOrEmpty(actualDefinitionProperties, LazyDescription.of("Checking properties of definition '%s", definitionName));
         }
     }
 
-    private void validateProperty(Property actualProperty, Property expectedProperty, String message) {
-        propertyValidator.validateProperty(actualProperty, expectedProperty, message);
+    private void validateProperty(Property actualProperty, Property expectedProperty, LazyDescription description) {
+        try (ValidationMetrics.Span ignored = metrics.start(ValidationMetrics.Phase.PROPERTIES)) {
+            propertyValidator.validateProperty(actualProperty, expectedProperty, schemaObjectResolver.getConsumerDrivenSchemaComparator(), description);
+        }
     }
 
     private void validateOperation(Operation actualOperation, Operation expectedOperation, String path, String httpMethod) {
-        String message = String.format("Checking '%s' operation of path '%s'", httpMethod, path);
+        lazySoftAssertions.location().atMethod(httpMethod);
         if (expectedOperation != null) {
             if (actualOperation != null) {
-                softAssertions.assertThat(actualOperation).as(message).isNotNull();
                 //Validate consumes
                 validateList(schemaObjectResolver.getActualConsumes(actualOperation),
                         schemaObjectResolver.getExpectedConsumes(expectedOperation),
-                        String.format("Checking '%s' of '%s' operation of path '%s'", "consumes", httpMethod, path));
+                        LazyDescription.of("Checking '%s' of '%s' operation of path '%s'", "consumes", httpMethod, path));
                 //Validate produces
                 validateList(schemaObjectResolver.getActualProduces(actualOperation),
                         schemaObjectResolver.getExpectedProduces(expectedOperation),
-                        String.format("Checking '%s' of '%s' operation of path '%s'", "produces", httpMethod, path));
+                        LazyDescription.of("Checking '%s' of '%s' operation of path '%s'", "produces", httpMethod, path));
                 //Validate parameters
-                validateParameters(actualOperation.getParameters(), expectedOperation.getParameters(), httpMethod, path);
+                try (ValidationMetrics.Span ignored = metrics.start(ValidationMetrics.Phase.PARAMETERS)) {
+                    validateParameters(actualParametersOf(actualOperation), expectedOperation.getParameters(), httpMethod, path);
+                }
                 //Validate responses
-                validateResponses(actualOperation.getResponses(), expectedOperation.getResponses(), httpMethod, path);
+                try (ValidationMetrics.Span ignored = metrics.start(ValidationMetrics.Phase.RESPONSES)) {
+                    validateResponses(actualOperation.getResponses(), expectedOperation.getResponses(), httpMethod, path);
+                }
             }
         }
     }
 
-    private void validateParameters(List<Parameter> actualOperationParameters,  List<Parameter> expectedOperationParameters, String httpMethod, String path) {
-        String message = String.format("Checking parameters of '%s' operation of path '%s'.", httpMethod, path);
-        Map<String, Parameter> actualParametersMap = new HashMap<>();
-        for (final Parameter parameter : actualOperationParameters) {
-            actualParametersMap.put(parameterUniqueKey(parameter), parameter);
-        }
+    private Map<ParameterKey, Parameter> actualParametersOf(Operation actualOperation) {
+        Map<ParameterKey, Parameter> parameters = actualIndex != null ? actualIndex.parametersOf(actualOperation) : null;
+        return parameters != null ? parameters : SwaggerIndex.parametersByKey(actualOperation.getParameters());
+    }
+
+    private void validateParameters(Map<ParameterKey, Parameter> actualParametersMap, List<Parameter> expectedOperationParameters, String httpMethod, String path) {
+        // the map may belong to the index of the actual schema, so matched parameters are tracked instead of removed
+        Set<ParameterKey> matchedParameterKeys = new HashSet<>();
         // All expectedParameters must be there and must match.
         for (final Parameter expectedParameter : expectedOperationParameters) {
             final String parameterName = expectedParameter.getName();
-            Parameter actualParameter = actualParametersMap.remove(parameterUniqueKey(expectedParameter));
-            String actualParameterNotNullMessage = String.format("%s Expected parameter with name='%s' and in='%s' is missing", message, expectedParameter.getName(), expectedParameter.getIn());
-            softAssertions.assertThat(actualParameter).as(actualParameterNotNullMessage).isNotNull();
+            ParameterKey parameterKey = ParameterKey.of(expectedParameter);
+            Parameter actualParameter = matchedParameterKeys.add(parameterKey) ? actualParametersMap.get(parameterKey) : null;
+            lazySoftAssertions.isNotNull(actualParameter, LazyDescription.of("Checking parameters of '%s' operation of path '%s'. Expected parameter with name='%s' and in='%s' is missing",
+                    httpMethod, path, expectedParameter.getName(), expectedParameter.getIn()));
             validateParameter(actualParameter, expectedParameter, parameterName, httpMethod, path);
         }
         // If there are any extra parameters, these are OK, as long as they are optional.
-        for (final Parameter extraParameter : actualParametersMap.values()) {
-            String extraParameterNotOptionalMessage = String.format("%s Unexpected parameter with name='%s' and in='%s' is missing", message, extraParameter.getName(), extraParameter.getIn());
-            softAssertions.assertThat(extraParameter.getRequired()).as(extraParameterNotOptionalMessage).isFalse();
+        for (final Map.Entry<ParameterKey, Parameter> actualParameterEntry : actualParametersMap.entrySet()) {
+            if (matchedParameterKeys.contains(actualParameterEntry.getKey())) {
+                continue;
+            }
+            final Parameter extraParameter = actualParameterEntry.getValue();
+            lazySoftAssertions.isFalse(extraParameter.getRequired(), LazyDescription.of("Checking parameters of '%s' operation of path '%s'. Unexpected parameter with name='%s' and in='%s' is missing",
+                    httpMethod, path, extraParameter.getName(), extraParameter.getIn()));
         }
     }
 
-    /**
-     * Generates a unique key for a parameter.
-     * <p>
-     * From <a href="https://github.com/OAI/OpenAPI-Specification/blob/master/versions/2.0.md#parameterObject" target="_top">OpenAPI Specification</a>
-     * "A unique parameter is defined by a combination of a name and location."
-     *
-     * @param parameter the parameter to generate a unique key for
-     * @return a unique key based on name and location ({@link Parameter#getIn()})
-     */
-    private String parameterUniqueKey(Parameter parameter) {
-        return parameter.getName() + parameter.getIn();
-    }
-
     private void validateParameter(Parameter actualParameter, Parameter expectedParameter, String parameterName, String httpMethod, String path) {
         if (expectedParameter != null) {
-            String message = String.format("Checking parameter '%s' of '%s' operation of path '%s'", parameterName, httpMethod, path);
-            softAssertions.assertThat(actualParameter).as(message).isExactlyInstanceOf(expectedParameter.getClass());
+            LazyDescription description = LazyDescription.of("Checking parameter '%s' of '%s' operation of path '%s'", parameterName, httpMethod, path);
+            lazySoftAssertions.isExactlyInstanceOf(actualParameter, expectedParameter.getClass(), description);
             if (expectedParameter instanceof BodyParameter && actualParameter instanceof BodyParameter) {
                 BodyParameter actualBodyParameter = (BodyParameter) expectedParameter;
                 BodyParameter expectedBodyParameter = (BodyParameter) expectedParameter;
-                validateModel(actualBodyParameter.getSchema(), expectedBodyParameter.getSchema(), String.format("Checking model of parameter '%s' of '%s' operation of path '%s'", parameterName, httpMethod, path));
+                validateModel(actualBodyParameter.getSchema(), expectedBodyParameter.getSchema(), LazyDescription.of("Checking model of parameter '%s' of '%s' operation of path '%s'", parameterName, httpMethod, path));
             } else if (expectedParameter instanceof PathParameter && actualParameter instanceof PathParameter) {
                 PathParameter actualPathParameter = (PathParameter) actualParameter;
                 PathParameter expectedPathParameter = (PathParameter) expectedParameter;
-                softAssertions.assertThat(actualPathParameter.getType()).as(message).isEqualTo(expectedPathParameter.getType());
+                lazySoftAssertions.isEqualTo(actualPathParameter.getType(), expectedPathParameter.getType(), description);
                 List<String> expectedEnums = expectedPathParameter.getEnum();
                 if (CollectionUtils.isNotEmpty(expectedEnums)) {
-                    softAssertions.assertThat(actualPathParameter.getEnum()).as(message).hasSameElementsAs(expectedEnums);
+                    lazySoftAssertions.hasSameElementsAs(actualPathParameter.getEnum(), expectedEnums, description);
                 } else {
-                    softAssertions.assertThat(actualPathParameter.getEnum()).as(message).isNullOrEmpty();
+                    lazySoftAssertions.isNullOrEmpty(actualPathParameter.getEnum(), description);
                 }
             } else if (expectedParameter instanceof QueryParameter && actualParameter instanceof QueryParameter) {
                 QueryParameter actualQueryParameter = (QueryParameter) actualParameter;
                 QueryParameter expectedQueryParameter = (QueryParameter) expectedParameter;
-                softAssertions.assertThat(actualQueryParameter.getType()).as(message).isEqualTo(expectedQueryParameter.getType());
+                lazySoftAssertions.isEqualTo(actualQueryParameter.getType(), expectedQueryParameter.getType(), description);
                 List<String> expectedEnums = expectedQueryParameter.getEnum();
                 if (CollectionUtils.isNotEmpty(expectedEnums)) {
-                    softAssertions.assertThat(actualQueryParameter.getEnum()).as(message).hasSameElementsAs(expectedEnums);
+                    lazySoftAssertions.hasSameElementsAs(actualQueryParameter.getEnum(), expectedEnums, description);
                 } else {
-                    softAssertions.assertThat(actualQueryParameter.getEnum()).as(message).isNullOrEmpty();
+                    lazySoftAssertions.isNullOrEmpty(actualQueryParameter.getEnum(), description);
                 }
             } else if (expectedParameter instanceof HeaderParameter && actualParameter instanceof HeaderParameter) {
                 HeaderParameter actualHeaderParameter = (HeaderParameter) actualParameter;
                 HeaderParameter expectedHeaderParameter = (HeaderParameter) expectedParameter;
-                softAssertions.assertThat(actualHeaderParameter.getType()).as(message).isEqualTo(expectedHeaderParameter.getType());
+                lazySoftAssertions.isEqualTo(actualHeaderParameter.getType(), expectedHeaderParameter.getType(), description);
                 List<String> expectedEnums = expectedHeaderParameter.getEnum();
                 if (CollectionUtils.isNotEmpty(expectedEnums)) {
-                    softAssertions.assertThat(actualHeaderParameter.getEnum()).as(message).hasSameElementsAs(expectedEnums);
+                    lazySoftAssertions.hasSameElementsAs(actualHeaderParameter.getEnum(), expectedEnums, description);
                 } else {
-                    softAssertions.assertThat(actualHeaderParameter.getEnum()).as(message).isNullOrEmpty();
+                    lazySoftAssertions.isNullOrEmpty(actualHeaderParameter.getEnum(), description);
                 }
             } else if (expectedParameter instanceof FormParameter && actualParameter instanceof FormParameter) {
                 FormParameter actualFormParameter = (FormParameter) actualParameter;
                 FormParameter expectedFormParameter = (FormParameter) expectedParameter;
-                softAssertions.assertThat(actualFormParameter.getType()).as(message).isEqualTo(expectedFormParameter.getType());
+                lazySoftAssertions.isEqualTo(actualFormParameter.getType(), expectedFormParameter.getType(), description);
                 List<String> expectedEnums = expectedFormParameter.getEnum();
                 if (CollectionUtils.isNotEmpty(expectedEnums)) {
-                    softAssertions.assertThat(actualFormParameter.getEnum()).as(message).hasSameElementsAs(expectedEnums);
+                    lazySoftAssertions.hasSameElementsAs(actualFormParameter.getEnum(), expectedEnums, description);
                 } else {
-                    softAssertions.assertThat(actualFormParameter.getEnum()).as(message).isNullOrEmpty();
+                    lazySoftAssertions.isNullOrEmpty(actualFormParameter.getEnum(), description);
                 }
             } else if (expectedParameter instanceof CookieParameter && actualParameter instanceof CookieParameter) {
                 CookieParameter actualCookieParameter = (CookieParameter) actualParameter;
                 CookieParameter expectedCookieParameter = (CookieParameter) expectedParameter;
-                softAssertions.assertThat(actualCookieParameter.getType()).as(message).isEqualTo(expectedCookieParameter.getType());
+                lazySoftAssertions.isEqualTo(actualCookieParameter.getType(), expectedCookieParameter.getType(), description);
                 List<String> expectedEnums = expectedCookieParameter.getEnum();
                 if (CollectionUtils.isNotEmpty(expectedEnums)) {
-                    softAssertions.assertThat(actualCookieParameter.getEnum()).as(message).hasSameElementsAs(expectedEnums);
+                    lazySoftAssertions.hasSameElementsAs(actualCookieParameter.getEnum(), expectedEnums, description);
                 } else {
-                    softAssertions.assertThat(actualCookieParameter.getEnum()).as(message).isNullOrEmpty();
+                    lazySoftAssertions.isNullOrEmpty(actualCookieParameter.getEnum(), description);
                 }
             } else if (expectedParameter instanceof RefParameter && actualParameter instanceof RefParameter) {
                 RefParameter expectedRefParameter = (RefParameter) expectedParameter;
                 RefParameter actualRefParameter = (RefParameter) actualParameter;
-                softAssertions.assertThat(actualRefParameter.getSimpleRef()).as(message).isEqualTo(expectedRefParameter.getSimpleRef());
+                lazySoftAssertions.isEqualTo(actualRefParameter.getSimpleRef(), expectedRefParameter.getSimpleRef(), description);
             }
         }
     }
 
     private void validateResponses(Map<String, Response> actualOperationResponses, Map<String, Response> expectedOperationResponses, String httpMethod, String path) {
-        String message = String.format("Checking responses of '%s' operation of path '%s'", httpMethod, path);
+        LazyDescription description = LazyDescription.of("Checking responses of '%s' operation of path '%s'", httpMethod, path);
         if (MapUtils.isNotEmpty(expectedOperationResponses)) {
-            softAssertions.assertThat(actualOperationResponses).as(message).isNotEmpty();
+            lazySoftAssertions.isNotEmpty(actualOperationResponses, description);
             if (MapUtils.isNotEmpty(actualOperationResponses)) {
-                softAssertions.assertThat(actualOperationResponses.keySet()).as(message).hasSameElementsAs(expectedOperationResponses.keySet());
+                lazySoftAssertions.hasSameElementsAs(actualOperationResponses.keySet(), expectedOperationResponses.keySet(), description);
                 for (Map.Entry<String, Response> actualResponseEntry : actualOperationResponses.entrySet()) {
                     Response expectedResponse = expectedOperationResponses.get(actualResponseEntry.getKey());
                     Response actualResponse = actualResponseEntry.getValue();
@@ -349,64 +496,99 @@ class ConsumerDrivenValidator extends AbstractContractValidator {
                 }
             }
         } else {
-            softAssertions.assertThat(actualOperationResponses).as(message).isNullOrEmpty();
+            lazySoftAssertions.isNullOrEmpty(actualOperationResponses, description);
         }
     }
 
     private void validateResponse(Response actualResponse, Response expectedResponse, String responseName, String httpMethod, String path) {
         if (expectedResponse != null) {
-            validateProperty(actualResponse.getSchema(), expectedResponse.getSchema(), String.format("Checking response schema of response '%s' of '%s' operation of path '%s'", responseName, httpMethod, path));
+            validateProperty(actualResponse.getSchema(), expectedResponse.getSchema(), LazyDescription.of("Checking response schema of response '%s' of '%s' operation of path '%s'", responseName, httpMethod, path));
             validateResponseHeaders(actualResponse.getHeaders(), expectedResponse.getHeaders(), responseName, httpMethod, path);
         }
     }
 
     private void validateResponseHeaders(Map<String, Property> actualResponseHeaders, Map<String, Property> expectedResponseHeaders, String responseName, String httpMethod, String path) {
-        String message = String.format("Checking response headers of response '%s' of '%s' operation of path '%s'", responseName, httpMethod, path);
+        LazyDescription description = LazyDescription.of("Checking response headers of response '%s' of '%s' operation of path '%s'", responseName, httpMethod, path);
         if (MapUtils.isNotEmpty(expectedResponseHeaders)) {
-            softAssertions.assertThat(actualResponseHeaders).as(message).isNotEmpty();
+            lazySoftAssertions.isNotEmpty(actualResponseHeaders, description);
             if (MapUtils.isNotEmpty(actualResponseHeaders)) {
-                softAssertions.assertThat(actualResponseHeaders.keySet()).as(message).containsAll(expectedResponseHeaders.keySet());
+                lazySoftAssertions.containsAll(actualResponseHeaders.keySet(), expectedResponseHeaders.keySet(), description);
                 for (Map.Entry<String, Property> expectedResponseHeaderEntry : expectedResponseHeaders.entrySet()) {
                     Property expectedResponseHeader = expectedResponseHeaderEntry.getValue();
                     Property actualResponseHeader = actualResponseHeaders.get(expectedResponseHeaderEntry.getKey());
                     String responseHeaderName = expectedResponseHeaderEntry.getKey();
-                    validateProperty(actualResponseHeader, expectedResponseHeader, String.format("Checking response header '%s' of response '%s' of '%s' operation of path '%s'", responseHeaderName, responseName, httpMethod, path));
+                    validateProperty(actualResponseHeader, expectedResponseHeader, LazyDescription.of("Checking response header '%s' of response '%s' of '%s' operation of path '%s'", responseHeaderName, responseName, httpMethod, path));
                 }
             }
         } else {
-            softAssertions.assertThat(actualResponseHeaders).as(message).isNullOrEmpty();
+            lazySoftAssertions.isNullOrEmpty(actualResponseHeaders, description);
         }
     }
 
-    private void validateList(List<String> actualList, List<String> expectedList, String message) {
+    private void validateList(List<String> actualList, List<String> expectedList, LazyDescription description) {
         if (CollectionUtils.isNotEmpty(expectedList)) {
-            softAssertions.assertThat(actualList).as(message).isNotEmpty();
+            lazySoftAssertions.isNotEmpty(actualList, description);
             if (CollectionUtils.isNotEmpty(actualList)) {
-                softAssertions.assertThat(actualList).as(message).containsAll(expectedList);
+                lazySoftAssertions.containsAll(actualList, expectedList, description);
             }
         } else {
-            softAssertions.assertThat(actualList).as(message).isNullOrEmpty();
+            lazySoftAssertions.isNullOrEmpty(actualList, description);
         }
     }
 
-    private boolean isAssertionEnabled(final SwaggerAssertionType assertionType) {
-        return assertionConfig.swaggerAssertionEnabled(assertionType);
+    @Override
+    boolean isConsumerDriven() {
+        return true;
+    }
+
+    @Override
+    ConsumerDrivenValidator forTask(SoftAssertions taskSoftAssertions, ValidationReport taskReport, ErrorBudget taskErrorBudget, ValidationMetrics taskMetrics,
+                                    ValidationListener taskListener) {
+        ConsumerDrivenValidator taskValidator = new ConsumerDrivenValidator(actual, assertionConfig, taskSoftAssertions, taskReport, taskErrorBudget, taskMetrics, taskListener);
+        taskValidator.actualIndex = actualIndex;
+        taskValidator.schemaObjectResolver = schemaObjectResolver;
+        taskValidator.structuralFingerprints = structuralFingerprints;
+        taskValidator.validationState = validationState;
+        taskValidator.providerIndex = providerIndex;
+        return taskValidator;
     }
 
     private Set<String> filterWhitelistedPropertyNames(String definitionName, Set<String> expectedPropertyNames) {
         Set<String> result = new HashSet<>(expectedPropertyNames.size());
-        final Set<String> ignoredPropertyNames = assertionConfig.getPropertiesToIgnoreInExpected();
+        final IgnoreRules ignoredPropertyNames = assertionConfig.getPropertyIgnoreRules();
         for (String property : expectedPropertyNames) {
-            if (!ignoredPropertyNames.contains(definitionName + '.' + property)) {
+            if (!ignoredPropertyNames.matches(definitionName, property)) {
                 result.add(property);
             }
         }
         return result;
     }
 
-    private <K, V> Map<K, V> removeAllFromMap(Map<K, V> map, Set<K> keysToExclude) {
-        final LinkedHashMap<K, V> result = new LinkedHashMap<>(map);
-        result.keySet().removeAll(keysToExclude);
+    @SuppressWarnings("unchecked")
+    private <V> Map<String, V> removeAllFromMap(Map<String, V> map, IgnoreRules keysToExclude) {
+        if (map == null || keysToExclude.isEmpty()) {
+            return map;
+        }
+        if (map instanceof SpooledSection) {
+            return ((SpooledSection<V>) map).withoutKeys(keysToExclude);
+        }
+        final LinkedHashMap<String, V> result = new LinkedHashMap<>(map);
+        result.keySet().removeIf(keysToExclude::matches);
         return result;
     }
+
+    /**
+     * What the validation of a consumer contract needs to know about the actual schema, computed once for a batch of
+     * contracts. The fingerprints are computed on first use.
+     */
+    private static final class ProviderIndex {
+
+        private final Map<String, Path> pathsIncludingBasePath;
+        private final Map<String, Long> pathFingerprints = new ConcurrentHashMap<>();
+        private final Map<String, Long> definitionFingerprints = new ConcurrentHashMap<>();
+
+        ProviderIndex(Map<String, Path> pathsIncludingBasePath) {
+            this.pathsIncludingBasePath = pathsIncludingBasePath;
+        }
+    }
 }
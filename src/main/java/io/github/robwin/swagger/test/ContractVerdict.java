@@ -0,0 +1,62 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of verifying the contract of one consumer, see {@link SwaggerAssert#verifyContracts(java.util.Map)}.
+ */
+public final class ContractVerdict {
+
+    private final String consumer;
+    private final List<String> errorMessages;
+
+    ContractVerdict(String consumer, List<String> errorMessages) {
+        this.consumer = consumer;
+        this.errorMessages = Collections.unmodifiableList(errorMessages);
+    }
+
+    /**
+     * @return name of the consumer
+     */
+    public String getConsumer() {
+        return consumer;
+    }
+
+    /**
+     * @return {@code true} if the actual schema satisfies the contract of the consumer
+     */
+    public boolean isSatisfied() {
+        return errorMessages.isEmpty();
+    }
+
+    /**
+     * @return the messages of the failed checks, empty if the contract is satisfied
+     */
+    public List<String> getErrorMessages() {
+        return errorMessages;
+    }
+
+    @Override
+    public String toString() {
+        return consumer + (isSatisfied() ? ": satisfied" : ": " + errorMessages.size() + " errors");
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Number of failed checks a validation may still report, see {@link SwaggerAssertionConfig#getMaxErrors()}. Once it is
+ * used up, failed checks are dropped and the validators skip the paths, operations and definitions they have not
+ * started yet.
+ * <p>
+ * Every range of items of a parallel validation has a budget of its own, see {@link #forRange()}, as its failed checks
+ * are only reported once the ranges before it are done. Its failed checks then draw on the budget of the validation in
+ * item order, so that a parallel validation reports the same errors as a sequential one.
+ * </p>
+ */
+final class ErrorBudget {
+
+    /**
+     * Reports every failed check.
+     */
+    static final ErrorBudget UNLIMITED = new ErrorBudget(0);
+
+    private final int maxErrors;
+    private final AtomicInteger errors = new AtomicInteger();
+
+    private ErrorBudget(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * @param assertionConfig assertion configuration
+     * @return a new budget for one validation
+     */
+    static ErrorBudget of(SwaggerAssertionConfig assertionConfig) {
+        return assertionConfig.getMaxErrors() > 0 ? new ErrorBudget(assertionConfig.getMaxErrors()) : UNLIMITED;
+    }
+
+    /**
+     * @return a new budget of the same size, for a range of items of a parallel validation
+     */
+    ErrorBudget forRange() {
+        return isUnlimited() ? this : new ErrorBudget(maxErrors);
+    }
+
+    boolean isUnlimited() {
+        return maxErrors == 0;
+    }
+
+    /**
+     * @return {@code true} if the failed check is to be reported, {@code false} if the budget is used up
+     */
+    boolean take() {
+        return isUnlimited() || errors.incrementAndGet() <= maxErrors;
+    }
+
+    boolean isExhausted() {
+        return !isUnlimited() && errors.get() >= maxErrors;
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Names of paths, definitions or properties which are left out of a comparison, see
+ * {@code assertj.swagger.pathsToIgnoreInExpected} and its siblings in {@link SwaggerAssertionConfig}.
+ * <p>
+ * A rule is an exact name, a glob prefixed with {@code glob:} or a regular expression prefixed with {@code regex:}.
+ * In a glob {@code **} matches any characters, {@code *} any characters but {@code /} and {@code ?} a single character
+ * but {@code /}, so {@code glob:/internal/**} ignores every path below {@code /internal} and {@code glob:*.audit*}
+ * every property starting with {@code audit}. Exact names are looked up in hash sets. Globs are compiled into a trie of
+ * their {@code /} separated segments, so a name is only compared with the globs sharing its leading segments; the rest
+ * of a glob from its first {@code **} on is matched as a regular expression. All regular expressions are compiled once
+ * into a single pattern.
+ * </p>
+ * <p>
+ * Properties are matched by their qualified name {@code <definition>.<property>}, which is never built as a string:
+ * exact rules are indexed by definition name, and globs and the pattern read both names through a {@link CharSequence}
+ * view.
+ * </p>
+ */
+public final class IgnoreRules {
+
+    static final IgnoreRules NONE = new IgnoreRules(Collections.emptySet(), Collections.emptyMap(), null, null);
+
+    private static final String GLOB_PREFIX = "glob:";
+    private static final String REGEX_PREFIX = "regex:";
+
+    private final Set<String> names;
+    private final Map<String, Set<String>> propertyNamesByDefinition;
+    private final GlobNode globs;
+    private final Pattern pattern;
+
+    private IgnoreRules(Set<String> names, Map<String, Set<String>> propertyNamesByDefinition, GlobNode globs, Pattern pattern) {
+        this.names = names;
+        this.propertyNamesByDefinition = propertyNamesByDefinition;
+        this.globs = globs;
+        this.pattern = pattern;
+    }
+
+    /**
+     * Compiles ignore rules.
+     *
+     * @param rules exact names, globs prefixed with {@code glob:} and regular expressions prefixed with {@code regex:}
+     * @return the compiled rules
+     * @throws java.util.regex.PatternSyntaxException if a regular expression is invalid
+     */
+    public static IgnoreRules compile(Collection<String> rules) {
+        if (rules.isEmpty()) {
+            return NONE;
+        }
+        Set<String> names = new HashSet<>();
+        Map<String, Set<String>> propertyNamesByDefinition = new HashMap<>();
+        GlobNode globs = null;
+        StringBuilder pattern = new StringBuilder();
+        for (String rule : rules) {
+            if (rule.startsWith(REGEX_PREFIX)) {
+                appendAlternative(pattern, rule.substring(REGEX_PREFIX.length()));
+            } else if (rule.startsWith(GLOB_PREFIX)) {
+                if (globs == null) {
+                    globs = new GlobNode();
+                }
+                globs.add(rule.substring(GLOB_PREFIX.length()), 0);
+            } else {
+                names.add(rule);
+                // the definition name may contain dots as well, so the rule is indexed under every possible split
+                for (int dot = rule.indexOf('.'); dot >= 0; dot = rule.indexOf('.', dot + 1)) {
+                    propertyNamesByDefinition.computeIfAbsent(rule.substring(0, dot), definition -> new HashSet<>())
+                            .add(rule.substring(dot + 1));
+                }
+            }
+        }
+        if (globs != null) {
+            globs.compileTails();
+        }
+        return new IgnoreRules(names, propertyNamesByDefinition, globs, pattern.length() == 0 ? null : Pattern.compile(pattern.toString()));
+    }
+
+    /**
+     * @return {@code true} if no name is ignored
+     */
+    public boolean isEmpty() {
+        return names.isEmpty() && globs == null && pattern == null;
+    }
+
+    /**
+     * @param name name of a path or definition
+     * @return {@code true} if the name is ignored
+     */
+    public boolean matches(String name) {
+        return names.contains(name) || globs != null && globs.matches(name, 0)
+                || pattern != null && pattern.matcher(name).matches();
+    }
+
+    /**
+     * @param definitionName name of a definition
+     * @param propertyName   name of a property of the definition
+     * @return {@code true} if the qualified name {@code <definitionName>.<propertyName>} is ignored
+     */
+    public boolean matches(String definitionName, String propertyName) {
+        Set<String> propertyNames = propertyNamesByDefinition.get(definitionName);
+        if (propertyNames != null && propertyNames.contains(propertyName)) {
+            return true;
+        }
+        if (globs == null && pattern == null) {
+            return false;
+        }
+        QualifiedName qualifiedName = new QualifiedName(definitionName, propertyName);
+        return globs != null && globs.matches(qualifiedName, 0) || pattern != null && pattern.matcher(qualifiedName).matches();
+    }
+
+    private static void appendAlternative(StringBuilder pattern, String regex) {
+        if (pattern.length() > 0) {
+            pattern.append('|');
+        }
+        pattern.append("(?:").append(regex).append(')');
+    }
+
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c != '*' && c != '?') {
+                continue;
+            }
+            if (literalStart < i) {
+                regex.append(Pattern.quote(glob.substring(literalStart, i)));
+            }
+            if (c == '?') {
+                regex.append("[^/]");
+            } else if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else {
+                regex.append("[^/]*");
+            }
+            literalStart = i + 1;
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return regex.toString();
+    }
+
+    /**
+     * Matches a glob segment without {@code **} against {@code name[start, end)}, which contains no {@code /}.
+     */
+    private static boolean matchesSegment(String glob, CharSequence name, int start, int end) {
+        int g = 0;
+        int n = start;
+        int starGlob = -1;   // position after the last *, to backtrack to
+        int starName = -1;
+        while (n < end) {
+            if (g < glob.length() && (glob.charAt(g) == '?' || glob.charAt(g) != '*' && glob.charAt(g) == name.charAt(n))) {
+                g++;
+                n++;
+            } else if (g < glob.length() && glob.charAt(g) == '*') {
+                starGlob = ++g;
+                starName = n;
+            } else if (starGlob >= 0) {
+                g = starGlob;
+                n = ++starName;
+            } else {
+                return false;
+            }
+        }
+        while (g < glob.length() && glob.charAt(g) == '*') {
+            g++;
+        }
+        return g == glob.length();
+    }
+
+    private static int indexOf(CharSequence name, char c, int start) {
+        for (int i = start; i < name.length(); i++) {
+            if (name.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Node of the glob trie, reached by the segments of a name up to the {@code /} at which the node is entered.
+     * Literal segments are looked up by name, segments with {@code *} or {@code ?} are matched one by one, and the
+     * globs whose remainder contains {@code **} are matched from here on by a single pattern.
+     */
+    private static final class GlobNode {
+
+        private final Map<String, GlobNode> literalChildren = new HashMap<>();
+        private final Map<String, GlobNode> wildcardChildren = new LinkedHashMap<>();   // by segment glob
+        private final List<String> tailRegexes = new ArrayList<>();
+        private Pattern tail;
+        private boolean terminal;   // a glob ends with the segment leading to this node
+
+        void add(String glob, int start) {
+            int end = glob.indexOf('/', start);
+            String segment = end < 0 ? glob.substring(start) : glob.substring(start, end);
+            if (segment.contains("**")) {
+                tailRegexes.add(globToRegex(glob.substring(start)));
+                return;
+            }
+            Map<String, GlobNode> children = segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 ? wildcardChildren : literalChildren;
+            GlobNode child = children.computeIfAbsent(segment, key -> new GlobNode());
+            if (end < 0) {
+                child.terminal = true;
+            } else {
+                child.add(glob, end + 1);
+            }
+        }
+
+        void compileTails() {
+            if (!tailRegexes.isEmpty()) {
+                StringBuilder regex = new StringBuilder();
+                tailRegexes.forEach(tailRegex -> appendAlternative(regex, tailRegex));
+                tail = Pattern.compile(regex.toString());
+            }
+            literalChildren.values().forEach(GlobNode::compileTails);
+            wildcardChildren.values().forEach(GlobNode::compileTails);
+        }
+
+        boolean matches(CharSequence name, int start) {
+            if (tail != null && tail.matcher(name).region(start, name.length()).matches()) {
+                return true;
+            }
+            int slash = indexOf(name, '/', start);
+            int end = slash < 0 ? name.length() : slash;
+            if (!literalChildren.isEmpty()) {
+                GlobNode child = literalChildren.get(name.subSequence(start, end).toString());
+                if (child != null && child.matchesRest(name, slash)) {
+                    return true;
+                }
+            }
+            for (Map.Entry<String, GlobNode> child : wildcardChildren.entrySet()) {
+                if (matchesSegment(child.getKey(), name, start, end) && child.getValue().matchesRest(name, slash)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesRest(CharSequence name, int slash) {
+            return slash < 0 ? terminal : matches(name, slash + 1);
+        }
+    }
+
+    /**
+     * {@code <definition>.<property>} without concatenating the two names.
+     */
+    private static final class QualifiedName implements CharSequence {
+
+        private final String definitionName;
+        private final String propertyName;
+
+        QualifiedName(String definitionName, String propertyName) {
+            this.definitionName = definitionName;
+            this.propertyName = propertyName;
+        }
+
+        @Override
+        public int length() {
+            return definitionName.length() + 1 + propertyName.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            int definitionLength = definitionName.length();
+            if (index < definitionLength) {
+                return definitionName.charAt(index);
+            }
+            return index == definitionLength ? '.' : propertyName.charAt(index - definitionLength - 1);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return definitionName + '.' + propertyName;
+        }
+    }
+}
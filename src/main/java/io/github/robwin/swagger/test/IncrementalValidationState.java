@@ -0,0 +1,239 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the outcome of validating a path or definition across builds in a local state file.
+ * <p>
+ * A verdict, i.e. the error messages of one path or definition, is stored under the structural fingerprints of both
+ * sides, see {@link StructuralFingerprints}, in a section for the validator and a hash of the configuration. As long as
+ * neither side changes, the next build reuses the verdict instead of validating the path or definition again.
+ * Verdicts which were not used in the last {@value #BUILDS_TO_KEEP} builds are dropped.
+ * </p>
+ * <p>
+ * There is one instance per state file and JVM. A build is one JVM: the file is read on first use and written, if
+ * anything changed, after every validation.
+ * </p>
+ */
+final class IncrementalValidationState {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int BUILDS_TO_KEEP = 20;
+    private static final Map<Path, IncrementalValidationState> INSTANCES = new ConcurrentHashMap<>();
+
+    private final Path stateFile;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Map<String, Verdict>> sections = new ConcurrentHashMap<>();
+    private final long build;
+    private volatile boolean changed;
+
+    IncrementalValidationState(Path stateFile) {
+        this.stateFile = stateFile;
+        this.build = load() + 1;
+    }
+
+    static IncrementalValidationState forFile(String stateFile) {
+        return INSTANCES.computeIfAbsent(Paths.get(stateFile).toAbsolutePath().normalize(), IncrementalValidationState::new);
+    }
+
+    /**
+     * Returns the verdicts of a validator under a configuration.
+     *
+     * @param validatorName   name of the validator
+     * @param assertionConfig configuration the validator runs with
+     * @return verdicts
+     */
+    Section section(String validatorName, SwaggerAssertionConfig assertionConfig) {
+        String sectionKey = validatorName + ' ' + Long.toHexString(configurationHash(assertionConfig));
+        return new Section(sections.computeIfAbsent(sectionKey, key -> new ConcurrentHashMap<>()));
+    }
+
+    /**
+     * Writes the state file if any verdict was added or used since it was read or last written.
+     */
+    synchronized void save() {
+        if (!changed) {
+            return;
+        }
+        changed = false;
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("version", FORMAT_VERSION);
+        root.put("build", build);
+        ObjectNode sectionsNode = root.putObject("sections");
+        for (Map.Entry<String, Map<String, Verdict>> section : sections.entrySet()) {
+            ObjectNode sectionNode = sectionsNode.putObject(section.getKey());
+            for (Iterator<Map.Entry<String, Verdict>> verdicts = section.getValue().entrySet().iterator(); verdicts.hasNext(); ) {
+                Map.Entry<String, Verdict> verdict = verdicts.next();
+                if (verdict.getValue().lastUsedBuild <= build - BUILDS_TO_KEEP) {
+                    verdicts.remove();
+                    continue;
+                }
+                ObjectNode verdictNode = sectionNode.putObject(verdict.getKey());
+                verdictNode.put("lastUsedBuild", verdict.getValue().lastUsedBuild);
+                ArrayNode errorMessagesNode = verdictNode.putArray("errorMessages");
+                verdict.getValue().errorMessages.forEach(errorMessagesNode::add);
+            }
+        }
+        try {
+            Path directory = stateFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path tempFile = Files.createTempFile(directory, stateFile.getFileName().toString(), ".tmp");
+            try {
+                objectMapper.writeValue(tempFile.toFile(), root);
+                moveAtomically(tempFile, stateFile);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write validation state " + stateFile, e);
+        }
+    }
+
+    /**
+     * Reads the state file, a missing or unreadable one is treated as empty.
+     *
+     * @return number of the build which wrote the file
+     */
+    private long load() {
+        if (!Files.isRegularFile(stateFile)) {
+            return 0;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(stateFile.toFile());
+            if (root == null || root.path("version").asInt() != FORMAT_VERSION) {
+                return 0;
+            }
+            for (Iterator<Map.Entry<String, JsonNode>> sectionNodes = root.path("sections").fields(); sectionNodes.hasNext(); ) {
+                Map.Entry<String, JsonNode> sectionNode = sectionNodes.next();
+                Map<String, Verdict> section = new ConcurrentHashMap<>();
+                for (Iterator<Map.Entry<String, JsonNode>> verdictNodes = sectionNode.getValue().fields(); verdictNodes.hasNext(); ) {
+                    Map.Entry<String, JsonNode> verdictNode = verdictNodes.next();
+                    List<String> errorMessages = new ArrayList<>();
+                    verdictNode.getValue().path("errorMessages").forEach(errorMessage -> errorMessages.add(errorMessage.asText()));
+                    section.put(verdictNode.getKey(), new Verdict(Collections.unmodifiableList(errorMessages), verdictNode.getValue().path("lastUsedBuild").asLong()));
+                }
+                sections.put(sectionNode.getKey(), section);
+            }
+            return root.path("build").asLong();
+        } catch (IOException | RuntimeException e) {
+            sections.clear();
+            return 0;
+        }
+    }
+
+    /**
+     * Hashes everything of the configuration which can change a verdict, and the version of assertj-swagger, whose
+     * validation rules might change as well.
+     */
+    private static long configurationHash(SwaggerAssertionConfig assertionConfig) {
+        StringBuilder configuration = new StringBuilder();
+        configuration.append(SwaggerAssert.class.getPackage().getImplementationVersion()).append('\n');
+        for (SwaggerAssertionType assertionType : SwaggerAssertionType.values()) {
+            configuration.append(assertionType.getBarePropertyName()).append('=')
+                    .append(assertionConfig.swaggerAssertionEnabled(assertionType)).append('\n');
+        }
+        configuration.append(new TreeSet<>(assertionConfig.getPathsToIgnoreInExpected())).append('\n');
+        configuration.append(new TreeSet<>(assertionConfig.getDefinitionsToIgnoreInExpected())).append('\n');
+        configuration.append(new TreeSet<>(assertionConfig.getPropertiesToIgnoreInExpected())).append('\n');
+        configuration.append(assertionConfig.getPathsPrependExpected());
+        return StructuralFingerprints.ofString(configuration.toString());
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * The verdicts of one validator under one configuration.
+     */
+    final class Section {
+
+        private final Map<String, Verdict> verdicts;
+
+        private Section(Map<String, Verdict> verdicts) {
+            this.verdicts = verdicts;
+        }
+
+        /**
+         * @param entry               kind and name of the path or definition
+         * @param actualFingerprint   fingerprint of the actual side
+         * @param expectedFingerprint fingerprint of the expected side
+         * @return the error messages stored for the path or definition, or {@code null} if there is no verdict for
+         * these fingerprints
+         */
+        List<String> errorMessages(String entry, long actualFingerprint, long expectedFingerprint) {
+            Verdict verdict = verdicts.get(key(entry, actualFingerprint, expectedFingerprint));
+            if (verdict == null) {
+                return null;
+            }
+            if (verdict.lastUsedBuild != build) {
+                verdict.lastUsedBuild = build;
+                changed = true;
+            }
+            return verdict.errorMessages;
+        }
+
+        void record(String entry, long actualFingerprint, long expectedFingerprint, List<String> errorMessages) {
+            verdicts.put(key(entry, actualFingerprint, expectedFingerprint), new Verdict(Collections.unmodifiableList(new ArrayList<>(errorMessages)), build));
+            changed = true;
+        }
+
+        void save() {
+            IncrementalValidationState.this.save();
+        }
+
+        private String key(String entry, long actualFingerprint, long expectedFingerprint) {
+            return entry + ' ' + Long.toHexString(actualFingerprint) + ' ' + Long.toHexString(expectedFingerprint);
+        }
+    }
+
+    private static final class Verdict {
+        private final List<String> errorMessages;
+        private volatile long lastUsedBuild;
+
+        private Verdict(List<String> errorMessages, long lastUsedBuild) {
+            this.errorMessages = errorMessages;
+            this.lastUsedBuild = lastUsedBuild;
+        }
+    }
+}
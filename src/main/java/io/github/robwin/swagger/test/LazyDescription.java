@@ -0,0 +1,86 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import org.assertj.core.description.Description;
+
+/**
+ * An assertion description which keeps its template and arguments and only runs {@link String#format} when AssertJ
+ * asks for the text, i.e. when an assertion fails.
+ */
+final class LazyDescription extends Description {
+
+    private static final Object[] NO_ARGUMENTS = {};
+
+    private final String template;
+    private final Object argument1;
+    private final Object argument2;
+    private final Object argument3;
+    private final Object argument4;
+    private final int argumentCount;
+
+    private LazyDescription(String template, int argumentCount, Object argument1, Object argument2, Object argument3, Object argument4) {
+        this.template = template;
+        this.argumentCount = argumentCount;
+        this.argument1 = argument1;
+        this.argument2 = argument2;
+        this.argument3 = argument3;
+        this.argument4 = argument4;
+    }
+
+    static LazyDescription of(String template) {
+        return new LazyDescription(template, 0, null, null, null, null);
+    }
+
+    static LazyDescription of(String template, Object argument1) {
+        return new LazyDescription(template, 1, argument1, null, null, null);
+    }
+
+    static LazyDescription of(String template, Object argument1, Object argument2) {
+        return new LazyDescription(template, 2, argument1, argument2, null, null);
+    }
+
+    static LazyDescription of(String template, Object argument1, Object argument2, Object argument3) {
+        return new LazyDescription(template, 3, argument1, argument2, argument3, null);
+    }
+
+    static LazyDescription of(String template, Object argument1, Object argument2, Object argument3, Object argument4) {
+        return new LazyDescription(template, 4, argument1, argument2, argument3, argument4);
+    }
+
+    @Override
+    public String value() {
+        return argumentCount == 0 ? template : String.format(template, arguments());
+    }
+
+    private Object[] arguments() {
+        switch (argumentCount) {
+            case 1:
+                return new Object[]{argument1};
+            case 2:
+                return new Object[]{argument1, argument2};
+            case 3:
+                return new Object[]{argument1, argument2, argument3};
+            case 4:
+                return new Object[]{argument1, argument2, argument3, argument4};
+            default:
+                return NO_ARGUMENTS;
+        }
+    }
+}
@@ -0,0 +1,416 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import org.assertj.core.api.Descriptable;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.description.Description;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Runs the checks of the validators in plain Java first and only hands them to AssertJ when they fail.
+ * <p>
+ * Almost all checks pass, and a passing check then neither creates an AssertJ assert object nor formats its
+ * description. A failing check is asserted with the same AssertJ assertion and description as before, so the error
+ * message does not change. Every method must therefore only skip AssertJ when AssertJ would pass as well.
+ * </p>
+ */
+final class LazySoftAssertions {
+
+    private static final Object[] NO_ARGUMENTS = {};
+    private static final ClassValue<Map<String, Optional<Method>>> GETTERS = new ClassValue<Map<String, Optional<Method>>>() {
+        @Override
+        protected Map<String, Optional<Method>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final SoftAssertions softAssertions;
+    private final ValidationReport report;
+    private final ValidationLocation location;
+    private final ErrorBudget errorBudget;
+    private final ValidationMetrics metrics;
+    private final ValidationListener listener;
+    private final SwaggerAssertionType type;
+
+    LazySoftAssertions(SoftAssertions softAssertions) {
+        this(softAssertions, null, new ValidationLocation(), ErrorBudget.UNLIMITED, ValidationMetrics.DISABLED, null);
+    }
+
+    /**
+     * @param softAssertions collects the errors of failed checks if there is no report
+     * @param report         receives the failed checks instead of {@code softAssertions}, may be {@code null}
+     * @param location       where the validator currently is, for the report
+     * @param errorBudget    number of failed checks which may still be reported
+     * @param metrics        counts the checks run
+     * @param listener       is told about every check, may be {@code null}
+     */
+    LazySoftAssertions(SoftAssertions softAssertions, ValidationReport report, ValidationLocation location, ErrorBudget errorBudget,
+                       ValidationMetrics metrics, ValidationListener listener) {
+        this(softAssertions, report, location, errorBudget, metrics, listener, null);
+    }
+
+    private LazySoftAssertions(SoftAssertions softAssertions, ValidationReport report, ValidationLocation location, ErrorBudget errorBudget,
+                               ValidationMetrics metrics, ValidationListener listener, SwaggerAssertionType type) {
+        this.softAssertions = softAssertions;
+        this.report = report;
+        this.location = location;
+        this.errorBudget = errorBudget;
+        this.metrics = metrics;
+        this.listener = listener;
+        this.type = type;
+    }
+
+    /**
+     * @param checkType kind of check the returned instance runs, e.g. {@link SwaggerAssertionType#PROPERTIES}
+     * @return an instance which shares the errors, the report and the location with this one, but reports its failed
+     * checks as {@code checkType} instead of the type of the location
+     */
+    LazySoftAssertions checking(SwaggerAssertionType checkType) {
+        return new LazySoftAssertions(softAssertions, report, location, errorBudget, metrics, listener, checkType);
+    }
+
+    ValidationLocation location() {
+        return location;
+    }
+
+    /**
+     * Adds the error message of a check which has already been run, e.g. one kept in the incremental validation state.
+     */
+    void fail(String errorMessage) {
+        fail(errorMessage, null, null);
+    }
+
+    void isNotNull(Object actual, Description description) {
+        counted();
+        if (actual == null) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).isNotNull(), "not null", null);
+        } else {
+            passed();
+        }
+    }
+
+    void isNull(Object actual, Description description) {
+        counted();
+        if (actual != null) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).isNull(), null, actual);
+        } else {
+            passed();
+        }
+    }
+
+    void isEqualTo(Object actual, Object expected, Description description) {
+        counted();
+        if (!Objects.deepEquals(actual, expected)) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).isEqualTo(expected), expected, actual);
+        } else {
+            passed();
+        }
+    }
+
+    /**
+     * Always runs AssertJ, there is no cheaper way to compare all fields.
+     */
+    void isEqualToComparingFieldByField(Object actual, Object other, Description description) {
+        counted();
+        failed(assertions -> describedAs(assertions.assertThat(actual), description).isEqualToComparingFieldByField(other), other, actual);
+    }
+
+    /**
+     * Checks two values which the caller has already compared, e.g. structurally, and reports a mismatch as if they had
+     * been compared with {@code equals}.
+     */
+    void isEquivalentTo(Object actual, Object expected, boolean equivalent, Description description) {
+        counted();
+        if (!equivalent) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).isEqualTo(expected), expected, actual);
+        } else {
+            passed();
+        }
+    }
+
+    void isFalse(Boolean actual, Description description) {
+        counted();
+        if (!Boolean.FALSE.equals(actual)) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).isFalse(), false, actual);
+        } else {
+            passed();
+        }
+    }
+
+    void isGreaterThanOrEqualTo(int actual, int other, Description description) {
+        counted();
+        if (actual < other) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).isGreaterThanOrEqualTo(other), ">= " + other, actual);
+        } else {
+            passed();
+        }
+    }
+
+    void isExactlyInstanceOf(Object actual, Class<?> type, Description description) {
+        counted();
+        if (actual == null || actual.getClass() != type) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).isExactlyInstanceOf(type),
+                    type.getName(), actual == null ? null : actual.getClass().getName());
+        } else {
+            passed();
+        }
+    }
+
+    void isInstanceOfAny(Object actual, Class<?> type, Class<?> otherType, Description description) {
+        counted();
+        if (!type.isInstance(actual) && !otherType.isInstance(actual)) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).isInstanceOfAny(type, otherType),
+                    type.getName() + " or " + otherType.getName(), actual == null ? null : actual.getClass().getName());
+        } else {
+            passed();
+        }
+    }
+
+    void isNotEmpty(Map<?, ?> actual, Description description) {
+        counted();
+        if (actual == null || actual.isEmpty()) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).isNotEmpty(), "not empty", actual);
+        } else {
+            passed();
+        }
+    }
+
+    void isNullOrEmpty(Map<?, ?> actual, Description description) {
+        counted();
+        if (actual != null && !actual.isEmpty()) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).isNullOrEmpty(), "empty", actual.keySet());
+        } else {
+            passed();
+        }
+    }
+
+    void isNotEmpty(Collection<?> actual, Description description) {
+        counted();
+        if (actual == null || actual.isEmpty()) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).isNotEmpty(), "not empty", actual);
+        } else {
+            passed();
+        }
+    }
+
+    void isNullOrEmpty(Collection<?> actual, Description description) {
+        counted();
+        if (actual != null && !actual.isEmpty()) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).isNullOrEmpty(), "empty", actual);
+        } else {
+            passed();
+        }
+    }
+
+    void hasSameSizeAs(Collection<?> actual, Collection<?> other, Description description) {
+        counted();
+        if (actual == null || other == null || actual.size() != other.size()) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).hasSameSizeAs(other),
+                    other == null ? null : other.size(), actual == null ? null : actual.size());
+        } else {
+            passed();
+        }
+    }
+
+    void containsAll(Collection<?> actual, Collection<?> other, Description description) {
+        counted();
+        if (actual == null || other == null || !actual.containsAll(other)) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).containsAll(other), other, actual);
+        } else {
+            passed();
+        }
+    }
+
+    void hasSameElementsAs(Collection<?> actual, Collection<?> other, Description description) {
+        counted();
+        if (actual == null || other == null || !actual.containsAll(other) || !other.containsAll(actual)) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).hasSameElementsAs(other), other, actual);
+        } else {
+            passed();
+        }
+    }
+
+    /**
+     * Like {@code usingElementComparatorOnFields(fields).hasSameElementsAs(other)}.
+     */
+    void hasSameElementsOnFieldsAs(Collection<?> actual, Collection<?> other, String[] fields, Description description) {
+        counted();
+        if (actual == null || other == null || !containsAllOnFields(actual, other, fields) || !containsAllOnFields(other, actual, fields)) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).usingElementComparatorOnFields(fields).hasSameElementsAs(other), null, null);
+        } else {
+            passed();
+        }
+    }
+
+    void isEqualToComparingOnlyGivenFields(Object actual, Object other, String[] fields, Description description) {
+        counted();
+        if (!equalOnFields(actual, other, fields)) {
+            failed(assertions -> describedAs(assertions.assertThat(actual), description).isEqualToComparingOnlyGivenFields(other, fields), null, null);
+        } else {
+            passed();
+        }
+    }
+
+    private void counted() {
+        if (metrics.isEnabled()) {
+            metrics.countCheck(type != null ? type : location.type());
+        }
+    }
+
+    private void passed() {
+        if (listener != null) {
+            listener.checkPassed(type != null ? type : location.type(), location.path(), location.method(), location.definition(), location.property());
+        }
+    }
+
+    /**
+     * Runs a check which the plain Java check found to fail with AssertJ. Without a report, an error limit and a
+     * listener, its error is collected in the soft assertions of the validator. Otherwise, it is collected in soft
+     * assertions of its own and then, as long as the error budget lasts, written to the report right away or added to
+     * the soft assertions of the validator, and passed to the listener.
+     */
+    private void failed(Consumer<SoftAssertions> assertion, Object expected, Object actual) {
+        if (report == null && errorBudget.isUnlimited() && listener == null) {
+            assertion.accept(softAssertions);
+            return;
+        }
+        SoftAssertions failedCheck = new SoftAssertions();
+        assertion.accept(failedCheck);
+        List<String> errorMessages = ValidationTasks.errorMessagesOf(failedCheck);
+        if (errorMessages.isEmpty()) {
+            passed();
+        }
+        for (String errorMessage : errorMessages) {
+            fail(errorMessage, expected, actual);
+        }
+    }
+
+    private void fail(String errorMessage, Object expected, Object actual) {
+        if (!errorBudget.take()) {
+            return;
+        }
+        Violation violation = report != null || listener != null ? location.violation(type, errorMessage, expected, actual) : null;
+        if (report == null) {
+            softAssertions.fail(errorMessage);
+        } else {
+            report.add(violation);
+        }
+        // the failed checks of a range of a parallel validation reach the listener when they are merged, see add
+        if (listener != null && (report == null || !report.isBuffer())) {
+            listener.checkFailed(violation);
+        }
+    }
+
+    /**
+     * Adds a failed check of a range of a parallel validation, as long as the error budget lasts.
+     */
+    void add(Violation violation) {
+        if (!errorBudget.take()) {
+            return;
+        }
+        if (report == null) {
+            softAssertions.fail(violation.getMessage());
+        } else {
+            report.add(violation);
+        }
+        if (listener != null) {
+            listener.checkFailed(violation);
+        }
+    }
+
+    private static <S extends Descriptable<S>> S describedAs(S assertion, Description description) {
+        return description == null ? assertion : assertion.as(description);
+    }
+
+    private static boolean containsAllOnFields(Collection<?> actual, Collection<?> other, String[] fields) {
+        for (Object otherElement : other) {
+            boolean found = false;
+            for (Object actualElement : actual) {
+                if (equalOnFields(actualElement, otherElement, fields)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares the values of the public getters which AssertJ would use to read the given fields. Returns
+     * {@code false} whenever AssertJ might decide otherwise, e.g. for a field without a getter.
+     */
+    static boolean equalOnFields(Object actual, Object other, String[] fields) {
+        if (actual == null || other == null) {
+            return false;
+        }
+        for (String field : fields) {
+            Method actualGetter = getter(actual.getClass(), field);
+            Method otherGetter = getter(other.getClass(), field);
+            if (actualGetter == null || otherGetter == null) {
+                return false;
+            }
+            try {
+                if (!Objects.deepEquals(actualGetter.invoke(actual, NO_ARGUMENTS), otherGetter.invoke(other, NO_ARGUMENTS))) {
+                    return false;
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Method getter(Class<?> type, String field) {
+        Map<String, Optional<Method>> getters = GETTERS.get(type);
+        Optional<Method> getter = getters.get(field);
+        if (getter == null) {
+            getter = Optional.ofNullable(findGetter(type, field));
+            getters.put(field, getter);
+        }
+        return getter.orElse(null);
+    }
+
+    private static Method findGetter(Class<?> type, String field) {
+        String capitalized = Character.toUpperCase(field.charAt(0)) + field.substring(1);
+        for (String prefix : new String[]{"get", "is"}) {
+            try {
+                Method method = type.getMethod(prefix + capitalized);
+                if (Modifier.isPublic(method.getDeclaringClass().getModifiers()) && method.getReturnType() != void.class) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // try the next prefix
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds a path by its shape rather than by its exact name. Paths are split into segments, and every path template of
+ * a segment is replaced by {@code {}}, so that {@code /pets/{id}} and {@code /pets/{petId}} end up in the same node.
+ * Empty segments are dropped, so a trailing slash does not matter either. A lookup walks one node per segment of the
+ * path, regardless of the number of paths in the trie.
+ */
+final class PathTrie {
+
+    private static final Pattern TEMPLATE = Pattern.compile("\\{([^}]*)}");
+    private static final String TEMPLATE_PLACEHOLDER = "{}";
+
+    private final String prefix;
+    private final Node root = new Node();
+
+    /**
+     * @param prefix prefix of all paths, e.g. the base path; it is prepended to the paths returned by {@link #match}
+     * @param paths  paths without the prefix
+     */
+    PathTrie(String prefix, Iterable<String> paths) {
+        this.prefix = prefix;
+        Node prefixNode = root;
+        for (String segment : segments(prefix)) {
+            prefixNode = prefixNode.child(segment);
+        }
+        for (String path : paths) {
+            Node node = prefixNode;
+            for (String segment : segments(path)) {
+                node = node.child(segment);
+            }
+            if (node.path == null) {   // of two paths with the same shape, the first one wins
+                node.path = path;
+            }
+        }
+    }
+
+    /**
+     * @param path path including the prefix
+     * @return the prefixed path of the same shape, {@code null} if there is none
+     */
+    String match(String path) {
+        Node node = root;
+        for (String segment : segments(path)) {
+            node = node.children.get(segment);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node.path == null ? null : prefix + node.path;
+    }
+
+    /**
+     * Pairs the path parameters of two paths of the same shape by position.
+     *
+     * @param path      path
+     * @param otherPath path of the same shape
+     * @return the names of the path parameters of {@code otherPath} by the names used in {@code path}, only for
+     * parameters whose name differs
+     */
+    static Map<String, String> parameterNames(String path, String otherPath) {
+        List<String> names = templateNames(path);
+        List<String> otherNames = templateNames(otherPath);
+        Map<String, String> parameterNames = new LinkedHashMap<>();
+        for (int i = 0; i < names.size() && i < otherNames.size(); i++) {
+            if (!names.get(i).equals(otherNames.get(i))) {
+                parameterNames.put(names.get(i), otherNames.get(i));
+            }
+        }
+        return parameterNames;
+    }
+
+    private static List<String> templateNames(String path) {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = TEMPLATE.matcher(path);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return names;
+    }
+
+    private static List<String> segments(String path) {
+        if (path == null || path.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment.indexOf('{') < 0 ? segment : TEMPLATE.matcher(segment).replaceAll(TEMPLATE_PLACEHOLDER));
+            }
+        }
+        return segments;
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+        private String path;
+
+        Node child(String segment) {
+            return children.computeIfAbsent(segment, s -> new Node());
+        }
+    }
+}
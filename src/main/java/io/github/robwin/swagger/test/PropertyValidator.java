@@ -1,13 +1,18 @@
 package io.github.robwin.swagger.test;
 
 import io.swagger.models.properties.ArrayProperty;
-import io.swagger.models.properties.ByteArrayProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
 import io.swagger.models.properties.Property;
 import io.swagger.models.properties.RefProperty;
 import io.swagger.models.properties.StringProperty;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
 import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.description.Description;
 
 public class PropertyValidator {
 
@@ -17,69 +22,149 @@ public class PropertyValidator {
     private static final String[] BASIC_PROPERTIES = {"type", "format", "allowEmptyValue", "name", "required",
         "readOnly", "access", "vendorExtensions"};
 
-    private SwaggerAssertionConfig assertionConfig;
-    private SoftAssertions softAssertions;
+    /**
+     * Basic properties which a reference and an inline schema have in common.
+     */
+    private static final String[] REFERENCE_PROPERTIES = {"allowEmptyValue", "required", "readOnly", "access"};
+
+    private static final String ITEMS = "items";
+    private static final String ADDITIONAL_PROPERTIES = "additionalProperties";
+
+    private ValidationPlan plan;
+    private LazySoftAssertions lazySoftAssertions;
+    private final boolean consumerDriven;
+    private final WorkStack workStack = new WorkStack();
+    private final WorkStack schemaWorkStack = new WorkStack();
+    private final NestedDescription nestedDescription = new NestedDescription(workStack);
 
     public PropertyValidator(SwaggerAssertionConfig assertionConfig, SoftAssertions softAssertions) {
-        this.assertionConfig = assertionConfig;
-        this.softAssertions = softAssertions;
+        this(new LazySoftAssertions(softAssertions), assertionConfig.getValidationPlan(), false);
     }
 
-    void validateProperty(Property actualProperty, Property expectedProperty, String message) {
-        if (expectedProperty == null || !isAssertionEnabled(SwaggerAssertionType.PROPERTIES)) {
+    /**
+     * @param consumerDriven whether the actual properties of a nested object only need to contain the expected ones,
+     *                       like those of a definition in a consumer-driven validation, instead of being the same
+     */
+    PropertyValidator(LazySoftAssertions lazySoftAssertions, ValidationPlan plan, boolean consumerDriven) {
+        this.plan = plan;
+        this.lazySoftAssertions = lazySoftAssertions;
+        this.consumerDriven = consumerDriven;
+    }
+
+    void validateProperty(Property actualProperty, Property expectedProperty, Description description) {
+        validateProperty(actualProperty, expectedProperty, null, description);
+    }
+
+    /**
+     * Validates a property, descending into the items of arrays, the values of maps and the properties of inline
+     * objects. With a {@code schemaComparator}, a reference to a definition is also compared with a reference to a
+     * definition of another name, or with an inline object schema, by the schemas they describe. A reference to a
+     * definition of the same name is not followed, the definition is validated on its own.
+     * <p>
+     * Nested schemas are walked with an explicit stack, so arbitrarily deep schemas cannot overflow the call stack,
+     * and the stack as well as the description of nested properties are reused, so a passing walk does not allocate.
+     * </p>
+     */
+    void validateProperty(Property actualProperty, Property expectedProperty, SchemaComparator schemaComparator, Description description) {
+        if (expectedProperty == null || !plan.isPropertiesValidated()) {
             return;
         }
 
         // TODO Validate Property schema
-        if (shouldValidateRefProperty(expectedProperty)) {
-            validateBasicPropertyFeatures(actualProperty, expectedProperty, message);
-            // TODO improve validation by verifying property based on RefProperty type
-        } else if (shouldValidateArrayProperty(expectedProperty)) {
-            validateBasicPropertyFeatures(actualProperty, expectedProperty, message);
-            // TODO improve validation by verifying property based on ArrayProperty type
-        } else if (shouldValidateByteArrayProperty(expectedProperty)) {
-            validateBasicPropertyFeatures(actualProperty, expectedProperty, message);
-            // TODO improve validation by verifying property based on ByteArrayProperty type
-        } else if (shouldValidateStringProperty(expectedProperty)) {
-            StringProperty expectedStringProperty = (StringProperty) expectedProperty;
-            validateBasicPropertyFeatures(actualProperty, expectedProperty, message);
-            if (isPropertyOfEnumType(actualProperty)) {
-                StringProperty actualStringProperty = (StringProperty) actualProperty;
-                validateEnumPropertyFeatures(actualStringProperty, expectedStringProperty);
-            }
-        } else {
-            validateBasicPropertyFeatures(actualProperty, expectedProperty, message);
+        // TODO improve validation by verifying property based on ByteArrayProperty type
+        nestedDescription.parent = description;
+        workStack.push(actualProperty, expectedProperty, null, 0);
+        while (!workStack.isEmpty()) {
+            int frame = workStack.pop();
+            Property actual = workStack.actualProperty(frame);
+            Property expected = workStack.expectedProperty(frame);
+            int depth = workStack.depth(frame);
+            workStack.clear(frame);
+            validatePropertyFeatures(actual, expected, schemaComparator, depth == 0 ? description : nestedDescription, depth);
         }
+        nestedDescription.parent = null;
     }
 
-    private boolean shouldValidateRefProperty(Property expectedProperty) {
-        return RefProperty.class.isAssignableFrom(expectedProperty.getClass()) && isAssertionEnabled(
-            SwaggerAssertionType.REF_PROPERTIES);
+    private void validatePropertyFeatures(Property actualProperty, Property expectedProperty, SchemaComparator schemaComparator,
+        Description description, int depth) {
+        if (expectedProperty == null || actualProperty == expectedProperty) {
+            // an interned schema shared by both specs is equal to itself
+            return;
+        }
+        if (schemaComparator != null && isReplacedReference(actualProperty, expectedProperty)) {
+            validateReferencedSchema(actualProperty, expectedProperty, schemaComparator, description);
+            return;
+        }
+        validateBasicPropertyFeatures(actualProperty, expectedProperty, description);
+        if (plan.isStringEnumsValidated() && expectedProperty instanceof StringProperty && isPropertyOfEnumType(actualProperty)) {
+            validateEnumPropertyFeatures((StringProperty) actualProperty, (StringProperty) expectedProperty);
+        }
+        if (actualProperty == null || actualProperty.getClass() != expectedProperty.getClass()) {
+            return;
+        }
+        if (expectedProperty instanceof ArrayProperty) {
+            workStack.push(((ArrayProperty) actualProperty).getItems(), ((ArrayProperty) expectedProperty).getItems(), ITEMS, depth + 1);
+        } else if (expectedProperty instanceof MapProperty) {
+            workStack.push(((MapProperty) actualProperty).getAdditionalProperties(), ((MapProperty) expectedProperty).getAdditionalProperties(),
+                ADDITIONAL_PROPERTIES, depth + 1);
+        } else if (expectedProperty instanceof ObjectProperty) {
+            validateObjectProperties(((ObjectProperty) actualProperty).getProperties(), ((ObjectProperty) expectedProperty).getProperties(),
+                description, depth);
+        }
     }
 
-    private boolean shouldValidateArrayProperty(Property expectedProperty) {
-        return ArrayProperty.class.isAssignableFrom(expectedProperty.getClass()) && isAssertionEnabled(
-            SwaggerAssertionType.ARRAY_PROPERTIES);
+    private void validateObjectProperties(Map<String, Property> actualProperties, Map<String, Property> expectedProperties,
+        Description description, int depth) {
+        if (MapUtils.isEmpty(expectedProperties)) {
+            if (!consumerDriven) {
+                lazySoftAssertions.isNullOrEmpty(actualProperties, description);
+            }
+            return;
+        }
+        lazySoftAssertions.isNotEmpty(actualProperties, description);
+        if (MapUtils.isEmpty(actualProperties)) {
+            return;
+        }
+        if (consumerDriven) {
+            lazySoftAssertions.containsAll(actualProperties.keySet(), expectedProperties.keySet(), description);
+        } else {
+            lazySoftAssertions.hasSameElementsAs(actualProperties.keySet(), expectedProperties.keySet(), description);
+        }
+        int first = workStack.size();
+        for (Map.Entry<String, Property> actualProperty : actualProperties.entrySet()) {
+            workStack.push(actualProperty.getValue(), expectedProperties.get(actualProperty.getKey()), actualProperty.getKey(), depth + 1);
+        }
+        // the stack is last in, first out, so reverse the properties to validate them in their order
+        workStack.reverse(first);
     }
 
-    private boolean shouldValidateByteArrayProperty(Property expectedProperty) {
-        return ByteArrayProperty.class.isAssignableFrom(expectedProperty.getClass()) && isAssertionEnabled(
-            SwaggerAssertionType.BYTE_ARRAY_PROPERTIES);
+    private void validateBasicPropertyFeatures(Property actualProperty, Property expectedProperty, Description description) {
+        lazySoftAssertions.isExactlyInstanceOf(actualProperty, expectedProperty.getClass(), description);
+        lazySoftAssertions.isEqualToComparingOnlyGivenFields(actualProperty, expectedProperty, BASIC_PROPERTIES, description);
     }
 
-    private boolean shouldValidateStringProperty(Property expectedProperty) {
-        return StringProperty.class.isAssignableFrom(expectedProperty.getClass()) && isAssertionEnabled(
-            SwaggerAssertionType.STRING_PROPERTIES);
+    private boolean isReplacedReference(Property actualProperty, Property expectedProperty) {
+        if (!(actualProperty instanceof RefProperty || expectedProperty instanceof RefProperty)
+            || !SchemaComparator.isObjectSchema(actualProperty) || !SchemaComparator.isObjectSchema(expectedProperty)) {
+            return false;
+        }
+        return !(actualProperty instanceof RefProperty && expectedProperty instanceof RefProperty)
+            || !Objects.equals(((RefProperty) actualProperty).getSimpleRef(), ((RefProperty) expectedProperty).getSimpleRef());
     }
 
-    private boolean isAssertionEnabled(final SwaggerAssertionType assertionType) {
-        return assertionConfig.swaggerAssertionEnabled(assertionType);
+    private void validateReferencedSchema(Property actualProperty, Property expectedProperty, SchemaComparator schemaComparator,
+        Description description) {
+        if (actualProperty.getClass() == expectedProperty.getClass()) {
+            validateBasicPropertyFeatures(actualProperty, expectedProperty, description);
+        } else {
+            lazySoftAssertions.isEqualToComparingOnlyGivenFields(actualProperty, expectedProperty, REFERENCE_PROPERTIES, description);
+        }
+        lazySoftAssertions.isEquivalentTo(schemaOf(actualProperty), schemaOf(expectedProperty),
+            schemaComparator.isEquivalent(actualProperty, expectedProperty, schemaWorkStack), description);
     }
 
-    private void validateBasicPropertyFeatures(Property actualProperty, Property expectedProperty, String message) {
-        softAssertions.assertThat(actualProperty).as(message).isExactlyInstanceOf(expectedProperty.getClass());
-        softAssertions.assertThat(actualProperty).as(message)
-            .isEqualToComparingOnlyGivenFields(expectedProperty, BASIC_PROPERTIES);
+    private static String schemaOf(Property property) {
+        return property instanceof RefProperty ? ((RefProperty) property).get$ref() : "inline object schema";
     }
 
     private boolean isPropertyOfEnumType(Property property) {
@@ -91,10 +176,29 @@ public class PropertyValidator {
         StringProperty expectedStringProperty) {
         List<String> expectedEnums = expectedStringProperty.getEnum();
         if (CollectionUtils.isNotEmpty(expectedEnums)) {
-            softAssertions.assertThat(actualStringProperty.getEnum()).hasSameElementsAs(expectedEnums);
+            lazySoftAssertions.hasSameElementsAs(actualStringProperty.getEnum(), expectedEnums, null);
         } else {
-            softAssertions.assertThat(actualStringProperty.getEnum()).isNullOrEmpty();
+            lazySoftAssertions.isNullOrEmpty(actualStringProperty.getEnum(), null);
         }
     }
 
+    /**
+     * Describes a nested property by the description of the validated property and the path to the nested one. It is
+     * only formatted when a check fails, which happens while the nested property is the current one.
+     */
+    private static final class NestedDescription extends Description {
+
+        private final WorkStack workStack;
+        private Description parent;
+
+        NestedDescription(WorkStack workStack) {
+            this.workStack = workStack;
+        }
+
+        @Override
+        public String value() {
+            String nestedProperty = "nested property '" + workStack.currentPath() + "'";
+            return parent == null ? nestedProperty : parent.value() + ", " + nestedProperty;
+        }
+    }
 }
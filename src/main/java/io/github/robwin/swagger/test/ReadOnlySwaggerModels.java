@@ -0,0 +1,166 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.ArrayModel;
+import io.swagger.models.ComposedModel;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.AbstractSerializableParameter;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.StringProperty;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the collections of a parsed Swagger model with unmodifiable views, so that a model which is shared between
+ * assertions (see {@link SwaggerSpecCache}) cannot be changed by one of them.
+ * <p>
+ * The swagger-models beans do not allow to freeze everything: {@code ModelImpl} copies the property map handed to its
+ * setter, and the scalar setters stay usable. The validators of this library only read the model.
+ * </p>
+ */
+final class ReadOnlySwaggerModels {
+
+    private ReadOnlySwaggerModels() {
+    }
+
+    static Swagger freeze(Swagger swagger) {
+        if (swagger.getPaths() != null) {
+            swagger.getPaths().values().forEach(ReadOnlySwaggerModels::freeze);
+            swagger.setPaths(unmodifiable(swagger.getPaths()));
+        }
+        if (swagger.getDefinitions() != null) {
+            swagger.getDefinitions().values().forEach(ReadOnlySwaggerModels::freeze);
+            swagger.setDefinitions(unmodifiable(swagger.getDefinitions()));
+        }
+        if (swagger.getParameters() != null) {
+            swagger.getParameters().values().forEach(ReadOnlySwaggerModels::freeze);
+            swagger.setParameters(unmodifiable(swagger.getParameters()));
+        }
+        if (swagger.getResponses() != null) {
+            swagger.getResponses().values().forEach(ReadOnlySwaggerModels::freeze);
+            swagger.setResponses(unmodifiable(swagger.getResponses()));
+        }
+        swagger.setConsumes(unmodifiable(swagger.getConsumes()));
+        swagger.setProduces(unmodifiable(swagger.getProduces()));
+        swagger.setSchemes(unmodifiable(swagger.getSchemes()));
+        swagger.setTags(unmodifiable(swagger.getTags()));
+        return swagger;
+    }
+
+    private static void freeze(Path path) {
+        path.getOperations().forEach(ReadOnlySwaggerModels::freeze);
+        if (path.getParameters() != null) {
+            path.getParameters().forEach(ReadOnlySwaggerModels::freeze);
+            path.setParameters(unmodifiable(path.getParameters()));
+        }
+    }
+
+    private static void freeze(Operation operation) {
+        if (operation.getParameters() != null) {
+            operation.getParameters().forEach(ReadOnlySwaggerModels::freeze);
+            operation.setParameters(unmodifiable(operation.getParameters()));
+        }
+        if (operation.getResponses() != null) {
+            operation.getResponses().values().forEach(ReadOnlySwaggerModels::freeze);
+            operation.setResponses(unmodifiable(operation.getResponses()));
+        }
+        operation.setConsumes(unmodifiable(operation.getConsumes()));
+        operation.setProduces(unmodifiable(operation.getProduces()));
+        operation.setTags(unmodifiable(operation.getTags()));
+    }
+
+    private static void freeze(Parameter parameter) {
+        if (parameter instanceof BodyParameter && ((BodyParameter) parameter).getSchema() != null) {
+            freeze(((BodyParameter) parameter).getSchema());
+        } else if (parameter instanceof AbstractSerializableParameter) {
+            AbstractSerializableParameter<?> serializableParameter = (AbstractSerializableParameter<?>) parameter;
+            serializableParameter.setEnum(unmodifiable(serializableParameter.getEnum()));
+        }
+    }
+
+    private static void freeze(Response response) {
+        if (response.getResponseSchema() != null) {
+            freeze(response.getResponseSchema());
+        }
+        if (response.getHeaders() != null) {
+            response.getHeaders().values().forEach(ReadOnlySwaggerModels::freeze);
+            response.setHeaders(unmodifiable(response.getHeaders()));
+        }
+    }
+
+    private static void freeze(Model model) {
+        if (model.getProperties() != null) {
+            model.getProperties().values().forEach(ReadOnlySwaggerModels::freeze);
+        }
+        if (model instanceof ModelImpl) {
+            ModelImpl modelImpl = (ModelImpl) model;
+            modelImpl.setEnum(unmodifiable(modelImpl.getEnum()));
+        } else if (model instanceof ComposedModel) {
+            ComposedModel composedModel = (ComposedModel) model;
+            composedModel.getAllOf().forEach(ReadOnlySwaggerModels::freeze);
+            composedModel.setAllOf(unmodifiable(composedModel.getAllOf()));
+        } else if (model instanceof ArrayModel && ((ArrayModel) model).getItems() != null) {
+            freeze(((ArrayModel) model).getItems());
+        }
+    }
+
+    private static void freeze(Property property) {
+        if (property instanceof ObjectProperty && ((ObjectProperty) property).getProperties() != null) {
+            ObjectProperty objectProperty = (ObjectProperty) property;
+            objectProperty.getProperties().values().forEach(ReadOnlySwaggerModels::freeze);
+            objectProperty.setProperties(unmodifiable(objectProperty.getProperties()));
+        } else if (property instanceof ArrayProperty && ((ArrayProperty) property).getItems() != null) {
+            freeze(((ArrayProperty) property).getItems());
+        } else if (property instanceof MapProperty && ((MapProperty) property).getAdditionalProperties() != null) {
+            freeze(((MapProperty) property).getAdditionalProperties());
+        } else if (property instanceof StringProperty) {
+            StringProperty stringProperty = (StringProperty) property;
+            stringProperty.setEnum(unmodifiable(stringProperty.getEnum()));
+        }
+    }
+
+    private static <T> List<T> unmodifiable(List<T> list) {
+        return list != null && !isUnmodifiable(list) ? Collections.unmodifiableList(list) : list;
+    }
+
+    private static <K, V> Map<K, V> unmodifiable(Map<K, V> map) {
+        return map != null && !isUnmodifiable(map) ? Collections.unmodifiableMap(map) : map;
+    }
+
+    /**
+     * Interned schemas (see {@link SwaggerModelInterner}) are shared with models frozen before, so they must not be
+     * wrapped once more for every model which shares them.
+     */
+    private static boolean isUnmodifiable(Object collection) {
+        return collection.getClass().getName().startsWith("java.util.Collections$Unmodifiable");
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Model;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether two property schemas are structurally equivalent, following {@code $ref}s on both sides through the
+ * {@link SchemaObjectResolver}. A referenced definition is equivalent to another one, or to an inline object schema,
+ * if both have the same property names and equivalent properties. In a consumer-driven comparison, the actual schema
+ * may have properties which the expected one lacks, like a definition of the provider may have more properties than
+ * the one of the contract.
+ * <p>
+ * The verdict for every pair of an expected and an actual definition is memoized, so a definition which is referenced
+ * from many operations is compared once per validation. Recursive definitions are compared coinductively: a pair which
+ * is already being compared is assumed to be equivalent. Such a verdict only holds if the whole comparison succeeds,
+ * so the pairs compared along the way are only memoized as equivalent then. If the comparison fails, only the pair it
+ * started with is memoized as different.
+ * </p>
+ * <p>
+ * Nested schemas are compared with a {@link WorkStack} instead of recursion, like in the {@link PropertyValidator},
+ * so arbitrarily deep schemas cannot overflow the call stack.
+ * </p>
+ */
+final class SchemaComparator {
+
+    /**
+     * The fields of {@code PropertyValidator.BASIC_PROPERTIES} which describe the schema, the name of a property is
+     * given by its key instead.
+     */
+    private static final String[] SCHEMA_FIELDS = {"type", "format", "allowEmptyValue", "required", "readOnly", "access",
+            "vendorExtensions"};
+
+    private final SchemaObjectResolver schemaObjectResolver;
+    private final boolean consumerDriven;
+    private final Map<DefinitionPair, Boolean> verdicts = new ConcurrentHashMap<>();
+
+    /**
+     * @param consumerDriven whether the actual properties of an object schema only need to contain the expected ones
+     */
+    SchemaComparator(SchemaObjectResolver schemaObjectResolver, boolean consumerDriven) {
+        this.schemaObjectResolver = schemaObjectResolver;
+        this.consumerDriven = consumerDriven;
+    }
+
+    /**
+     * @param property property
+     * @return {@code true} if the property is a reference to a definition or an inline object schema
+     */
+    static boolean isObjectSchema(Property property) {
+        return property instanceof RefProperty || property instanceof ObjectProperty;
+    }
+
+    /**
+     * @param actualProperty   property of the actual schema
+     * @param expectedProperty property of the expected schema
+     * @return {@code true} if both properties describe the same schema
+     */
+    boolean isEquivalent(Property actualProperty, Property expectedProperty) {
+        return isEquivalent(actualProperty, expectedProperty, new WorkStack());
+    }
+
+    /**
+     * @param actualProperty   property of the actual schema
+     * @param expectedProperty property of the expected schema
+     * @param workStack        stack of the caller, which may be reused as the frames pushed are popped before returning
+     * @return {@code true} if both properties describe the same schema
+     */
+    boolean isEquivalent(Property actualProperty, Property expectedProperty, WorkStack workStack) {
+        Set<DefinitionPair> assumedPairs = new HashSet<>();
+        int bottom = workStack.size();
+        workStack.push(actualProperty, expectedProperty, null, 0);
+        boolean equivalent = true;
+        while (equivalent && workStack.size() > bottom) {
+            int frame = workStack.pop();
+            Property actual = workStack.actualProperty(frame);
+            Property expected = workStack.expectedProperty(frame);
+            workStack.clear(frame);
+            equivalent = compare(actual, expected, assumedPairs, workStack);
+        }
+        workStack.truncate(bottom);
+        if (equivalent) {
+            for (DefinitionPair pair : assumedPairs) {
+                verdicts.put(pair, Boolean.TRUE);
+            }
+        } else if (actualProperty instanceof RefProperty && expectedProperty instanceof RefProperty) {
+            // an assumption can never make two schemas differ, so the verdict holds on its own
+            verdicts.put(new DefinitionPair(((RefProperty) expectedProperty).getSimpleRef(), ((RefProperty) actualProperty).getSimpleRef()), Boolean.FALSE);
+        }
+        return equivalent;
+    }
+
+    /**
+     * @return number of pairs of definitions with a memoized verdict
+     */
+    int memoizedPairs() {
+        return verdicts.size();
+    }
+
+    /**
+     * Compares two properties without their nested schemas, which are pushed onto the stack.
+     *
+     * @return {@code false} if the properties differ
+     */
+    private boolean compare(Property actualProperty, Property expectedProperty, Set<DefinitionPair> assumedPairs, WorkStack workStack) {
+        if (actualProperty == expectedProperty) {
+            return true;
+        }
+        if (actualProperty == null || expectedProperty == null) {
+            return false;
+        }
+        if (isObjectSchema(actualProperty) || isObjectSchema(expectedProperty)) {
+            if (!isObjectSchema(actualProperty) || !isObjectSchema(expectedProperty)) {
+                return false;
+            }
+            if (actualProperty instanceof RefProperty && expectedProperty instanceof RefProperty) {
+                return compareDefinitions(((RefProperty) actualProperty).getSimpleRef(), ((RefProperty) expectedProperty).getSimpleRef(), assumedPairs, workStack);
+            }
+            Map<String, Property> actualProperties = actualPropertiesOf(actualProperty);
+            Map<String, Property> expectedProperties = expectedPropertiesOf(expectedProperty);
+            return actualProperties != null && expectedProperties != null && pushProperties(actualProperties, expectedProperties, workStack);
+        }
+        if (actualProperty.getClass() != expectedProperty.getClass() || !LazySoftAssertions.equalOnFields(actualProperty, expectedProperty, SCHEMA_FIELDS)) {
+            return false;
+        }
+        if (actualProperty instanceof ArrayProperty) {
+            workStack.push(((ArrayProperty) actualProperty).getItems(), ((ArrayProperty) expectedProperty).getItems(), null, 0);
+        } else if (actualProperty instanceof MapProperty) {
+            workStack.push(((MapProperty) actualProperty).getAdditionalProperties(), ((MapProperty) expectedProperty).getAdditionalProperties(), null, 0);
+        } else if (actualProperty instanceof StringProperty) {
+            return Objects.equals(((StringProperty) actualProperty).getEnum(), ((StringProperty) expectedProperty).getEnum());
+        }
+        return true;
+    }
+
+    private boolean compareDefinitions(String actualDefinitionName, String expectedDefinitionName, Set<DefinitionPair> assumedPairs, WorkStack workStack) {
+        DefinitionPair pair = new DefinitionPair(expectedDefinitionName, actualDefinitionName);
+        Boolean verdict = verdicts.get(pair);
+        if (verdict != null) {
+            return verdict;
+        }
+        if (!assumedPairs.add(pair)) {
+            return true;
+        }
+        Model actualDefinition = schemaObjectResolver.getActualDefinition(actualDefinitionName);
+        Model expectedDefinition = schemaObjectResolver.getExpectedDefinition(expectedDefinitionName);
+        return actualDefinition != null && expectedDefinition != null
+                && pushProperties(schemaObjectResolver.resolvePropertiesFromActual(actualDefinition),
+                schemaObjectResolver.resolvePropertiesFromExpected(expectedDefinition), workStack);
+    }
+
+    private boolean pushProperties(Map<String, Property> actualProperties, Map<String, Property> expectedProperties, WorkStack workStack) {
+        if (consumerDriven ? !actualProperties.keySet().containsAll(expectedProperties.keySet())
+                : !actualProperties.keySet().equals(expectedProperties.keySet())) {
+            return false;
+        }
+        for (Map.Entry<String, Property> expectedProperty : expectedProperties.entrySet()) {
+            workStack.push(actualProperties.get(expectedProperty.getKey()), expectedProperty.getValue(), null, 0);
+        }
+        return true;
+    }
+
+    /**
+     * @return the properties of an inline object schema, or of the referenced definition; {@code null} if the
+     * referenced definition does not exist
+     */
+    private Map<String, Property> actualPropertiesOf(Property property) {
+        if (property instanceof RefProperty) {
+            Model definition = schemaObjectResolver.getActualDefinition(((RefProperty) property).getSimpleRef());
+            return definition != null ? schemaObjectResolver.resolvePropertiesFromActual(definition) : null;
+        }
+        return inlinePropertiesOf((ObjectProperty) property);
+    }
+
+    private Map<String, Property> expectedPropertiesOf(Property property) {
+        if (property instanceof RefProperty) {
+            Model definition = schemaObjectResolver.getExpectedDefinition(((RefProperty) property).getSimpleRef());
+            return definition != null ? schemaObjectResolver.resolvePropertiesFromExpected(definition) : null;
+        }
+        return inlinePropertiesOf((ObjectProperty) property);
+    }
+
+    private static Map<String, Property> inlinePropertiesOf(ObjectProperty property) {
+        return property.getProperties() != null ? property.getProperties() : Collections.emptyMap();
+    }
+
+    private static final class DefinitionPair {
+
+        private final String expectedDefinitionName;
+        private final String actualDefinitionName;
+
+        DefinitionPair(String expectedDefinitionName, String actualDefinitionName) {
+            this.expectedDefinitionName = expectedDefinitionName;
+            this.actualDefinitionName = actualDefinitionName;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof DefinitionPair)) {
+                return false;
+            }
+            DefinitionPair pair = (DefinitionPair) other;
+            return Objects.equals(expectedDefinitionName, pair.expectedDefinitionName) && Objects.equals(actualDefinitionName, pair.actualDefinitionName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(expectedDefinitionName, actualDefinitionName);
+        }
+    }
+}
@@ -25,12 +25,18 @@ import io.swagger.models.RefModel;
 import io.swagger.models.Swagger;
 import io.swagger.models.properties.Property;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -42,10 +48,51 @@ class SchemaObjectResolver {
 
     private Swagger expected;
     private Swagger actual;
+    private DefinitionProperties expectedDefinitionProperties;
+    private DefinitionProperties actualDefinitionProperties;
+    private ValidationMetrics metrics;
+    private final SchemaComparator schemaComparator = new SchemaComparator(this, false);
+    private final SchemaComparator consumerDrivenSchemaComparator = new SchemaComparator(this, true);
 
     SchemaObjectResolver(Swagger expected, Swagger actual) {
+        this(expected, actual, ValidationMetrics.DISABLED);
+    }
+
+    /**
+     * @param metrics receives the time spent resolving the properties of definitions
+     */
+    SchemaObjectResolver(Swagger expected, Swagger actual, ValidationMetrics metrics) {
+        this(expected, actual, new DefinitionProperties(actual), metrics);
+    }
+
+    private SchemaObjectResolver(Swagger expected, Swagger actual, DefinitionProperties actualDefinitionProperties, ValidationMetrics metrics) {
         this.expected = expected;
         this.actual = actual;
+        this.expectedDefinitionProperties = new DefinitionProperties(expected);
+        this.actualDefinitionProperties = actualDefinitionProperties;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates a resolver for another expected schema, which shares the resolved properties of the actual schema with
+     * this one.
+     *
+     * @param otherExpected expected schema
+     * @return resolver for {@code otherExpected} and the actual schema of this resolver
+     */
+    SchemaObjectResolver withExpected(Swagger otherExpected) {
+        return withExpected(otherExpected, metrics);
+    }
+
+    /**
+     * Like {@link #withExpected(Swagger)}, measuring the resolution in other metrics.
+     *
+     * @param otherExpected expected schema
+     * @param otherMetrics  receives the time spent resolving the properties of definitions
+     * @return resolver for {@code otherExpected} and the actual schema of this resolver
+     */
+    SchemaObjectResolver withExpected(Swagger otherExpected, ValidationMetrics otherMetrics) {
+        return new SchemaObjectResolver(otherExpected, actual, actualDefinitionProperties, otherMetrics);
     }
 
     List<String> getExpectedConsumes(Operation op) {
@@ -64,48 +111,40 @@ class SchemaObjectResolver {
         return getListWithFallback(op.getProduces(), actual.getProduces());
     }
 
-    Map<String, Property> resolvePropertiesFromExpected(Model definition) {
-        return resolveProperties(definition, expected, new HashSet<String>());
+    /**
+     * @return compares schemas of the expected and the actual schema, memoizing its verdicts for the lifetime of this
+     * resolver
+     */
+    SchemaComparator getSchemaComparator() {
+        return schemaComparator;
     }
 
-    Map<String, Property> resolvePropertiesFromActual(Model definition) {
-        return resolveProperties(definition, actual, new HashSet<String>());
+    /**
+     * @return like {@link #getSchemaComparator()}, but the actual schemas may have more properties than the expected
+     * ones, as in a consumer-driven validation
+     */
+    SchemaComparator getConsumerDrivenSchemaComparator() {
+        return consumerDrivenSchemaComparator;
     }
 
-    private Map<String, Property> resolveProperties(Model definition, Swagger owningSchema, Set<String> seenRefs) {
-        Map<String, Property> result;
-
-        // if the definition does not contain any property, then the model will return null instead of an empty map
-        final Map<String, Property> definitionProperties = definition.getProperties() != null ? definition.getProperties() : Collections.emptyMap();
+    Model getExpectedDefinition(String definitionName) {
+        return expected.getDefinitions() != null ? expected.getDefinitions().get(definitionName) : null;
+    }
 
-        if (definition instanceof RefModel) {
-            // Don't navigate ref-def cycles infinitely
-            final RefModel refDef = (RefModel) definition;
+    Model getActualDefinition(String definitionName) {
+        return actual.getDefinitions() != null ? actual.getDefinitions().get(definitionName) : null;
+    }
 
-            if (seenRefs.contains(refDef.getSimpleRef())) {
-                return Collections.emptyMap();
-            } else {
-                seenRefs.add(refDef.getSimpleRef());
-            }
-            result = resolveProperties(findDefinition(owningSchema.getDefinitions(), refDef), owningSchema, seenRefs);
-        } else if (definition instanceof ComposedModel) {
-            Map<String, Property> allProperties = new HashMap<>();
-            if (definitionProperties != null) {
-                allProperties.putAll(definitionProperties);
-            }
-            for (final Model childDefinition : ((ComposedModel) definition).getAllOf()) {
-                allProperties.putAll(resolveProperties(childDefinition, owningSchema, seenRefs));
-            }
-            result = allProperties;
-        } else {
-            result = definitionProperties;
+    Map<String, Property> resolvePropertiesFromExpected(Model definition) {
+        try (ValidationMetrics.Span ignored = metrics.start(ValidationMetrics.Phase.RESOLUTION)) {
+            return expectedDefinitionProperties.resolve(definition);
         }
-
-        return result;
     }
 
-    private Model findDefinition(Map<String, Model> defs, RefModel refModel) {
-        return defs.get(refModel.getSimpleRef());
+    Map<String, Property> resolvePropertiesFromActual(Model definition) {
+        try (ValidationMetrics.Span ignored = metrics.start(ValidationMetrics.Phase.RESOLUTION)) {
+            return actualDefinitionProperties.resolve(definition);
+        }
     }
 
     private <A> List<A> getListWithFallback(List<A> localDefn, List<A> globalDefn) {
@@ -120,5 +159,191 @@ class SchemaObjectResolver {
         return result;
     }
 
-}
+    /**
+     * Resolves and memoizes the properties of the definitions of one schema, following {@code $ref}s and flattening
+     * {@code allOf} compositions. The resolved maps are unmodifiable and computed once per definition.
+     * <p>
+     * Definitions which take part in a {@code $ref} cycle are found once up front, as the strongly connected components
+     * of the reference graph. They are resolved by walking the references while tracking the visited ones, so a cycle
+     * is cut where it closes, exactly as seen from the definition being resolved.
+     * </p>
+     * <p>
+     * The definitions of a {@link SpooledSpec} are read anew unless they were read recently, so they are neither indexed
+     * by identity nor memoized, which would keep them all in memory. Their reference graph is the one recorded when they
+     * were spooled, so finding the cycles does not read them at all.
+     * </p>
+     */
+    private static class DefinitionProperties {
+
+        private final Map<String, Model> definitions;
+        private final Map<Model, String> definitionNames = new IdentityHashMap<>();
+        private final Set<String> cyclicDefinitions;
+        private final Map<String, Map<String, Property>> resolvedDefinitions = new ConcurrentHashMap<>();
+        private final boolean memoize;
+
+        DefinitionProperties(Swagger owningSchema) {
+            this.definitions = owningSchema.getDefinitions() != null ? owningSchema.getDefinitions() : Collections.emptyMap();
+            this.memoize = !(definitions instanceof SpooledSection);
+            if (memoize) {
+                for (Map.Entry<String, Model> definition : definitions.entrySet()) {
+                    definitionNames.put(definition.getValue(), definition.getKey());
+                }
+            }
+            this.cyclicDefinitions = findCyclicDefinitions();
+        }
+
+        Map<String, Property> resolve(Model definition) {
+            String definitionName = definitionNames.get(definition);
+            return definitionName != null ? resolveDefinition(definitionName) : resolveModel(definition);
+        }
+
+        private Map<String, Property> resolveDefinition(String definitionName) {
+            Map<String, Property> result = resolvedDefinitions.get(definitionName);
+            if (result == null) {
+                Model definition = definitions.get(definitionName);
+                if (definition == null) {
+                    result = Collections.emptyMap();
+                } else if (cyclicDefinitions.contains(definitionName)) {
+                    result = Collections.unmodifiableMap(resolveTrackingRefs(definition, new HashSet<>()));
+                } else {
+                    result = resolveModel(definition);
+                }
+                if (memoize) {
+                    resolvedDefinitions.put(definitionName, result);
+                }
+            }
+            return result;
+        }
 
+        private Map<String, Property> resolveModel(Model definition) {
+            if (definition instanceof RefModel) {
+                return resolveDefinition(((RefModel) definition).getSimpleRef());
+            }
+            // if the definition does not contain any property, then the model will return null instead of an empty map
+            final Map<String, Property> definitionProperties = definition.getProperties() != null ? definition.getProperties() : Collections.emptyMap();
+            if (definition instanceof ComposedModel) {
+                Map<String, Property> allProperties = new LinkedHashMap<>(definitionProperties);
+                for (final Model childDefinition : ((ComposedModel) definition).getAllOf()) {
+                    allProperties.putAll(resolveModel(childDefinition));
+                }
+                return Collections.unmodifiableMap(allProperties);
+            }
+            return Collections.unmodifiableMap(definitionProperties);
+        }
+
+        private Map<String, Property> resolveTrackingRefs(Model definition, Set<String> seenRefs) {
+            if (definition == null) {
+                return Collections.emptyMap();
+            }
+            final Map<String, Property> definitionProperties = definition.getProperties() != null ? definition.getProperties() : Collections.emptyMap();
+            if (definition instanceof RefModel) {
+                // Don't navigate ref-def cycles infinitely
+                final RefModel refDef = (RefModel) definition;
+                if (!seenRefs.add(refDef.getSimpleRef())) {
+                    return Collections.emptyMap();
+                }
+                return resolveTrackingRefs(definitions.get(refDef.getSimpleRef()), seenRefs);
+            } else if (definition instanceof ComposedModel) {
+                Map<String, Property> allProperties = new LinkedHashMap<>(definitionProperties);
+                for (final Model childDefinition : ((ComposedModel) definition).getAllOf()) {
+                    allProperties.putAll(resolveTrackingRefs(childDefinition, seenRefs));
+                }
+                return allProperties;
+            }
+            return definitionProperties;
+        }
+
+        /**
+         * Runs Tarjan's algorithm, iteratively to cope with long inheritance chains, over the graph of {@code $ref}s
+         * which property resolution follows.
+         *
+         * @return names of the definitions which are part of a reference cycle
+         */
+        private Set<String> findCyclicDefinitions() {
+            Map<String, List<String>> references = new HashMap<>();
+            if (definitions instanceof SpooledSection) {
+                SpooledSection<Model> spooledDefinitions = (SpooledSection<Model>) definitions;
+                for (String definitionName : definitions.keySet()) {
+                    List<String> targets = new ArrayList<>(spooledDefinitions.getReferences(definitionName));
+                    targets.retainAll(definitions.keySet());
+                    references.put(definitionName, targets);
+                }
+            } else {
+                for (Map.Entry<String, Model> definition : definitions.entrySet()) {
+                    List<String> targets = new ArrayList<>();
+                    collectReferences(definition.getValue(), targets);
+                    references.put(definition.getKey(), targets);
+                }
+            }
+
+            Set<String> cyclic = new HashSet<>();
+            Map<String, Integer> index = new HashMap<>();
+            Map<String, Integer> lowLink = new HashMap<>();
+            Deque<String> stack = new ArrayDeque<>();
+            Set<String> onStack = new HashSet<>();
+            Deque<String> callStack = new ArrayDeque<>();
+            Deque<Integer> nextEdge = new ArrayDeque<>();
+
+            for (String root : definitions.keySet()) {
+                if (index.containsKey(root)) {
+                    continue;
+                }
+                callStack.push(root);
+                nextEdge.push(0);
+                while (!callStack.isEmpty()) {
+                    String node = callStack.peek();
+                    int edge = nextEdge.pop();
+                    if (edge == 0) {
+                        index.put(node, index.size());
+                        lowLink.put(node, index.get(node));
+                        stack.push(node);
+                        onStack.add(node);
+                    }
+                    List<String> targets = references.get(node);
+                    if (edge < targets.size()) {
+                        nextEdge.push(edge + 1);
+                        String target = targets.get(edge);
+                        if (!index.containsKey(target)) {
+                            callStack.push(target);
+                            nextEdge.push(0);
+                        } else if (onStack.contains(target)) {
+                            lowLink.put(node, Math.min(lowLink.get(node), index.get(target)));
+                        }
+                        continue;
+                    }
+                    callStack.pop();
+                    if (lowLink.get(node).equals(index.get(node))) {
+                        List<String> component = new ArrayList<>();
+                        String member;
+                        do {
+                            member = stack.pop();
+                            onStack.remove(member);
+                            component.add(member);
+                        } while (!member.equals(node));
+                        if (component.size() > 1 || targets.contains(node)) {
+                            cyclic.addAll(component);
+                        }
+                    }
+                    if (!callStack.isEmpty()) {
+                        String parent = callStack.peek();
+                        lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(node)));
+                    }
+                }
+            }
+            return cyclic;
+        }
+
+        private void collectReferences(Model model, List<String> targets) {
+            if (model instanceof RefModel) {
+                String target = ((RefModel) model).getSimpleRef();
+                if (definitions.containsKey(target)) {
+                    targets.add(target);
+                }
+            } else if (model instanceof ComposedModel) {
+                for (Model childDefinition : ((ComposedModel) model).getAllOf()) {
+                    collectReferences(childDefinition, targets);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * A read-only map over the paths or definitions of a {@link SpooledSpec}. Only the names and the positions of the
+ * entries in the spool file are held in memory, together with the {@value #DECODED_ENTRIES} most recently read entries,
+ * which are shared with the views of the section; every other {@link #get} reads and converts the entry again, and so
+ * do the entries returned by {@link #entrySet()}.
+ *
+ * @param <V> type of the values, e.g. {@code Path} or {@code Model}
+ */
+final class SpooledSection<V> extends AbstractMap<String, V> {
+
+    static final int DECODED_ENTRIES = 16;
+
+    private final Map<String, Long> positions;
+    private final Map<String, List<String>> references;
+    private final BiFunction<String, Long, V> reader;
+    private final Map<Long, V> decoded;   // by position, in access order
+
+    /**
+     * @param positions  positions of the entries in the spool file, in document order
+     * @param references names of the entries which each entry refers to, recorded when the entries were spooled
+     * @param reader     reads the entry of the given name at the given position
+     */
+    SpooledSection(Map<String, Long> positions, Map<String, List<String>> references, BiFunction<String, Long, V> reader) {
+        this(positions, references, reader, Collections.synchronizedMap(new LinkedHashMap<Long, V>(DECODED_ENTRIES, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+                return size() > DECODED_ENTRIES;
+            }
+        }));
+    }
+
+    private SpooledSection(Map<String, Long> positions, Map<String, List<String>> references,
+                           BiFunction<String, Long, V> reader, Map<Long, V> decoded) {
+        this.positions = positions;
+        this.references = references;
+        this.reader = reader;
+        this.decoded = decoded;
+    }
+
+    /**
+     * Returns a view of this section with prefixed keys, in document order like the prefixed paths of a fully loaded
+     * model in {@link AbstractContractValidator}, so both iterate, and report errors, in the same order.
+     *
+     * @param prefix prefix to prepend to every key
+     * @return a view of this section with prefixed keys
+     */
+    SpooledSection<V> withKeyPrefix(String prefix) {
+        Map<String, Long> prefixedPositions = new LinkedHashMap<>();
+        positions.forEach((key, position) -> prefixedPositions.put(prefix + key, position));
+        return new SpooledSection<>(prefixedPositions, Collections.emptyMap(), reader, decoded);
+    }
+
+    /**
+     * @param keysToExclude keys to leave out
+     * @return a view of this section without the given keys
+     */
+    SpooledSection<V> withoutKeys(IgnoreRules keysToExclude) {
+        if (keysToExclude.isEmpty()) {
+            return this;
+        }
+        Map<String, Long> remainingPositions = new LinkedHashMap<>(positions);
+        remainingPositions.keySet().removeIf(keysToExclude::matches);
+        return new SpooledSection<>(remainingPositions, references, reader, decoded);
+    }
+
+    @Override
+    public int size() {
+        return positions.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return positions.containsKey(key);
+    }
+
+    /**
+     * @param key name of an entry
+     * @return names of the entries which the entry refers to, which need not be part of this section
+     */
+    List<String> getReferences(String key) {
+        return references.getOrDefault(key, Collections.emptyList());
+    }
+
+    @Override
+    public V get(Object key) {
+        Long position = positions.get(key);
+        return position != null ? read((String) key, position) : null;
+    }
+
+    private V read(String key, Long position) {
+        V value = decoded.get(position);
+        if (value == null) {
+            value = reader.apply(key, position);
+            decoded.put(position, value);
+        }
+        return value;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(positions.keySet());
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<Map.Entry<String, V>>() {
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                Iterator<Map.Entry<String, Long>> iterator = positions.entrySet().iterator();
+                return new Iterator<Map.Entry<String, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<String, V> next() {
+                        return new SpooledEntry(iterator.next());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return positions.size();
+            }
+        };
+    }
+
+    private final class SpooledEntry implements Map.Entry<String, V> {
+
+        private final Map.Entry<String, Long> position;
+
+        private SpooledEntry(Map.Entry<String, Long> position) {
+            this.position = position;
+        }
+
+        @Override
+        public String getKey() {
+            return position.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            return read(position.getKey(), position.getValue());
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
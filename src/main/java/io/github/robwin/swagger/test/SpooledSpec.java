@@ -0,0 +1,277 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.swagger.models.Model;
+import io.swagger.models.RefModel;
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerResolver;
+import io.swagger.parser.util.SwaggerDeserializer;
+import io.swagger.util.Json;
+import io.swagger.util.Yaml;
+import org.apache.commons.lang3.Validate;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Swagger model whose paths and definitions stay on disk until they are validated.
+ * <p>
+ * The spec is read with a streaming parser. Every path and every definition is parsed on its own and written as Smile,
+ * Jackson's binary JSON format, to a temporary spool file; all other top-level fields form a small skeleton which is
+ * deserialized as usual. The paths and definitions of the resulting {@link Swagger} are {@link SpooledSection}s, which
+ * read and convert an entry when it is accessed and keep only the few most recently read ones. Reading and validating a
+ * spec thus needs memory in proportion to its largest paths or definitions, not to the whole spec.
+ * </p>
+ * <p>
+ * While the definitions are spooled, the {@code $ref}s by which a definition refers to other definitions as a whole or
+ * through {@code allOf} are recorded, so that {@link SchemaObjectResolver} finds reference cycles without reading the
+ * definitions back.
+ * </p>
+ * <p>
+ * Local {@code $ref}s to parameters and responses are resolved per entry the same way {@code SwaggerParser} resolves
+ * them. References to other files or URLs are not supported.
+ * </p>
+ */
+final class SpooledSpec implements Closeable {
+
+    private static final String PATHS = "paths";
+    private static final String DEFINITIONS = "definitions";
+    private static final String VENDOR_EXTENSION_PREFIX = "x-";
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory());
+
+    private final String location;
+    private final Path spoolFile;
+    private final FileChannel spool;
+    private Swagger swagger;
+
+    private SpooledSpec(String location, Path spoolFile) throws IOException {
+        this.location = location;
+        this.spoolFile = spoolFile;
+        this.spool = FileChannel.open(spoolFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reads the spec at the given location, which must be a local JSON or YAML file.
+     *
+     * @param location path or {@code file:} URI of the spec
+     * @return the spooled spec, to be closed once it is no longer needed
+     */
+    static SpooledSpec read(String location) {
+        Path file = SwaggerSpecCache.toLocalFile(location);
+        Validate.isTrue(file != null, "%s is not a local file", location);
+        try {
+            SpooledSpec spec = new SpooledSpec(location, Files.createTempFile("assertj-swagger", ".spool"));
+            try {
+                spec.swagger = spec.spoolSpec(file);
+                return spec;
+            } catch (IOException | RuntimeException e) {
+                spec.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + location, e);
+        }
+    }
+
+    /**
+     * @return the model, whose paths and definitions are read from the spool file on access
+     */
+    Swagger swagger() {
+        return swagger;
+    }
+
+    @Override
+    public void close() {
+        try {
+            spool.close();
+            Files.deleteIfExists(spoolFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete " + spoolFile, e);
+        }
+    }
+
+    private Swagger spoolSpec(Path file) throws IOException {
+        ObjectMapper mapper = isJson(file) ? Json.mapper() : Yaml.mapper();
+        ObjectNode skeleton = mapper.createObjectNode();
+        Map<String, Long> pathPositions = null;
+        Map<String, Long> definitionPositions = null;
+        Map<String, List<String>> definitionReferences = new HashMap<>();
+        try (JsonParser parser = mapper.getFactory().createParser(file.toFile())) {
+            Validate.isTrue(parser.nextToken() == JsonToken.START_OBJECT, "%s does not contain a JSON or YAML object", location);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (PATHS.equals(fieldName) && value == JsonToken.START_OBJECT) {
+                    pathPositions = spoolEntries(parser, true, null);
+                } else if (DEFINITIONS.equals(fieldName) && value == JsonToken.START_OBJECT) {
+                    definitionPositions = spoolEntries(parser, false, definitionReferences);
+                } else {
+                    skeleton.set(fieldName, parser.readValueAsTree());
+                }
+            }
+        }
+
+        Swagger skeletonSwagger = new SwaggerDeserializer().deserialize(skeleton).getSwagger();
+        Validate.notNull(skeletonSwagger, "Failed to parse %s", location);
+        if (pathPositions != null) {
+            skeletonSwagger.setPaths(new SpooledSection<>(pathPositions, Collections.emptyMap(),
+                    (name, position) -> readPath(skeletonSwagger, name, position)));
+        }
+        if (definitionPositions != null) {
+            skeletonSwagger.setDefinitions(new SpooledSection<>(definitionPositions, definitionReferences,
+                    (name, position) -> readDefinition(name, position)));
+        }
+        return skeletonSwagger;
+    }
+
+    private static boolean isJson(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            int c;
+            do {
+                c = in.read();
+            } while (c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == 0xEF || c == 0xBB || c == 0xBF);
+            return c == '{';
+        }
+    }
+
+    /**
+     * Writes the entries of the object the parser points at to the spool file, each prefixed with its length, and
+     * returns their positions. Entries which {@code SwaggerDeserializer} drops, i.e. vendor extensions among the paths
+     * and values which are not objects, are skipped.
+     *
+     * @param references receives the definitions each entry refers to, or {@code null} if they are not needed
+     */
+    private Map<String, Long> spoolEntries(JsonParser parser, boolean paths, Map<String, List<String>> references) throws IOException {
+        Map<String, Long> positions = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            JsonNode entry = parser.readValueAsTree();
+            if ((paths && name.startsWith(VENDOR_EXTENSION_PREFIX)) || !entry.isObject()) {
+                continue;
+            }
+            if (references != null) {
+                List<String> targets = new ArrayList<>();
+                collectReferences(entry, targets);
+                references.put(name, targets);
+            }
+            byte[] bytes = SMILE_MAPPER.writeValueAsBytes(entry);
+            long position = spool.size();
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + bytes.length);
+            buffer.putInt(bytes.length).put(bytes).flip();
+            while (buffer.hasRemaining()) {
+                spool.write(buffer, position + buffer.position());
+            }
+            positions.put(name, position);
+        }
+        return positions;
+    }
+
+    /**
+     * Collects the definitions which a definition refers to as a whole or through {@code allOf}, looking at the nodes
+     * in the same order as {@code SwaggerDeserializer} does when it tells a {@code RefModel} from a
+     * {@code ComposedModel}.
+     */
+    private static void collectReferences(JsonNode definition, List<String> targets) {
+        JsonNode ref = definition.get("$ref");
+        JsonNode allOf = definition.get("allOf");
+        if (ref != null) {
+            if (ref.isTextual()) {
+                targets.add(new RefModel(ref.textValue()).getSimpleRef());
+            }
+        } else if (allOf != null && allOf.isArray()) {
+            for (JsonNode childDefinition : allOf) {
+                collectReferences(childDefinition, targets);
+            }
+        }
+    }
+
+    private io.swagger.models.Path readPath(Swagger skeletonSwagger, String name, long position) {
+        io.swagger.models.Path path = EntryDeserializer.INSTANCE.path(readEntry(position), name);
+        // resolve local references to global parameters and responses, and add the path parameters to each operation
+        Swagger pathSwagger = new Swagger();
+        pathSwagger.setPaths(new LinkedHashMap<>(Collections.singletonMap(name, path)));
+        pathSwagger.setParameters(skeletonSwagger.getParameters());
+        pathSwagger.setResponses(skeletonSwagger.getResponses());
+        new SwaggerResolver(pathSwagger, null, location).resolve();
+        return pathSwagger.getPaths().get(name);
+    }
+
+    private Model readDefinition(String name, long position) {
+        return EntryDeserializer.INSTANCE.definition(readEntry(position), name);
+    }
+
+    private ObjectNode readEntry(long position) {
+        try {
+            ByteBuffer length = readFully(ByteBuffer.allocate(Integer.BYTES), position);
+            ByteBuffer bytes = readFully(ByteBuffer.allocate(length.getInt()), position + Integer.BYTES);
+            return (ObjectNode) SMILE_MAPPER.readTree(bytes.array());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + location + " from " + spoolFile, e);
+        }
+    }
+
+    private ByteBuffer readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (spool.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException(spoolFile.toString());
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Gives access to the deserialization of single paths and definitions. Parse messages are dropped, just as
+     * {@code SwaggerParser} drops them.
+     */
+    private static final class EntryDeserializer extends SwaggerDeserializer {
+
+        static final EntryDeserializer INSTANCE = new EntryDeserializer();
+
+        io.swagger.models.Path path(ObjectNode node, String name) {
+            return path(node, PATHS + ".'" + name + "'", new ParseResult());
+        }
+
+        Model definition(ObjectNode node, String name) {
+            return definition(node, DEFINITIONS + "." + name, new ParseResult());
+        }
+    }
+}
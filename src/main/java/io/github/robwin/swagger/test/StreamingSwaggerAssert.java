@@ -0,0 +1,82 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Swagger;
+import org.assertj.core.api.AbstractAssert;
+
+/**
+ * Assertion methods for very large specs stored in local files.
+ * <p>
+ * Other than {@link SwaggerAssert}, which compares two complete {@code Swagger} models, the specs are read with a
+ * streaming parser and their paths and definitions are kept in temporary spool files, see {@link SpooledSpec}. The
+ * same validators then compare them section by section, reading every path and definition when it is validated, so
+ * memory use is bounded by the largest single path or definition. References to other files or URLs are not resolved.
+ * </p>
+ * <p>
+ * To create a new instance of this class, invoke <code>{@link SwaggerAssertions#assertThatLargeSpec(String)}</code>.
+ * </p>
+ */
+public class StreamingSwaggerAssert extends AbstractAssert<StreamingSwaggerAssert, String> {
+
+    private final SwaggerAssertionConfig assertionConfig;
+
+    public StreamingSwaggerAssert(String actualLocation) {
+        this(actualLocation, SwaggerAssert.loadSwaggerAssertionFlagsConfiguration(SwaggerAssert.ASSERTION_ENABLED_CONFIG_PATH));
+    }
+
+    public StreamingSwaggerAssert(String actualLocation, SwaggerAssertionConfig assertionConfig) {
+        super(actualLocation, StreamingSwaggerAssert.class);
+        this.assertionConfig = assertionConfig;
+    }
+
+    /**
+     * Verifies that the actual spec is equal to the given one.
+     *
+     * @param expectedLocation the location of the given spec to compare the actual spec to.
+     * @return {@code this} assertion object.
+     * @throws AssertionError if the actual spec is not equal to the given one.
+     */
+    public StreamingSwaggerAssert isEqualTo(String expectedLocation) {
+        try (SpooledSpec actualSpec = SpooledSpec.read(actual);
+             SpooledSpec expectedSpec = SpooledSpec.read(expectedLocation)) {
+            Swagger expected = expectedSpec.swagger();
+            SchemaObjectResolver schemaObjectResolver = new SchemaObjectResolver(expected, actualSpec.swagger());
+            new DocumentationDrivenValidator(actualSpec.swagger(), assertionConfig).validateSwagger(expected, schemaObjectResolver);
+        }
+        return myself;
+    }
+
+    /**
+     * Verifies that the actual spec satisfies the contract of the given one.
+     *
+     * @param expectedLocation the location of the given spec to compare the actual spec to.
+     * @return {@code this} assertion object.
+     * @throws AssertionError if the actual spec does not satisfy the contract of the given one.
+     */
+    public StreamingSwaggerAssert satisfiesContract(String expectedLocation) {
+        try (SpooledSpec actualSpec = SpooledSpec.read(actual);
+             SpooledSpec expectedSpec = SpooledSpec.read(expectedLocation)) {
+            Swagger expected = expectedSpec.swagger();
+            SchemaObjectResolver schemaObjectResolver = new SchemaObjectResolver(expected, actualSpec.swagger());
+            new ConsumerDrivenValidator(actualSpec.swagger(), assertionConfig).validateSwagger(expected, schemaObjectResolver);
+        }
+        return myself;
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Response;
+import io.swagger.models.parameters.AbstractSerializableParameter;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.RefParameter;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+import io.swagger.models.utils.PropertyModelConverter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Computes Merkle-style structural fingerprints of paths and definitions, so that the validators can skip the deep
+ * comparison of a path or definition which is the same on both sides.
+ * <p>
+ * A fingerprint is a 64 bit hash over everything the validators compare: the fingerprint of a path is built from the
+ * fingerprints of its operations, which are built from those of their parameters, responses and properties. Consumes
+ * and produces as well as the properties of a definition are taken as the {@link SchemaObjectResolver} resolves them for
+ * the respective side. The entries of maps are combined independently of their order. Properties are left out when
+ * {@link SwaggerAssertionType#PROPERTIES} is disabled.
+ * </p>
+ * <p>
+ * The validators follow a reference into the definition it points to, e.g. when an inline schema is compared with a
+ * {@code $ref}, so the fingerprint of a reference covers every definition reachable from it, not only its name. Each of
+ * these definitions contributes the fingerprint it has with its own references taken by name, and the contributions are
+ * combined independently of the order in which they are reached, which also ends cycles of references.
+ * </p>
+ * <p>
+ * A few comparisons fail even for identical input, e.g. required properties which are ignored in the expected
+ * definition only, or operations with several parameters of the same name. Paths and definitions like these get
+ * {@link #UNKNOWN}, which must never be taken as equal to any fingerprint, so that they are always compared in full.
+ * </p>
+ */
+final class StructuralFingerprints {
+
+    static final long UNKNOWN = 0L;
+
+    private static final long NULL = 0x9e3779b97f4a7c15L;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final SwaggerAssertionConfig assertionConfig;
+    private final SchemaObjectResolver schemaObjectResolver;
+    // by definition name, shared by the tasks of a parallel validation
+    private final Map<String, Long> actualReferences = new ConcurrentHashMap<>();
+    private final Map<String, Long> expectedReferences = new ConcurrentHashMap<>();
+
+    StructuralFingerprints(SwaggerAssertionConfig assertionConfig, SchemaObjectResolver schemaObjectResolver) {
+        this.assertionConfig = assertionConfig;
+        this.schemaObjectResolver = schemaObjectResolver;
+    }
+
+    long ofPath(Path path, boolean actual) {
+        long[] operations = {
+                ofOperation(path.getGet(), actual),
+                ofOperation(path.getDelete(), actual),
+                ofOperation(path.getPost(), actual),
+                ofOperation(path.getPut(), actual),
+                ofOperation(path.getPatch(), actual),
+                ofOperation(path.getOptions(), actual)
+        };
+        long fingerprint = FNV_OFFSET_BASIS;
+        for (long operation : operations) {
+            if (operation == UNKNOWN) {
+                return UNKNOWN;
+            }
+            fingerprint = combine(fingerprint, operation);
+        }
+        return known(fingerprint);
+    }
+
+    long ofDefinition(String definitionName, Model definition, boolean actual) {
+        Map<String, Property> properties = resolveProperties(definition, actual);
+        if (hasIgnoredProperties(definitionName, properties)) {
+            return UNKNOWN;
+        }
+        if (definition instanceof ModelImpl && ((ModelImpl) definition).getRequired() != null
+                && hasIgnoredProperties(definitionName, ((ModelImpl) definition).getRequired())) {
+            return UNKNOWN;
+        }
+        return known(ofModel(definition, properties, actual, true));
+    }
+
+    private long ofModel(Model definition, Map<String, Property> properties, boolean actual, boolean followReferences) {
+        long fingerprint = combine(FNV_OFFSET_BASIS, ofString(definition.getClass().getName()));
+        fingerprint = combine(fingerprint, ofProperties(properties, actual, followReferences));
+        if (definition instanceof ModelImpl) {
+            ModelImpl modelImpl = (ModelImpl) definition;
+            fingerprint = combine(fingerprint, ofString(modelImpl.getType()));
+            fingerprint = combine(fingerprint, ofString(modelImpl.getFormat()));
+            fingerprint = combine(fingerprint, ofStrings(modelImpl.getEnum()));
+            fingerprint = combine(fingerprint, ofStrings(modelImpl.getRequired()));
+        }
+        return fingerprint;
+    }
+
+    private Map<String, Property> resolveProperties(Model definition, boolean actual) {
+        return actual
+                ? schemaObjectResolver.resolvePropertiesFromActual(definition)
+                : schemaObjectResolver.resolvePropertiesFromExpected(definition);
+    }
+
+    /**
+     * Fingerprint of the definitions reachable from a reference, each taken with its own references by name.
+     */
+    private long ofReference(String definitionName, boolean actual) {
+        Map<String, Long> references = actual ? actualReferences : expectedReferences;
+        Long cached = references.get(definitionName);
+        if (cached != null) {
+            return cached;
+        }
+        long fingerprint = 0;
+        Set<String> reached = new HashSet<>();
+        Deque<String> unvisited = new ArrayDeque<>();
+        reached.add(definitionName);
+        unvisited.push(definitionName);
+        while (!unvisited.isEmpty()) {
+            String name = unvisited.pop();
+            Model definition = actual ? schemaObjectResolver.getActualDefinition(name) : schemaObjectResolver.getExpectedDefinition(name);
+            Map<String, Property> properties = definition == null ? null : resolveProperties(definition, actual);
+            // summing makes the fingerprint independent of the order in which the definitions are reached
+            fingerprint += mix(combine(ofString(name), definition == null ? NULL : ofModel(definition, properties, actual, false)));
+            if (properties != null) {
+                for (Property property : properties.values()) {
+                    addReferences(property, reached, unvisited);
+                }
+            }
+        }
+        references.put(definitionName, fingerprint);
+        return fingerprint;
+    }
+
+    private static void addReferences(Property property, Set<String> reached, Deque<String> unvisited) {
+        if (property instanceof RefProperty) {
+            String definitionName = ((RefProperty) property).getSimpleRef();
+            if (reached.add(definitionName)) {
+                unvisited.push(definitionName);
+            }
+        } else if (property instanceof ArrayProperty) {
+            addReferences(((ArrayProperty) property).getItems(), reached, unvisited);
+        } else if (property instanceof MapProperty) {
+            addReferences(((MapProperty) property).getAdditionalProperties(), reached, unvisited);
+        } else if (property instanceof ObjectProperty && ((ObjectProperty) property).getProperties() != null) {
+            for (Property nestedProperty : ((ObjectProperty) property).getProperties().values()) {
+                addReferences(nestedProperty, reached, unvisited);
+            }
+        }
+    }
+
+    private long ofOperation(Operation operation, boolean actual) {
+        if (operation == null) {
+            return NULL;
+        }
+        if (hasParametersOfSameName(operation.getParameters())) {
+            return UNKNOWN;
+        }
+        long fingerprint = FNV_OFFSET_BASIS;
+        fingerprint = combine(fingerprint, ofStrings(actual ? schemaObjectResolver.getActualConsumes(operation) : schemaObjectResolver.getExpectedConsumes(operation)));
+        fingerprint = combine(fingerprint, ofStrings(actual ? schemaObjectResolver.getActualProduces(operation) : schemaObjectResolver.getExpectedProduces(operation)));
+        fingerprint = combine(fingerprint, ofParameters(operation.getParameters(), actual));
+        fingerprint = combine(fingerprint, ofResponses(operation.getResponses(), actual));
+        return known(fingerprint);
+    }
+
+    private long ofParameters(List<Parameter> parameters, boolean actual) {
+        if (parameters == null) {
+            return NULL;
+        }
+        long fingerprint = FNV_OFFSET_BASIS;
+        for (Parameter parameter : parameters) {
+            fingerprint = combine(fingerprint, ofParameter(parameter, actual));
+        }
+        return fingerprint;
+    }
+
+    private long ofParameter(Parameter parameter, boolean actual) {
+        long fingerprint = combine(FNV_OFFSET_BASIS, ofString(parameter.getClass().getName()));
+        fingerprint = combine(fingerprint, ofString(parameter.getName()));
+        fingerprint = combine(fingerprint, ofString(parameter.getIn()));
+        fingerprint = combine(fingerprint, parameter.getRequired() ? 1 : 2);
+        if (parameter instanceof AbstractSerializableParameter) {
+            AbstractSerializableParameter<?> serializableParameter = (AbstractSerializableParameter<?>) parameter;
+            fingerprint = combine(fingerprint, ofString(serializableParameter.getType()));
+            fingerprint = combine(fingerprint, ofStrings(serializableParameter.getEnum()));
+        } else if (parameter instanceof RefParameter) {
+            fingerprint = combine(fingerprint, ofString(((RefParameter) parameter).getSimpleRef()));
+        } else if (parameter instanceof BodyParameter) {
+            fingerprint = combine(fingerprint, ofSchema(((BodyParameter) parameter).getSchema(), actual));
+        }
+        return fingerprint;
+    }
+
+    private long ofResponses(Map<String, Response> responses, boolean actual) {
+        if (responses == null) {
+            return NULL;
+        }
+        long fingerprint = responses.size();
+        for (Map.Entry<String, Response> response : responses.entrySet()) {
+            // summing makes the fingerprint independent of the order of the entries
+            fingerprint += mix(combine(ofString(response.getKey()), ofResponse(response.getValue(), actual)));
+        }
+        return fingerprint;
+    }
+
+    private long ofResponse(Response response, boolean actual) {
+        if (response == null) {
+            return NULL;
+        }
+        long fingerprint = combine(FNV_OFFSET_BASIS, ofSchema(response.getResponseSchema(), actual));
+        return combine(fingerprint, ofProperties(response.getHeaders(), actual, true));
+    }
+
+    private long ofSchema(Model schema, boolean actual) {
+        // the validators compare the schema as the property it converts to
+        return ofProperty(schema == null ? null : new PropertyModelConverter().modelToProperty(schema), actual, true);
+    }
+
+    private long ofProperties(Map<String, Property> properties, boolean actual, boolean followReferences) {
+        if (properties == null) {
+            return NULL;
+        }
+        long fingerprint = properties.size();
+        for (Map.Entry<String, Property> property : properties.entrySet()) {
+            fingerprint += mix(combine(ofString(property.getKey()), ofProperty(property.getValue(), actual, followReferences)));
+        }
+        return fingerprint;
+    }
+
+    private long ofProperty(Property property, boolean actual, boolean followReferences) {
+        if (property == null) {
+            return NULL;
+        }
+        if (!assertionConfig.getValidationPlan().isPropertiesValidated()) {
+            return FNV_OFFSET_BASIS;
+        }
+        long fingerprint = combine(FNV_OFFSET_BASIS, ofString(property.getClass().getName()));
+        fingerprint = combine(fingerprint, ofString(property.getType()));
+        fingerprint = combine(fingerprint, ofString(property.getFormat()));
+        fingerprint = combine(fingerprint, ofString(property.getName()));
+        fingerprint = combine(fingerprint, ofBoolean(property.getAllowEmptyValue()));
+        fingerprint = combine(fingerprint, property.getRequired() ? 1 : 2);
+        fingerprint = combine(fingerprint, ofBoolean(property.getReadOnly()));
+        fingerprint = combine(fingerprint, ofString(String.valueOf(property.getAccess())));
+        fingerprint = combine(fingerprint, ofVendorExtensions(property.getVendorExtensions()));
+        if (property instanceof RefProperty) {
+            fingerprint = combine(fingerprint, ofString(((RefProperty) property).get$ref()));
+            if (followReferences) {
+                fingerprint = combine(fingerprint, ofReference(((RefProperty) property).getSimpleRef(), actual));
+            }
+        }
+        if (property instanceof StringProperty) {
+            fingerprint = combine(fingerprint, ofStrings(((StringProperty) property).getEnum()));
+        } else if (property instanceof ArrayProperty) {
+            fingerprint = combine(fingerprint, ofProperty(((ArrayProperty) property).getItems(), actual, followReferences));
+        } else if (property instanceof MapProperty) {
+            fingerprint = combine(fingerprint, ofProperty(((MapProperty) property).getAdditionalProperties(), actual, followReferences));
+        } else if (property instanceof ObjectProperty) {
+            fingerprint = combine(fingerprint, ofProperties(((ObjectProperty) property).getProperties(), actual, followReferences));
+        }
+        return fingerprint;
+    }
+
+    private long ofVendorExtensions(Map<String, Object> vendorExtensions) {
+        if (vendorExtensions == null || vendorExtensions.isEmpty()) {
+            return vendorExtensions == null ? NULL : FNV_OFFSET_BASIS;
+        }
+        long fingerprint = vendorExtensions.size();
+        for (Map.Entry<String, Object> vendorExtension : vendorExtensions.entrySet()) {
+            fingerprint += mix(combine(ofString(vendorExtension.getKey()), ofString(String.valueOf(vendorExtension.getValue()))));
+        }
+        return fingerprint;
+    }
+
+    private boolean hasIgnoredProperties(String definitionName, Map<String, Property> properties) {
+        return properties != null && hasIgnoredProperties(definitionName, properties.keySet());
+    }
+
+    private boolean hasIgnoredProperties(String definitionName, Iterable<String> propertyNames) {
+        IgnoreRules ignoredPropertyNames = assertionConfig.getPropertyIgnoreRules();
+        if (ignoredPropertyNames.isEmpty()) {
+            return false;
+        }
+        for (String propertyName : propertyNames) {
+            if (ignoredPropertyNames.matches(definitionName, propertyName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasParametersOfSameName(List<Parameter> parameters) {
+        if (parameters == null || parameters.size() < 2) {
+            return false;
+        }
+        Set<String> names = new HashSet<>(parameters.size() * 2);
+        for (Parameter parameter : parameters) {
+            if (!names.add(parameter.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long ofStrings(List<String> values) {
+        if (values == null) {
+            return NULL;
+        }
+        long fingerprint = FNV_OFFSET_BASIS;
+        for (String value : values) {
+            fingerprint = combine(fingerprint, ofString(value));
+        }
+        return fingerprint;
+    }
+
+    private static long ofBoolean(Boolean value) {
+        return value == null ? NULL : value ? 1 : 2;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the characters of the string. Unlike {@link String#hashCode()} it is wide enough for
+     * collisions to be negligible, and like it, it is the same in every JVM.
+     */
+    static long ofString(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long combine(long fingerprint, long value) {
+        return mix(fingerprint ^ value) * FNV_PRIME + value;
+    }
+
+    /**
+     * The finalizer of MurmurHash3, spreads every input bit over the whole result.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static long known(long fingerprint) {
+        return fingerprint == UNKNOWN ? 1L : fingerprint;
+    }
+}
@@ -25,8 +25,13 @@ import org.assertj.core.api.AbstractAssert;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.function.Supplier;
 
 
 /**
@@ -34,33 +39,54 @@ import java.util.Properties;
  * <p>
  * To create a new instance of this class, invoke <code>{@link io.github.robwin.swagger.test.SwaggerAssertions#assertThat(Swagger)}</code>.
  * </p>
+ * <p>
+ * An instance may run any number of validations, also concurrently from several threads, see {@link ValidationEngine}.
+ * </p>
  *
  * @author Robert Winkler
  */
 
 public class SwaggerAssert extends AbstractAssert<SwaggerAssert, Swagger> {
 
-    private static final String ASSERTION_ENABLED_CONFIG_PATH = "/assertj-swagger.properties";
-    private DocumentationDrivenValidator documentationDrivenValidator;
-    private ConsumerDrivenValidator consumerDrivenValidator;
+    static final String ASSERTION_ENABLED_CONFIG_PATH = "/assertj-swagger.properties";
+    private final ValidationEngine engine;
+    private volatile ValidationMetrics metrics = ValidationMetrics.DISABLED;
+    private volatile ValidationListener listener;
 
 
     public SwaggerAssert(Swagger actual) {
-        super(actual, SwaggerAssert.class);
-        documentationDrivenValidator = new DocumentationDrivenValidator(actual, loadSwaggerAssertionFlagsConfiguration(ASSERTION_ENABLED_CONFIG_PATH));
-        consumerDrivenValidator = new ConsumerDrivenValidator(actual, loadSwaggerAssertionFlagsConfiguration(ASSERTION_ENABLED_CONFIG_PATH));
+        this(actual, loadSwaggerAssertionFlagsConfiguration(ASSERTION_ENABLED_CONFIG_PATH));
     }
 
     public SwaggerAssert(Swagger actual, SwaggerAssertionConfig assertionConfig) {
         super(actual, SwaggerAssert.class);
-        documentationDrivenValidator = new DocumentationDrivenValidator(actual, assertionConfig);
-        consumerDrivenValidator = new ConsumerDrivenValidator(actual, assertionConfig);
+        engine = new ValidationEngine(actual, assertionConfig);
     }
 
     public SwaggerAssert(Swagger actual, String configurationResourceLocation) {
-        super(actual, SwaggerAssert.class);
-        documentationDrivenValidator = new DocumentationDrivenValidator(actual, loadSwaggerAssertionFlagsConfiguration(configurationResourceLocation));
-        consumerDrivenValidator = new ConsumerDrivenValidator(actual, loadSwaggerAssertionFlagsConfiguration(configurationResourceLocation));
+        this(actual, loadSwaggerAssertionFlagsConfiguration(configurationResourceLocation));
+    }
+
+    /**
+     * Registers a listener which is told about the progress and the checks of every following {@code isEqualTo} and
+     * {@code satisfiesContract}. Listeners registered earlier keep receiving events, in the order they were registered.
+     *
+     * @param validationListener the listener.
+     * @return {@code this} assertion object.
+     */
+    public synchronized SwaggerAssert withListener(ValidationListener validationListener) {
+        listener = listener == null ? validationListener : new Listeners(listener, validationListener);
+        return myself;
+    }
+
+    /**
+     * Returns where the last {@code isEqualTo} or {@code satisfiesContract} spent its time, if
+     * {@code assertj.swagger.metrics} or {@code assertj.swagger.metricsFile} is set.
+     *
+     * @return the metrics of the validation started last, also if it failed; disabled metrics before the first one
+     */
+    public ValidationMetrics getMetrics() {
+        return metrics;
     }
 
     /**
@@ -71,9 +97,7 @@ public class SwaggerAssert extends AbstractAssert<SwaggerAssert, Swagger> {
      * @throws AssertionError if the actual value is not equal to the given one or if the actual value is {@code null}..
      */
     public SwaggerAssert isEqualTo(Swagger expected) {
-        SchemaObjectResolver schemaObjectResolver = new SchemaObjectResolver(expected, actual);
-        documentationDrivenValidator.validateSwagger(expected, schemaObjectResolver);
-        return myself;
+        return validateDocumentation(expected, startValidation());
     }
 
     /**
@@ -84,7 +108,8 @@ public class SwaggerAssert extends AbstractAssert<SwaggerAssert, Swagger> {
      * @throws AssertionError if the actual value is not equal to the given one or if the actual value is {@code null}..
      */
     public SwaggerAssert isEqualTo(String expectedLocation) {
-        return isEqualTo(new SwaggerParser().read(expectedLocation));
+        ValidationMetrics validationMetrics = startValidation();
+        return validateDocumentation(load(() -> SwaggerSpecCache.read(expectedLocation), validationMetrics), validationMetrics);
     }
 
     /**
@@ -96,7 +121,44 @@ public class SwaggerAssert extends AbstractAssert<SwaggerAssert, Swagger> {
      * @throws AssertionError if the actual value is not equal to the given one or if the actual value is {@code null}..
      */
     public SwaggerAssert isEqualTo(String expectedLocation, List<AuthorizationValue> auths) {
-        return isEqualTo(new SwaggerParser().read(expectedLocation, auths, true));
+        ValidationMetrics validationMetrics = startValidation();
+        return validateDocumentation(load(() -> new SwaggerParser().read(expectedLocation, auths, true), validationMetrics), validationMetrics);
+    }
+
+    /**
+     * Verifies that the actual value is equal to the given one.
+     *
+     * @param expectedFile the file, optionally compressed or inside a zip file system, of the given value to compare the actual value to.
+     * @return {@code this} assertion object.
+     * @throws AssertionError if the actual value is not equal to the given one or if the actual value is {@code null}..
+     */
+    public SwaggerAssert isEqualTo(Path expectedFile) {
+        ValidationMetrics validationMetrics = startValidation();
+        return validateDocumentation(load(() -> SwaggerSpecCache.read(expectedFile), validationMetrics), validationMetrics);
+    }
+
+    /**
+     * Verifies that the actual value is equal to the given one.
+     *
+     * @param expected the JSON or YAML document, optionally compressed, of the given value to compare the actual value to.
+     * @return {@code this} assertion object.
+     * @throws AssertionError if the actual value is not equal to the given one or if the actual value is {@code null}..
+     */
+    public SwaggerAssert isEqualTo(ByteBuffer expected) {
+        ValidationMetrics validationMetrics = startValidation();
+        return validateDocumentation(load(() -> SwaggerSpecLoader.load(expected, null), validationMetrics), validationMetrics);
+    }
+
+    /**
+     * Verifies that the actual value is equal to the given one.
+     *
+     * @param expected the JSON or YAML document, optionally compressed, of the given value to compare the actual value to. The stream is not closed.
+     * @return {@code this} assertion object.
+     * @throws AssertionError if the actual value is not equal to the given one or if the actual value is {@code null}..
+     */
+    public SwaggerAssert isEqualTo(InputStream expected) {
+        ValidationMetrics validationMetrics = startValidation();
+        return validateDocumentation(load(() -> SwaggerSpecLoader.load(expected, null), validationMetrics), validationMetrics);
     }
 
     /**
@@ -107,9 +169,7 @@ public class SwaggerAssert extends AbstractAssert<SwaggerAssert, Swagger> {
      * @throws AssertionError if the actual value is not equal to the given one or if the actual value is {@code null}..
      */
     public SwaggerAssert satisfiesContract(Swagger expected) {
-        SchemaObjectResolver schemaObjectResolver = new SchemaObjectResolver(expected, actual);
-        consumerDrivenValidator.validateSwagger(expected, schemaObjectResolver);
-        return myself;
+        return validateContract(expected, startValidation());
     }
 
     /**
@@ -120,7 +180,8 @@ public class SwaggerAssert extends AbstractAssert<SwaggerAssert, Swagger> {
      * @throws AssertionError if the actual value is not equal to the given one or if the actual value is {@code null}..
      */
     public SwaggerAssert satisfiesContract(String expectedLocation) {
-        return satisfiesContract(new SwaggerParser().read(expectedLocation));
+        ValidationMetrics validationMetrics = startValidation();
+        return validateContract(load(() -> SwaggerSpecCache.read(expectedLocation), validationMetrics), validationMetrics);
     }
 
     /**
@@ -132,12 +193,133 @@ public class SwaggerAssert extends AbstractAssert<SwaggerAssert, Swagger> {
      * @throws AssertionError if the actual value is not equal to the given one or if the actual value is {@code null}..
      */
     public SwaggerAssert satisfiesContract(String expectedLocation, List<AuthorizationValue> auths) {
-        return satisfiesContract(new SwaggerParser().read(expectedLocation, auths, true));
+        ValidationMetrics validationMetrics = startValidation();
+        return validateContract(load(() -> new SwaggerParser().read(expectedLocation, auths, true), validationMetrics), validationMetrics);
+    }
+
+    /**
+     * Verifies that the actual value is equal to the given one.
+     *
+     * @param expectedFile the file, optionally compressed or inside a zip file system, of the given value to compare the actual value to.
+     * @return {@code this} assertion object.
+     * @throws AssertionError if the actual value is not equal to the given one or if the actual value is {@code null}..
+     */
+    public SwaggerAssert satisfiesContract(Path expectedFile) {
+        ValidationMetrics validationMetrics = startValidation();
+        return validateContract(load(() -> SwaggerSpecCache.read(expectedFile), validationMetrics), validationMetrics);
     }
 
-    private SwaggerAssertionConfig loadSwaggerAssertionFlagsConfiguration(String configurationResourceLocation) {
+    /**
+     * Verifies that the actual value is equal to the given one.
+     *
+     * @param expected the JSON or YAML document, optionally compressed, of the given value to compare the actual value to.
+     * @return {@code this} assertion object.
+     * @throws AssertionError if the actual value is not equal to the given one or if the actual value is {@code null}..
+     */
+    public SwaggerAssert satisfiesContract(ByteBuffer expected) {
+        ValidationMetrics validationMetrics = startValidation();
+        return validateContract(load(() -> SwaggerSpecLoader.load(expected, null), validationMetrics), validationMetrics);
+    }
+
+    /**
+     * Verifies that the actual value is equal to the given one.
+     *
+     * @param expected the JSON or YAML document, optionally compressed, of the given value to compare the actual value to. The stream is not closed.
+     * @return {@code this} assertion object.
+     * @throws AssertionError if the actual value is not equal to the given one or if the actual value is {@code null}..
+     */
+    public SwaggerAssert satisfiesContract(InputStream expected) {
+        ValidationMetrics validationMetrics = startValidation();
+        return validateContract(load(() -> SwaggerSpecLoader.load(expected, null), validationMetrics), validationMetrics);
+    }
+
+    /**
+     * Verifies the contracts of several consumers in one pass. What the checks need to know about the actual value is
+     * computed once for all contracts, and the contracts are verified in parallel if
+     * {@code assertj.swagger.parallelism} is greater than one.
+     *
+     * @param contracts the contracts to verify, by consumer name.
+     * @return the verdict for each consumer, in the order of {@code contracts}.
+     */
+    public Map<String, ContractVerdict> verifyContracts(Map<String, Swagger> contracts) {
+        Map<String, ContractVerdict> verdicts = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> errorMessages : engine.validateContracts(contracts).entrySet()) {
+            verdicts.put(errorMessages.getKey(), new ContractVerdict(errorMessages.getKey(), errorMessages.getValue()));
+        }
+        return verdicts;
+    }
+
+    /**
+     * Verifies that the actual value satisfies the contracts of all given consumers, see
+     * {@link #verifyContracts(Map)}.
+     *
+     * @param contracts the contracts to verify, by consumer name.
+     * @return {@code this} assertion object.
+     * @throws AssertionError if the actual value does not satisfy the contract of at least one consumer.
+     */
+    public SwaggerAssert satisfiesContracts(Map<String, Swagger> contracts) {
+        StringBuilder message = new StringBuilder();
+        int violatedContracts = 0;
+        for (ContractVerdict verdict : verifyContracts(contracts).values()) {
+            if (!verdict.isSatisfied()) {
+                violatedContracts++;
+                message.append(String.format("%nContract of consumer '%s':%n", verdict.getConsumer()));
+                int errorNumber = 1;
+                for (String errorMessage : verdict.getErrorMessages()) {
+                    message.append(String.format("%d) %s%n", errorNumber++, errorMessage));
+                }
+            }
+        }
+        if (violatedContracts > 0) {
+            throw new AssertionError(String.format("%nThe contracts of %d of %d consumers are not satisfied:%n", violatedContracts, contracts.size()) + message);
+        }
+        return myself;
+    }
+
+    /**
+     * @return the metrics of a new validation, which every step of it measures itself in; a concurrent validation has
+     * metrics of its own
+     */
+    private ValidationMetrics startValidation() {
+        ValidationMetrics validationMetrics = ValidationMetrics.of(engine.getAssertionConfig());
+        metrics = validationMetrics;
+        return validationMetrics;
+    }
+
+    private static Swagger load(Supplier<Swagger> loader, ValidationMetrics validationMetrics) {
+        try (ValidationMetrics.Span ignored = validationMetrics.start(ValidationMetrics.Phase.LOADING)) {
+            return loader.get();
+        }
+    }
+
+    private SwaggerAssert validateDocumentation(Swagger expected, ValidationMetrics validationMetrics) {
+        try {
+            engine.validateDocumentation(expected, validationMetrics, listener);
+        } finally {
+            writeMetrics(validationMetrics);
+        }
+        return myself;
+    }
+
+    private SwaggerAssert validateContract(Swagger expected, ValidationMetrics validationMetrics) {
+        try {
+            engine.validateContract(expected, validationMetrics, listener);
+        } finally {
+            writeMetrics(validationMetrics);
+        }
+        return myself;
+    }
+
+    private void writeMetrics(ValidationMetrics validationMetrics) {
+        String metricsFile = engine.getAssertionConfig().getMetricsFile();
+        if (metricsFile != null) {
+            validationMetrics.writeJson(metricsFile);
+        }
+    }
+
+    static SwaggerAssertionConfig loadSwaggerAssertionFlagsConfiguration(String configurationResourceLocation) {
         final Properties props = new Properties();
-        try (InputStream is = this.getClass().getResourceAsStream(configurationResourceLocation)) {
+        try (InputStream is = SwaggerAssert.class.getResourceAsStream(configurationResourceLocation)) {
             if (is != null) {
                 props.load(is);
             }
@@ -147,4 +329,53 @@ public class SwaggerAssert extends AbstractAssert<SwaggerAssert, Swagger> {
 
         return new SwaggerAssertionConfig(props);
     }
+
+    /**
+     * Passes the events to two listeners, the first of which may itself be {@code Listeners}.
+     */
+    private static final class Listeners implements ValidationListener {
+
+        private final ValidationListener first;
+        private final ValidationListener second;
+
+        Listeners(ValidationListener first, ValidationListener second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void pathStarted(String path) {
+            first.pathStarted(path);
+            second.pathStarted(path);
+        }
+
+        @Override
+        public void pathFinished(String path) {
+            first.pathFinished(path);
+            second.pathFinished(path);
+        }
+
+        @Override
+        public void definitionCompared(String definition) {
+            first.definitionCompared(definition);
+            second.definitionCompared(definition);
+        }
+
+        @Override
+        public void checkPassed(SwaggerAssertionType type, String path, String method, String definition, String property) {
+            first.checkPassed(type, path, method, definition, property);
+            second.checkPassed(type, path, method, definition, property);
+        }
+
+        @Override
+        public void checkFailed(Violation violation) {
+            first.checkFailed(violation);
+            second.checkFailed(violation);
+        }
+
+        @Override
+        public boolean isStopRequested() {
+            return first.isStopRequested() || second.isStopRequested();
+        }
+    }
 }
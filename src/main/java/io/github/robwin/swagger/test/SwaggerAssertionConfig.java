@@ -35,6 +35,15 @@ public class SwaggerAssertionConfig {
     private static final String IGNORE_MISSING_DEFINITIONS = "definitionsToIgnoreInExpected";
     private static final String IGNORE_MISSING_PROPERTIES = "propertiesToIgnoreInExpected";
     private static final String PATHS_PREPEND_EXPECTED = "pathsPrependExpected";
+    private static final String PARALLELISM = "parallelism";
+    private static final String STATE_FILE = "stateFile";
+    private static final String REPORT_FILE = "reportFile";
+    private static final String REPORT_FORMAT = "reportFormat";
+    private static final String FAIL_FAST = "failFast";
+    private static final String MAX_ERRORS = "maxErrors";
+    private static final String METRICS = "metrics";
+    private static final String METRICS_FILE = "metricsFile";
+    private static final String SLOWEST_ENTRIES = "slowestEntries";
 
     private Map<SwaggerAssertionType, Boolean> swaggerAssertionFlags = new HashMap<>();
 
@@ -44,8 +53,31 @@ public class SwaggerAssertionConfig {
 
     private Set<String> definitionsToIgnoreInExpected = Collections.emptySet();
 
+    private IgnoreRules pathIgnoreRules = IgnoreRules.NONE;
+
+    private IgnoreRules propertyIgnoreRules = IgnoreRules.NONE;
+
+    private IgnoreRules definitionIgnoreRules = IgnoreRules.NONE;
+
     private String pathsPrependExpected;
 
+    private int parallelism = 1;
+
+    private String stateFile;
+
+    private String reportFile;
+
+    private String reportFormat;
+
+    private int maxErrors;
+
+    private boolean metricsEnabled;
+
+    private String metricsFile;
+
+    private int slowestEntries = 10;
+
+    private volatile ValidationPlan validationPlan;
 
     /**
      * Construct a {@link SwaggerAssertionConfig}.
@@ -77,19 +109,63 @@ public class SwaggerAssertionConfig {
         final String ignoreMissingPathsStr = props.getProperty(PREFIX + IGNORE_MISSING_PATHS);
         if (!StringUtils.isBlank(ignoreMissingPathsStr)) {
             pathsToIgnoreInExpected = splitCommaDelimStrIntoSet(ignoreMissingPathsStr);
+            pathIgnoreRules = IgnoreRules.compile(pathsToIgnoreInExpected);
         }
 
         final String ignoreMissingDefinitionsStr = props.getProperty(PREFIX + IGNORE_MISSING_DEFINITIONS);
         if (!StringUtils.isBlank(ignoreMissingDefinitionsStr)) {
             definitionsToIgnoreInExpected = splitCommaDelimStrIntoSet(ignoreMissingDefinitionsStr);
+            definitionIgnoreRules = IgnoreRules.compile(definitionsToIgnoreInExpected);
         }
 
         final String ignoreMissingPropertiesStr = props.getProperty(PREFIX + IGNORE_MISSING_PROPERTIES);
         if (!StringUtils.isBlank(ignoreMissingPropertiesStr)) {
             propertiesToIgnoreInExpected = splitCommaDelimStrIntoSet(ignoreMissingPropertiesStr);
+            propertyIgnoreRules = IgnoreRules.compile(propertiesToIgnoreInExpected);
         }
 
         pathsPrependExpected = props.getProperty(PREFIX + PATHS_PREPEND_EXPECTED);
+
+        final String parallelismStr = props.getProperty(PREFIX + PARALLELISM);
+        if (!StringUtils.isBlank(parallelismStr)) {
+            parallelism = Math.max(1, Integer.parseInt(parallelismStr.trim()));
+        }
+
+        final String stateFileStr = props.getProperty(PREFIX + STATE_FILE);
+        if (!StringUtils.isBlank(stateFileStr)) {
+            stateFile = stateFileStr.trim();
+        }
+
+        final String reportFileStr = props.getProperty(PREFIX + REPORT_FILE);
+        if (!StringUtils.isBlank(reportFileStr)) {
+            reportFile = reportFileStr.trim();
+        }
+
+        final String reportFormatStr = props.getProperty(PREFIX + REPORT_FORMAT);
+        if (!StringUtils.isBlank(reportFormatStr)) {
+            reportFormat = reportFormatStr.trim();
+            // fails on an unknown format now rather than on the first assertion
+            ValidationReport.Format.of(reportFormat, "");
+        }
+
+        final String maxErrorsStr = props.getProperty(PREFIX + MAX_ERRORS);
+        if (!StringUtils.isBlank(maxErrorsStr)) {
+            maxErrors = Math.max(0, Integer.parseInt(maxErrorsStr.trim()));
+        }
+        if (Boolean.TRUE.toString().equals(props.getProperty(PREFIX + FAIL_FAST))) {
+            maxErrors = 1;
+        }
+
+        final String metricsFileStr = props.getProperty(PREFIX + METRICS_FILE);
+        if (!StringUtils.isBlank(metricsFileStr)) {
+            metricsFile = metricsFileStr.trim();
+        }
+        metricsEnabled = metricsFile != null || Boolean.TRUE.toString().equals(props.getProperty(PREFIX + METRICS));
+
+        final String slowestEntriesStr = props.getProperty(PREFIX + SLOWEST_ENTRIES);
+        if (!StringUtils.isBlank(slowestEntriesStr)) {
+            slowestEntries = Math.max(0, Integer.parseInt(slowestEntriesStr.trim()));
+        }
     }
 
     public boolean swaggerAssertionEnabled(SwaggerAssertionType assertionType) {
@@ -109,10 +185,109 @@ public class SwaggerAssertionConfig {
         return propertiesToIgnoreInExpected;
     }
 
+    /**
+     * @return {@link #getPathsToIgnoreInExpected()} compiled, including globs and regular expressions
+     */
+    public IgnoreRules getPathIgnoreRules() {
+        return pathIgnoreRules;
+    }
+
+    /**
+     * @return {@link #getDefinitionsToIgnoreInExpected()} compiled, including globs and regular expressions
+     */
+    public IgnoreRules getDefinitionIgnoreRules() {
+        return definitionIgnoreRules;
+    }
+
+    /**
+     * @return {@link #getPropertiesToIgnoreInExpected()} compiled, including globs and regular expressions
+     */
+    public IgnoreRules getPropertyIgnoreRules() {
+        return propertyIgnoreRules;
+    }
+
     public String getPathsPrependExpected() {
         return pathsPrependExpected;
     }
 
+    /**
+     * @return number of threads paths and definitions are validated with; {@code 1}, the default, validates them
+     * sequentially
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return file the outcome of validating paths and definitions is kept in across builds, so that only changed ones
+     * are validated again; {@code null}, the default, validates everything every time
+     */
+    public String getStateFile() {
+        return stateFile;
+    }
+
+    /**
+     * @return file every failed check is written to as it is found, with its path, method, definition, property,
+     * {@link SwaggerAssertionType} and the expected and actual values; the {@code AssertionError} then only summarizes
+     * the failed checks. {@code null}, the default, collects all error messages in the {@code AssertionError}
+     */
+    public String getReportFile() {
+        return reportFile;
+    }
+
+    /**
+     * @return format of the {@link #getReportFile() report file}, {@code jsonl}, {@code junit} or {@code sarif};
+     * {@code null}, the default, derives it from the file extension: {@code .xml} is JUnit XML, {@code .sarif} and
+     * {@code .sarif.json} SARIF, everything else JSON Lines
+     */
+    public String getReportFormat() {
+        return reportFormat;
+    }
+
+    /**
+     * @return number of failed checks after which a validation stops, {@code 1} with {@code failFast=true}; the key sets
+     * of paths and definitions are then checked before any path or definition is compared in depth. {@code 0}, the
+     * default, runs all checks
+     */
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    /**
+     * @return {@code true} if the time and allocations of each validation phase and the number of checks are measured,
+     * see {@link ValidationMetrics}; {@code false}, the default, unless a {@link #getMetricsFile() metrics file} is set
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * @return file the {@link ValidationMetrics} of every validation are written to as JSON; {@code null}, the default,
+     * only keeps them in the {@link SwaggerAssert}
+     */
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    /**
+     * @return number of slowest paths and definitions the {@link ValidationMetrics} name, {@code 10} by default
+     */
+    public int getSlowestEntries() {
+        return slowestEntries;
+    }
+
+    /**
+     * @return the checks to run for the assertion flags of this configuration, worked out on first use
+     */
+    ValidationPlan getValidationPlan() {
+        ValidationPlan plan = validationPlan;
+        if (plan == null) {
+            plan = ValidationPlan.of(this);
+            validationPlan = plan;
+        }
+        return plan;
+    }
+
     private Set<String> splitCommaDelimStrIntoSet(String str) {
         final String[] strs = str.split("\\s*,\\s*");
         return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(strs)));
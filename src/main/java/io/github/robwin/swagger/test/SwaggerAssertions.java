@@ -19,9 +19,12 @@
 package io.github.robwin.swagger.test;
 
 import io.swagger.models.Swagger;
-import io.swagger.parser.SwaggerParser;
 import org.apache.commons.lang3.Validate;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
 /**
  * Entry point for assertion methods for different data types. Each method in this class is a static factory for the
  * type-specific assertion objects. The purpose of this class is to make test code more readable.
@@ -43,13 +46,64 @@ public class SwaggerAssertions {
 
 
     /**
-     * Creates a new instance of <code>{@link SwaggerAssert}</code>.
+     * Creates a new instance of <code>{@link SwaggerAssert}</code>. Specs stored in local files are parsed once and then
+     * served from the {@link SwaggerSpecCache}. Specs inside archives are given as {@code jar:} URLs, e.g.
+     * {@code jar:file:/specs.zip!/swagger.yaml}.
      *
      * @param actualLocation the location the actual Swagger value.
      * @return the created assertion object.
      */
     public static SwaggerAssert assertThat(String actualLocation) {
         Validate.notNull(actualLocation, "actualLocation must not be null!");
-        return new SwaggerAssert(new SwaggerParser().read(actualLocation));
+        return new SwaggerAssert(SwaggerSpecCache.read(actualLocation));
+    }
+
+    /**
+     * Creates a new instance of <code>{@link SwaggerAssert}</code> for a spec file, which may be compressed with gzip or
+     * Zstandard or belong to a zip file system. Files of the default file system are served from the
+     * {@link SwaggerSpecCache}.
+     *
+     * @param actualFile the file of the actual Swagger value.
+     * @return the created assertion object.
+     */
+    public static SwaggerAssert assertThat(Path actualFile) {
+        Validate.notNull(actualFile, "actualFile must not be null!");
+        return new SwaggerAssert(SwaggerSpecCache.read(actualFile));
+    }
+
+    /**
+     * Creates a new instance of <code>{@link SwaggerAssert}</code> for a JSON or YAML document, which may be compressed
+     * with gzip or Zstandard. The position of the buffer is not changed.
+     *
+     * @param actual the document of the actual Swagger value.
+     * @return the created assertion object.
+     */
+    public static SwaggerAssert assertThat(ByteBuffer actual) {
+        Validate.notNull(actual, "actual must not be null!");
+        return new SwaggerAssert(SwaggerSpecLoader.load(actual, null));
+    }
+
+    /**
+     * Creates a new instance of <code>{@link SwaggerAssert}</code> for a JSON or YAML document, which may be compressed
+     * with gzip or Zstandard. The stream is read to its end but not closed.
+     *
+     * @param actual the document of the actual Swagger value.
+     * @return the created assertion object.
+     */
+    public static SwaggerAssert assertThat(InputStream actual) {
+        Validate.notNull(actual, "actual must not be null!");
+        return new SwaggerAssert(SwaggerSpecLoader.load(actual, null));
+    }
+
+    /**
+     * Creates a new instance of <code>{@link StreamingSwaggerAssert}</code>, which compares very large specs stored in
+     * local files without loading them into memory as a whole.
+     *
+     * @param actualLocation the location the actual Swagger value.
+     * @return the created assertion object.
+     */
+    public static StreamingSwaggerAssert assertThatLargeSpec(String actualLocation) {
+        Validate.notNull(actualLocation, "actualLocation must not be null!");
+        return new StreamingSwaggerAssert(actualLocation);
     }
 }
@@ -0,0 +1,270 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Swagger;
+import org.assertj.core.api.SoftAssertionError;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Validates all specs below a directory on a bounded number of threads.
+ * <p>
+ * Documentation-driven, every expected spec matching the glob is validated against the spec with the same relative
+ * path in the directory of the actual specs. Consumer-driven, every contract matching the glob is validated against one
+ * provider spec, which is parsed once for all contracts. Specs are parsed by the thread validating them and are not
+ * cached, and at most twice as many specs as there are threads are in flight at any time, so the memory needed does not
+ * grow with the number of specs.
+ * </p>
+ * <p>
+ * The report, metrics and state files of the {@link SwaggerAssertionConfig} would be shared by all specs of the batch,
+ * so they should not be configured for a batch run.
+ * </p>
+ */
+public final class SwaggerBatchRunner {
+
+    public static final String DEFAULT_GLOB = "**.{json,yaml,yml}";
+
+    private static final String USAGE = "Usage: SwaggerBatchRunner --actual <dir|file> --expected <dir> [--glob <glob>]"
+            + " [--contracts] [--threads <n>] [--config <file.properties>]";
+
+    private final SwaggerAssertionConfig assertionConfig;
+    private final int threads;
+
+    /**
+     * @param assertionConfig configuration used for every spec
+     * @param threads         number of specs validated at the same time
+     */
+    public SwaggerBatchRunner(SwaggerAssertionConfig assertionConfig, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1, but was " + threads);
+        }
+        this.assertionConfig = assertionConfig;
+        this.threads = threads;
+    }
+
+    /**
+     * Validates every expected spec against the actual spec with the same relative path.
+     *
+     * @param actualDirectory   directory of the actual specs, e.g. the generated ones
+     * @param expectedDirectory directory of the expected specs, e.g. the designed ones
+     * @param glob              selects the expected specs by their path relative to {@code expectedDirectory}
+     * @return the outcome of every expected spec
+     * @throws IOException          if {@code expectedDirectory} cannot be listed
+     * @throws InterruptedException if interrupted while waiting for the validations
+     */
+    public BatchSummary validateDocumentation(Path actualDirectory, Path expectedDirectory, String glob) throws IOException, InterruptedException {
+        return run(expectedDirectory, glob, relativePath -> {
+            Path actualFile = actualDirectory.resolve(relativePath.toString());
+            if (!Files.isRegularFile(actualFile)) {
+                throw new IllegalStateException("No actual spec " + actualFile);
+            }
+            return new ValidationEngine(SwaggerSpecLoader.load(actualFile), assertionConfig);
+        }, ValidationEngine::validateDocumentation);
+    }
+
+    /**
+     * Validates every consumer contract against one provider spec.
+     *
+     * @param actualFile        provider spec
+     * @param contractDirectory directory of the consumer contracts
+     * @param glob              selects the contracts by their path relative to {@code contractDirectory}
+     * @return the outcome of every contract
+     * @throws IOException          if {@code contractDirectory} cannot be listed
+     * @throws InterruptedException if interrupted while waiting for the validations
+     */
+    public BatchSummary verifyContracts(Path actualFile, Path contractDirectory, String glob) throws IOException, InterruptedException {
+        ValidationEngine engine = new ValidationEngine(SwaggerSpecLoader.load(actualFile), assertionConfig);
+        return run(contractDirectory, glob, relativePath -> engine, ValidationEngine::validateContract);
+    }
+
+    private BatchSummary run(Path expectedDirectory, String glob, EngineFactory engineFactory, Validation validation)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        List<Path> specs = discover(expectedDirectory, glob);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "swagger-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(threads * 2);
+        List<Future<BatchSummary.Result>> futures = new ArrayList<>(specs.size());
+        try {
+            for (Path relativePath : specs) {
+                inFlight.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        return validate(expectedDirectory, relativePath, engineFactory, validation);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            List<BatchSummary.Result> results = new ArrayList<>(futures.size());
+            for (Future<BatchSummary.Result> future : futures) {
+                results.add(future.get());
+            }
+            return new BatchSummary(results, (System.nanoTime() - start) / 1_000_000);
+        } catch (ExecutionException e) {
+            // validate turns every failure into a result
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Path> discover(Path directory, String glob) throws IOException {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .map(directory::relativize)
+                    .filter(matcher::matches)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static BatchSummary.Result validate(Path expectedDirectory, Path relativePath, EngineFactory engineFactory, Validation validation) {
+        String spec = relativePath.toString().replace('\\', '/');
+        try {
+            ValidationEngine engine = engineFactory.engineFor(relativePath);
+            Swagger expected = SwaggerSpecLoader.load(expectedDirectory.resolve(relativePath));
+            validation.validate(engine, expected, ValidationMetrics.DISABLED, null);
+            return new BatchSummary.Result(spec, BatchSummary.Status.PASSED, Collections.emptyList());
+        } catch (SoftAssertionError e) {
+            List<String> errorMessages = new ArrayList<>();
+            for (String errorMessage : e.getErrors()) {
+                errorMessages.add(ValidationTasks.withoutLocation(errorMessage));
+            }
+            return new BatchSummary.Result(spec, BatchSummary.Status.FAILED, errorMessages);
+        } catch (AssertionError e) {
+            return new BatchSummary.Result(spec, BatchSummary.Status.FAILED, Collections.singletonList(String.valueOf(e.getMessage())));
+        } catch (RuntimeException e) {
+            return new BatchSummary.Result(spec, BatchSummary.Status.ERROR, Collections.singletonList(String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Validates the specs below a directory from the command line and prints the summary. Exits with {@code 0} if all
+     * specs passed, {@code 1} if any did not and {@code 2} if the arguments are invalid.
+     *
+     * @param args {@code --actual <dir|file> --expected <dir> [--glob <glob>] [--contracts] [--threads <n>] [--config <file.properties>]}
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        String actual = null;
+        String expected = null;
+        String glob = DEFAULT_GLOB;
+        String config = null;
+        boolean contracts = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--actual":
+                        actual = valueOf(args, ++i);
+                        break;
+                    case "--expected":
+                        expected = valueOf(args, ++i);
+                        break;
+                    case "--glob":
+                        glob = valueOf(args, ++i);
+                        break;
+                    case "--config":
+                        config = valueOf(args, ++i);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(valueOf(args, ++i));
+                        break;
+                    case "--contracts":
+                        contracts = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument " + args[i]);
+                }
+            }
+            if (actual == null || expected == null) {
+                throw new IllegalArgumentException("--actual and --expected are required");
+            }
+            SwaggerBatchRunner runner = new SwaggerBatchRunner(config == null ? new SwaggerAssertionConfig() : loadConfig(Paths.get(config)), threads);
+            BatchSummary summary = contracts
+                    ? runner.verifyContracts(Paths.get(actual), Paths.get(expected), glob)
+                    : runner.validateDocumentation(Paths.get(actual), Paths.get(expected), glob);
+            out.println(summary);
+            return summary.isSuccessful() ? 0 : 1;
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        } catch (IOException | UncheckedIOException e) {
+            err.println(e.getMessage());
+            return 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
+    private static String valueOf(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static SwaggerAssertionConfig loadConfig(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        return new SwaggerAssertionConfig(properties);
+    }
+
+    @FunctionalInterface
+    private interface EngineFactory {
+        ValidationEngine engineFor(Path relativePath);
+    }
+
+    @FunctionalInterface
+    private interface Validation {
+        void validate(ValidationEngine engine, Swagger expected, ValidationMetrics metrics, ValidationListener listener);
+    }
+}
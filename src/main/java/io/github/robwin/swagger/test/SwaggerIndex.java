@@ -0,0 +1,267 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.properties.Property;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable index over the operations of a Swagger model, with their parameters, responses and response headers.
+ * <p>
+ * Operations are looked up by path and HTTP method, parameters by their {@link ParameterKey}. The index is built in one
+ * pass over the model and can be shared between threads; it does not follow later changes of the model. An index of
+ * a spec read through {@link SwaggerSpecCache} is built once and shared by all assertions on that spec. Paths which are
+ * held in spool files, see {@link SwaggerAssertions#assertThatLargeSpec(String)}, are not indexed.
+ * </p>
+ */
+public final class SwaggerIndex {
+
+    private final Map<String, Map<HttpMethod, OperationEntry>> operations;
+    private final Map<Operation, OperationEntry> operationEntries;
+
+    private SwaggerIndex(Map<String, Map<HttpMethod, OperationEntry>> operations, Map<Operation, OperationEntry> operationEntries) {
+        this.operations = operations;
+        this.operationEntries = operationEntries;
+    }
+
+    /**
+     * Builds the index of a Swagger model.
+     *
+     * @param swagger Swagger model
+     * @return index of the model
+     */
+    public static SwaggerIndex of(Swagger swagger) {
+        Map<String, Map<HttpMethod, OperationEntry>> operations = new HashMap<>();
+        Map<Operation, OperationEntry> operationEntries = new IdentityHashMap<>();
+        if (swagger.getPaths() != null && !(swagger.getPaths() instanceof SpooledSection)) {
+            for (Map.Entry<String, Path> path : swagger.getPaths().entrySet()) {
+                Map<HttpMethod, OperationEntry> pathOperations = new EnumMap<>(HttpMethod.class);
+                for (Map.Entry<HttpMethod, Operation> operation : path.getValue().getOperationMap().entrySet()) {
+                    OperationEntry entry = new OperationEntry(operation.getValue());
+                    pathOperations.put(operation.getKey(), entry);
+                    operationEntries.put(operation.getValue(), entry);
+                }
+                operations.put(path.getKey(), pathOperations);
+            }
+        }
+        return new SwaggerIndex(operations, operationEntries);
+    }
+
+    /**
+     * @param path   path as declared in the model, without base path
+     * @param method HTTP method
+     * @return the operation, {@code null} if there is none
+     */
+    public Operation getOperation(String path, HttpMethod method) {
+        OperationEntry entry = entry(path, method);
+        return entry != null ? entry.operation : null;
+    }
+
+    /**
+     * @param path   path as declared in the model, without base path
+     * @param method HTTP method
+     * @return the parameters of the operation in declaration order, empty if there is no such operation
+     */
+    public Map<ParameterKey, Parameter> getParameters(String path, HttpMethod method) {
+        OperationEntry entry = entry(path, method);
+        return entry != null ? entry.parameters : Collections.emptyMap();
+    }
+
+    /**
+     * @param path   path as declared in the model, without base path
+     * @param method HTTP method
+     * @param key    name and location of the parameter
+     * @return the parameter, {@code null} if there is none
+     */
+    public Parameter getParameter(String path, HttpMethod method, ParameterKey key) {
+        return getParameters(path, method).get(key);
+    }
+
+    /**
+     * @param path   path as declared in the model, without base path
+     * @param method HTTP method
+     * @return the responses of the operation by status code, empty if there is no such operation
+     */
+    public Map<String, Response> getResponses(String path, HttpMethod method) {
+        OperationEntry entry = entry(path, method);
+        return entry != null ? entry.responses : Collections.emptyMap();
+    }
+
+    /**
+     * @param path       path as declared in the model, without base path
+     * @param method     HTTP method
+     * @param statusCode status code or {@code default}
+     * @return the response, {@code null} if there is none
+     */
+    public Response getResponse(String path, HttpMethod method, String statusCode) {
+        return getResponses(path, method).get(statusCode);
+    }
+
+    /**
+     * @param path       path as declared in the model, without base path
+     * @param method     HTTP method
+     * @param statusCode status code or {@code default}
+     * @return the headers of the response by name, empty if there is no such response
+     */
+    public Map<String, Property> getResponseHeaders(String path, HttpMethod method, String statusCode) {
+        OperationEntry entry = entry(path, method);
+        if (entry == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Property> headers = entry.responseHeaders.get(statusCode);
+        return headers != null ? headers : Collections.emptyMap();
+    }
+
+    /**
+     * Returns the parameters of an operation of the indexed model.
+     *
+     * @param operation operation of the indexed model
+     * @return the parameters of the operation, {@code null} if the operation is not part of the index
+     */
+    Map<ParameterKey, Parameter> parametersOf(Operation operation) {
+        OperationEntry entry = operationEntries.get(operation);
+        return entry != null ? entry.parameters : null;
+    }
+
+    /**
+     * Maps parameters by their key. A parameter declared twice is represented by its last declaration.
+     *
+     * @param parameters parameters, may be {@code null}
+     * @return the parameters in declaration order
+     */
+    static Map<ParameterKey, Parameter> parametersByKey(List<Parameter> parameters) {
+        if (parameters == null || parameters.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<ParameterKey, Parameter> parametersMap = new LinkedHashMap<>();
+        for (Parameter parameter : parameters) {
+            parametersMap.put(ParameterKey.of(parameter), parameter);
+        }
+        return parametersMap;
+    }
+
+    private OperationEntry entry(String path, HttpMethod method) {
+        Map<HttpMethod, OperationEntry> pathOperations = operations.get(path);
+        return pathOperations != null ? pathOperations.get(method) : null;
+    }
+
+    private static final class OperationEntry {
+
+        private final Operation operation;
+        private final Map<ParameterKey, Parameter> parameters;
+        private final Map<String, Response> responses;
+        private final Map<String, Map<String, Property>> responseHeaders;
+
+        OperationEntry(Operation operation) {
+            this.operation = operation;
+            this.parameters = Collections.unmodifiableMap(parametersByKey(operation.getParameters()));
+            Map<String, Response> operationResponses = operation.getResponses();
+            this.responses = operationResponses != null ? Collections.unmodifiableMap(new LinkedHashMap<>(operationResponses)) : Collections.emptyMap();
+            Map<String, Map<String, Property>> headers = new HashMap<>();
+            for (Map.Entry<String, Response> response : responses.entrySet()) {
+                Map<String, Property> responseHeaders = response.getValue().getHeaders();
+                if (responseHeaders != null) {
+                    headers.put(response.getKey(), Collections.unmodifiableMap(new LinkedHashMap<>(responseHeaders)));
+                }
+            }
+            this.responseHeaders = headers;
+        }
+    }
+
+    /**
+     * Identifies a parameter of an operation.
+     * <p>
+     * From <a href="https://github.com/OAI/OpenAPI-Specification/blob/master/versions/2.0.md#parameterObject" target="_top">OpenAPI Specification</a>
+     * "A unique parameter is defined by a combination of a name and location."
+     * </p>
+     */
+    public static final class ParameterKey {
+
+        private final String name;
+        private final String in;
+        private final int hashCode;
+
+        private ParameterKey(String name, String in) {
+            this.name = name;
+            this.in = in;
+            this.hashCode = 31 * Objects.hashCode(name) + Objects.hashCode(in);
+        }
+
+        /**
+         * @param name name of the parameter
+         * @param in   location of the parameter, e.g. {@code query}
+         * @return key of the parameter
+         */
+        public static ParameterKey of(String name, String in) {
+            return new ParameterKey(name, in);
+        }
+
+        /**
+         * @param parameter parameter
+         * @return key of the parameter
+         */
+        public static ParameterKey of(Parameter parameter) {
+            return new ParameterKey(parameter.getName(), parameter.getIn());
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getIn() {
+            return in;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ParameterKey)) {
+                return false;
+            }
+            ParameterKey other = (ParameterKey) o;
+            return Objects.equals(name, other.name) && Objects.equals(in, other.in);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return "name='" + name + "', in='" + in + "'";
+        }
+    }
+}
@@ -0,0 +1,561 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.ArrayModel;
+import io.swagger.models.ComposedModel;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.RefModel;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.AbstractSerializableParameter;
+import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.properties.AbstractNumericProperty;
+import io.swagger.models.properties.AbstractProperty;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.BaseIntegerProperty;
+import io.swagger.models.properties.BinaryProperty;
+import io.swagger.models.properties.BooleanProperty;
+import io.swagger.models.properties.ByteArrayProperty;
+import io.swagger.models.properties.DateProperty;
+import io.swagger.models.properties.DateTimeProperty;
+import io.swagger.models.properties.DecimalProperty;
+import io.swagger.models.properties.DoubleProperty;
+import io.swagger.models.properties.EmailProperty;
+import io.swagger.models.properties.FileProperty;
+import io.swagger.models.properties.FloatProperty;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.models.properties.LongProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.PasswordProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+import io.swagger.models.properties.UUIDProperty;
+import io.swagger.models.properties.UntypedProperty;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * Hash-conses the schemas of parsed Swagger models: structurally equal properties and inline models are replaced by
+ * one canonical instance, and repeated strings such as names, descriptions and media types by one canonical string.
+ * Shared error models, paging envelopes or common headers which occur in many specs of a JVM are then held once, and
+ * the validators can take two identical instances as equal without comparing them.
+ * <p>
+ * Schemas are interned bottom-up, so the children of a schema are already canonical when the schema itself is looked
+ * up, and two schemas are structurally equal if they are of the same class, their other fields are equal and their
+ * children are the same instances. The fields are listed for each swagger-models class; schemas of other classes, and
+ * composed models, are never shared. Definitions themselves are never replaced, since they are known by name.
+ * </p>
+ * <p>
+ * The canonical instances are held weakly, in concurrent maps, so that specs can be interned by several threads at
+ * once. Only models which are frozen afterwards, i.e. those of the {@link SwaggerSpecCache}, may be interned, since a
+ * change to a canonical instance would show in every spec sharing it.
+ * </p>
+ */
+final class SwaggerModelInterner {
+
+    private static final SwaggerModelInterner SHARED = new SwaggerModelInterner();
+
+    private final WeakInterner<String> strings = new WeakInterner<>(String.class, String::equals);
+    private final WeakInterner<Object> schemas = new WeakInterner<>(Object.class, SwaggerModelInterner::structurallyEqual);
+    private final LongAdder internedSchemas = new LongAdder();
+    private final LongAdder sharedSchemas = new LongAdder();
+
+    SwaggerModelInterner() {
+    }
+
+    /**
+     * Interns a model with the canonical instances shared by all models of this JVM.
+     *
+     * @param swagger Swagger model, which must not be changed afterwards
+     * @return the given model
+     */
+    static Swagger internShared(Swagger swagger) {
+        return SHARED.intern(swagger);
+    }
+
+    /**
+     * @param swagger Swagger model, which must not be changed afterwards
+     * @return the given model, with its schemas and strings replaced by canonical instances
+     */
+    Swagger intern(Swagger swagger) {
+        swagger.setConsumes(strings(swagger.getConsumes()));
+        swagger.setProduces(strings(swagger.getProduces()));
+        if (swagger.getPaths() != null) {
+            swagger.getPaths().values().forEach(this::intern);
+        }
+        if (swagger.getDefinitions() != null) {
+            swagger.getDefinitions().values().forEach(this::internChildren);
+        }
+        if (swagger.getParameters() != null) {
+            swagger.getParameters().values().forEach(this::intern);
+        }
+        if (swagger.getResponses() != null) {
+            swagger.getResponses().values().forEach(this::intern);
+        }
+        return swagger;
+    }
+
+    /**
+     * @return number of schemas looked up so far
+     */
+    long getInternedSchemas() {
+        return internedSchemas.sum();
+    }
+
+    /**
+     * @return number of schemas which were replaced by an equal canonical instance
+     */
+    long getSharedSchemas() {
+        return sharedSchemas.sum();
+    }
+
+    private void intern(Path path) {
+        path.getOperations().forEach(this::intern);
+        if (path.getParameters() != null) {
+            path.getParameters().forEach(this::intern);
+        }
+    }
+
+    private void intern(Operation operation) {
+        operation.setSummary(string(operation.getSummary()));
+        operation.setDescription(string(operation.getDescription()));
+        operation.setConsumes(strings(operation.getConsumes()));
+        operation.setProduces(strings(operation.getProduces()));
+        operation.setTags(strings(operation.getTags()));
+        if (operation.getParameters() != null) {
+            operation.getParameters().forEach(this::intern);
+        }
+        if (operation.getResponses() != null) {
+            operation.getResponses().values().forEach(this::intern);
+        }
+    }
+
+    private void intern(Parameter parameter) {
+        parameter.setName(string(parameter.getName()));
+        parameter.setIn(string(parameter.getIn()));
+        parameter.setDescription(string(parameter.getDescription()));
+        if (parameter instanceof BodyParameter && ((BodyParameter) parameter).getSchema() != null) {
+            BodyParameter bodyParameter = (BodyParameter) parameter;
+            bodyParameter.setSchema(intern(bodyParameter.getSchema()));
+        } else if (parameter instanceof AbstractSerializableParameter) {
+            AbstractSerializableParameter<?> serializableParameter = (AbstractSerializableParameter<?>) parameter;
+            serializableParameter.setType(string(serializableParameter.getType()));
+            serializableParameter.setFormat(string(serializableParameter.getFormat()));
+            if (serializableParameter.getItems() != null) {
+                serializableParameter.setItems(intern(serializableParameter.getItems()));
+            }
+            serializableParameter.setEnum(strings(serializableParameter.getEnum()));
+        }
+    }
+
+    private void intern(Response response) {
+        response.setDescription(string(response.getDescription()));
+        if (response.getResponseSchema() != null) {
+            response.setResponseSchema(intern(response.getResponseSchema()));
+        }
+        internValues(response.getHeaders());
+    }
+
+    private Model intern(Model model) {
+        internChildren(model);
+        return model instanceof ComposedModel ? model : (Model) canonical(model);
+    }
+
+    private void internChildren(Model model) {
+        model.setDescription(string(model.getDescription()));
+        model.setTitle(string(model.getTitle()));
+        internValues(model.getProperties());
+        if (model instanceof ModelImpl) {
+            ModelImpl modelImpl = (ModelImpl) model;
+            modelImpl.setType(string(modelImpl.getType()));
+            modelImpl.setFormat(string(modelImpl.getFormat()));
+            if (modelImpl.getAdditionalProperties() != null) {
+                modelImpl.setAdditionalProperties(intern(modelImpl.getAdditionalProperties()));
+            }
+        } else if (model instanceof ComposedModel) {
+            List<Model> allOf = ((ComposedModel) model).getAllOf();
+            for (int i = 0; i < allOf.size(); i++) {
+                allOf.set(i, intern(allOf.get(i)));
+            }
+        } else if (model instanceof ArrayModel) {
+            ArrayModel arrayModel = (ArrayModel) model;
+            if (arrayModel.getItems() != null) {
+                arrayModel.setItems(intern(arrayModel.getItems()));
+            }
+        }
+    }
+
+    private Property intern(Property property) {
+        if (property == null) {
+            return null;
+        }
+        property.setName(string(property.getName()));
+        property.setTitle(string(property.getTitle()));
+        property.setDescription(string(property.getDescription()));
+        if (property instanceof ObjectProperty) {
+            internValues(((ObjectProperty) property).getProperties());
+        } else if (property instanceof ArrayProperty && ((ArrayProperty) property).getItems() != null) {
+            ArrayProperty arrayProperty = (ArrayProperty) property;
+            arrayProperty.setItems(intern(arrayProperty.getItems()));
+        } else if (property instanceof MapProperty && ((MapProperty) property).getAdditionalProperties() != null) {
+            MapProperty mapProperty = (MapProperty) property;
+            mapProperty.setAdditionalProperties(intern(mapProperty.getAdditionalProperties()));
+        }
+        return (Property) canonical(property);
+    }
+
+    private void internValues(Map<String, Property> properties) {
+        if (properties != null) {
+            for (Map.Entry<String, Property> property : properties.entrySet()) {
+                Property canonicalProperty = intern(property.getValue());
+                if (canonicalProperty != property.getValue()) {
+                    property.setValue(canonicalProperty);
+                }
+            }
+        }
+    }
+
+    private String string(String string) {
+        return string != null ? strings.intern(string, string.hashCode()) : null;
+    }
+
+    private List<String> strings(List<String> strings) {
+        if (strings != null) {
+            for (int i = 0; i < strings.size(); i++) {
+                strings.set(i, string(strings.get(i)));
+            }
+        }
+        return strings;
+    }
+
+    private Object canonical(Object schema) {
+        Object[] fields = fields(schema);
+        if (fields == null) {
+            return schema;
+        }
+        internedSchemas.increment();
+        Object canonicalSchema = schemas.intern(schema, hash(schema, fields));
+        if (canonicalSchema != schema) {
+            sharedSchemas.increment();
+        }
+        return canonicalSchema;
+    }
+
+    private static int hash(Object schema, Object[] fields) {
+        int hash = 31 * schema.getClass().hashCode() + Arrays.deepHashCode(fields);
+        for (Object child : children(schema)) {
+            hash = 31 * hash + (child instanceof Map ? hashOfEntries((Map<?, ?>) child) : System.identityHashCode(child));
+        }
+        return hash;
+    }
+
+    private static int hashOfEntries(Map<?, ?> children) {
+        int hash = 1;
+        for (Map.Entry<?, ?> child : children.entrySet()) {
+            hash = 31 * hash + Objects.hashCode(child.getKey()) + System.identityHashCode(child.getValue());
+        }
+        return hash;
+    }
+
+    private static boolean structurallyEqual(Object schema, Object other) {
+        if (schema.getClass() != other.getClass() || !Arrays.deepEquals(fields(schema), fields(other))) {
+            return false;
+        }
+        Object[] children = children(schema);
+        Object[] otherChildren = children(other);
+        for (int i = 0; i < children.length; i++) {
+            if (!(children[i] instanceof Map ? sameEntries((Map<?, ?>) children[i], (Map<?, ?>) otherChildren[i])
+                    : children[i] == otherChildren[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameEntries(Map<?, ?> children, Map<?, ?> otherChildren) {
+        if (otherChildren == null || children.size() != otherChildren.size()) {
+            return false;
+        }
+        Iterator<? extends Map.Entry<?, ?>> otherEntries = otherChildren.entrySet().iterator();
+        for (Map.Entry<?, ?> child : children.entrySet()) {
+            Map.Entry<?, ?> otherChild = otherEntries.next();
+            if (!Objects.equals(child.getKey(), otherChild.getKey()) || child.getValue() != otherChild.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object[] children(Object schema) {
+        if (schema instanceof ObjectProperty) {
+            return new Object[]{((ObjectProperty) schema).getProperties()};
+        } else if (schema instanceof ArrayProperty) {
+            return new Object[]{((ArrayProperty) schema).getItems()};
+        } else if (schema instanceof MapProperty) {
+            return new Object[]{((MapProperty) schema).getAdditionalProperties()};
+        } else if (schema instanceof ModelImpl) {
+            return new Object[]{((ModelImpl) schema).getProperties(), ((ModelImpl) schema).getAdditionalProperties()};
+        } else if (schema instanceof ArrayModel) {
+            return new Object[]{((ArrayModel) schema).getProperties(), ((ArrayModel) schema).getItems()};
+        } else if (schema instanceof Model) {
+            return new Object[]{((Model) schema).getProperties()};
+        }
+        return new Object[0];
+    }
+
+    /**
+     * Lists the fields of a schema apart from its children.
+     *
+     * @return the fields, or {@code null} if the schema is of a class whose fields are not known
+     */
+    private static Object[] fields(Object schema) {
+        Class<?> type = schema.getClass();
+        if (type == ModelImpl.class) {
+            ModelImpl model = (ModelImpl) schema;
+            return new Object[]{model.getReference(), model.getTitle(), model.getVendorExtensions(), model.getXml(),
+                    model.getExternalDocs(), model.getType(), model.getFormat(), model.getName(), model.getRequired(),
+                    model.getAllowEmptyValue(), model.getUniqueItems(), model.isSimple(), model.getDescription(),
+                    model.getExample(), model.getDiscriminator(), model.getDefaultValue(), model.getEnum(),
+                    model.getMinimum(), model.getMaximum()};
+        } else if (type == ArrayModel.class) {
+            ArrayModel model = (ArrayModel) schema;
+            return new Object[]{model.getReference(), model.getTitle(), model.getVendorExtensions(), model.getXml(),
+                    model.getExternalDocs(), model.getType(), model.getDescription(), model.getUniqueItems(),
+                    model.getExample(), model.getMinItems(), model.getMaxItems()};
+        } else if (type == RefModel.class) {
+            RefModel model = (RefModel) schema;
+            return new Object[]{model.get$ref(), model.getRefFormat(), model.getReference(), model.getTitle(),
+                    model.getDescription(), model.getExample(), model.getExternalDocs(), model.getVendorExtensions()};
+        } else if (schema instanceof AbstractProperty) {
+            Object[] propertyFields = propertyFields((AbstractProperty) schema);
+            if (propertyFields == null) {
+                return null;
+            }
+            AbstractProperty property = (AbstractProperty) schema;
+            return new Object[]{property.getName(), property.getType(), property.getFormat(), property.getExample(),
+                    property.getXml(), property.getRequired(), property.getPosition(), property.getDescription(),
+                    property.getTitle(), property.getReadOnly(), property.getAllowEmptyValue(), property.getAccess(),
+                    property.getVendorExtensions(), propertyFields};
+        }
+        return null;
+    }
+
+    /**
+     * Lists the fields which a property declares in addition to those of {@link AbstractProperty}.
+     */
+    private static Object[] propertyFields(AbstractProperty property) {
+        Class<?> type = property.getClass();
+        if (type == StringProperty.class || type == EmailProperty.class || type == ByteArrayProperty.class) {
+            StringProperty string = (StringProperty) property;
+            return new Object[]{string.getEnum(), string.getMinLength(), string.getMaxLength(), string.getPattern(),
+                    string.getDefault()};
+        } else if (type == PasswordProperty.class) {
+            PasswordProperty password = (PasswordProperty) property;
+            return new Object[]{password.getEnum(), password.getMinLength(), password.getMaxLength(),
+                    password.getPattern(), password.getDefault()};
+        } else if (type == UUIDProperty.class) {
+            UUIDProperty uuid = (UUIDProperty) property;
+            return new Object[]{uuid.getEnum(), uuid.getMinLength(), uuid.getMaxLength(), uuid.getPattern(),
+                    uuid.getDefault()};
+        } else if (type == BinaryProperty.class) {
+            BinaryProperty binary = (BinaryProperty) property;
+            return new Object[]{binary.getEnum(), binary.getMinLength(), binary.getMaxLength(), binary.getPattern(),
+                    binary.getDefault()};
+        } else if (type == IntegerProperty.class) {
+            IntegerProperty integer = (IntegerProperty) property;
+            return numericFields(integer, integer.getEnum(), integer.getDefault());
+        } else if (type == LongProperty.class) {
+            LongProperty longProperty = (LongProperty) property;
+            return numericFields(longProperty, longProperty.getEnum(), longProperty.getDefault());
+        } else if (type == DoubleProperty.class) {
+            DoubleProperty doubleProperty = (DoubleProperty) property;
+            return numericFields(doubleProperty, doubleProperty.getEnum(), doubleProperty.getDefault());
+        } else if (type == FloatProperty.class) {
+            FloatProperty floatProperty = (FloatProperty) property;
+            return numericFields(floatProperty, floatProperty.getEnum(), floatProperty.getDefault());
+        } else if (type == DecimalProperty.class || type == BaseIntegerProperty.class) {
+            return numericFields((AbstractNumericProperty) property, null, null);
+        } else if (type == BooleanProperty.class) {
+            BooleanProperty bool = (BooleanProperty) property;
+            return new Object[]{bool.getEnum(), bool.getDefault()};
+        } else if (type == DateProperty.class) {
+            return new Object[]{((DateProperty) property).getEnum()};
+        } else if (type == DateTimeProperty.class) {
+            return new Object[]{((DateTimeProperty) property).getEnum()};
+        } else if (type == ArrayProperty.class) {
+            ArrayProperty array = (ArrayProperty) property;
+            return new Object[]{array.getUniqueItems(), array.getMinItems(), array.getMaxItems()};
+        } else if (type == MapProperty.class) {
+            MapProperty map = (MapProperty) property;
+            return new Object[]{map.getMinProperties(), map.getMaxProperties()};
+        } else if (type == RefProperty.class) {
+            RefProperty ref = (RefProperty) property;
+            return new Object[]{ref.get$ref(), ref.getRefFormat()};
+        } else if (type == ObjectProperty.class || type == FileProperty.class || type == UntypedProperty.class) {
+            return new Object[0];
+        }
+        return null;
+    }
+
+    private static Object[] numericFields(AbstractNumericProperty numeric, List<?> enumValues, Object defaultValue) {
+        return new Object[]{numeric.getMinimum(), numeric.getMaximum(), numeric.getMultipleOf(),
+                numeric.getExclusiveMinimum(), numeric.getExclusiveMaximum(), enumValues, defaultValue};
+    }
+
+    /**
+     * Weak set of canonical instances, backed by a {@link ConcurrentHashMap}. Instances are equal if they have the same
+     * hash and the given equivalence holds; collected instances are dropped on the next lookup.
+     */
+    private static final class WeakInterner<T> {
+
+        private final Class<T> type;
+        private final BiPredicate<T, T> equivalence;
+        private final ConcurrentMap<Object, Canonical> canonicals = new ConcurrentHashMap<>();
+        private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+
+        WeakInterner(Class<T> type, BiPredicate<T, T> equivalence) {
+            this.type = type;
+            this.equivalence = equivalence;
+        }
+
+        /**
+         * @param value instance to look up
+         * @param hash  hash of the instance, consistent with the equivalence
+         * @return the canonical instance equal to the given one, which becomes canonical if there is none
+         */
+        T intern(T value, int hash) {
+            expungeCollected();
+            Lookup lookup = new Lookup(value, hash);
+            while (true) {
+                Canonical canonical = canonicals.get(lookup);
+                T canonicalValue = canonical != null ? canonical.get() : null;
+                if (canonicalValue != null) {
+                    return canonicalValue;
+                }
+                if (canonical != null) {
+                    canonicals.remove(canonical, canonical);
+                } else {
+                    Canonical added = new Canonical(value, hash);
+                    if (canonicals.putIfAbsent(added, added) == null) {
+                        return value;
+                    }
+                }
+            }
+        }
+
+        private void expungeCollected() {
+            Object reference;
+            while ((reference = collected.poll()) != null) {
+                canonicals.remove(reference, reference);
+            }
+        }
+
+        private boolean isEquivalent(T value, int hash, Object other) {
+            if (!(other instanceof Key) || ((Key) other).hash() != hash) {
+                return false;
+            }
+            Object otherValue = ((Key) other).value();
+            return value != null && type.isInstance(otherValue) && equivalence.test(value, type.cast(otherValue));
+        }
+
+        private interface Key {
+            int hash();
+
+            Object value();
+        }
+
+        private final class Canonical extends WeakReference<T> implements Key {
+
+            private final int hash;
+
+            Canonical(T value, int hash) {
+                super(value, collected);
+                this.hash = hash;
+            }
+
+            @Override
+            public int hash() {
+                return hash;
+            }
+
+            @Override
+            public Object value() {
+                return get();
+            }
+
+            @Override
+            public boolean equals(Object other) {
+                return other == this || isEquivalent(get(), hash, other);
+            }
+
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+        }
+
+        private final class Lookup implements Key {
+
+            private final T value;
+            private final int hash;
+
+            Lookup(T value, int hash) {
+                this.value = value;
+                this.hash = hash;
+            }
+
+            @Override
+            public int hash() {
+                return hash;
+            }
+
+            @Override
+            public Object value() {
+                return value;
+            }
+
+            @Override
+            public boolean equals(Object other) {
+                return other == this || isEquivalent(value, hash, other);
+            }
+
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+        }
+    }
+}
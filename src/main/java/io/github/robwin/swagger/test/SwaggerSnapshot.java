@@ -0,0 +1,299 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.swagger.jackson.mixin.ResponseSchemaMixin;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+import io.swagger.util.DeserializationModule;
+import org.apache.commons.lang3.Validate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Binary snapshot of a parsed Swagger model, so that forked test JVMs do not have to run {@code SwaggerParser} on a big
+ * design spec again.
+ * <p>
+ * A snapshot file starts with a header that records the location, modification time, size and SHA-256 hash of the
+ * source spec, followed by the model encoded as Smile, Jackson's binary JSON format. Reading maps the file into memory
+ * and binds the model straight from the mapping with the deserializers of swagger-core, without building a JSON tree
+ * first. If the source spec changed since the snapshot was written, the snapshot is rebuilt from the source first. If
+ * only the modification time of the source changed, e.g. after a checkout, the header is updated, so that later reads
+ * can tell that the source is unchanged without hashing it again.
+ * </p>
+ * <p>
+ * A snapshot file is never changed in place: a rebuilt snapshot, or one with an updated header, is written to a
+ * temporary file which then replaces the snapshot atomically, so concurrent readers see either the old or the new file.
+ * </p>
+ * <p>
+ * Files ending with {@value #FILE_EXTENSION} are recognized as snapshots wherever a spec location is accepted, e.g. by
+ * {@link SwaggerAssertions#assertThat(String)} or {@link SwaggerAssert#isEqualTo(String)}.
+ * </p>
+ */
+public final class SwaggerSnapshot {
+
+    public static final String FILE_EXTENSION = ".swagger-snapshot";
+
+    private static final int MAGIC = 0x41535753; // "ASWS"
+    private static final int FORMAT_VERSION = 1;
+    private static final ObjectMapper SMILE_MAPPER = createSmileMapper();
+
+    private SwaggerSnapshot() {
+    }
+
+    /**
+     * Loads the spec at {@code sourceLocation} through a snapshot file, which is written if it does not exist yet or if
+     * it was taken from a different or an outdated source.
+     *
+     * @param sourceLocation path of the source spec, JSON or YAML
+     * @param snapshotFile   snapshot file
+     * @return the parsed model
+     */
+    public static Swagger load(String sourceLocation, Path snapshotFile) {
+        Validate.notNull(sourceLocation, "sourceLocation must not be null!");
+        Validate.notNull(snapshotFile, "snapshotFile must not be null!");
+        try {
+            if (Files.isRegularFile(snapshotFile)) {
+                Header header = readHeader(snapshotFile);
+                if (header != null && header.sourceLocation.equals(sourceKey(sourceLocation)) && !header.isOutdated(snapshotFile)) {
+                    return decode(snapshotFile);
+                }
+            }
+            return write(sourceLocation, snapshotFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load snapshot " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * Reads a snapshot file, rebuilding it first if its source spec changed.
+     *
+     * @param snapshotFile snapshot file
+     * @return the model stored in the snapshot
+     */
+    public static Swagger read(Path snapshotFile) {
+        try {
+            refresh(snapshotFile);
+            return decode(snapshotFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read snapshot " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * Parses the source spec and writes its snapshot, replacing an existing snapshot atomically.
+     *
+     * @param sourceLocation path of the source spec, JSON or YAML
+     * @param snapshotFile   snapshot file
+     * @return the parsed model
+     */
+    public static Swagger write(String sourceLocation, Path snapshotFile) {
+        Swagger swagger = new SwaggerParser().read(sourceLocation);
+        Validate.notNull(swagger, "Failed to parse %s", sourceLocation);
+        try {
+            Path source = Paths.get(sourceKey(sourceLocation));
+            Path parent = snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tempFile = Files.createTempFile(parent, snapshotFile.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(source.toString());
+                out.writeLong(Files.getLastModifiedTime(source).toMillis());
+                out.writeLong(Files.size(source));
+                out.write(SwaggerSpecCache.contentHash(source));
+                SMILE_MAPPER.writeValue((OutputStream) out, swagger);
+            }
+            moveAtomically(tempFile, snapshotFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot " + snapshotFile, e);
+        }
+        return swagger;
+    }
+
+    static boolean isSnapshot(Path file) {
+        return file.getFileName().toString().endsWith(FILE_EXTENSION);
+    }
+
+    /**
+     * Rebuilds the snapshot if its source spec has changed, leaving the file untouched otherwise.
+     */
+    static void refresh(Path snapshotFile) throws IOException {
+        Header header = readHeader(snapshotFile);
+        if (header == null) {
+            throw new IOException(snapshotFile + " is not a snapshot of format version " + FORMAT_VERSION);
+        }
+        if (header.isOutdated(snapshotFile)) {
+            write(header.sourceLocation, snapshotFile);
+        }
+    }
+
+    private static Swagger decode(Path snapshotFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            skipHeader(buffer);
+            return SMILE_MAPPER.readValue(new ByteBufferBackedInputStream(buffer), Swagger.class);
+        }
+    }
+
+    /**
+     * Configures a Smile mapper like swagger-core configures {@code Json.mapper()}, so that it binds the polymorphic
+     * models, properties and parameters.
+     */
+    private static ObjectMapper createSmileMapper() {
+        return new ObjectMapper(new SmileFactory())
+                .registerModule(new DeserializationModule(true, true))
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .addMixIn(Response.class, ResponseSchemaMixin.class);
+    }
+
+    private static Header readHeader(Path snapshotFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            String sourceLocation = readUTF(buffer);
+            int attributesPosition = buffer.position();
+            long lastModified = buffer.getLong();
+            long size = buffer.getLong();
+            byte[] contentHash = new byte[32];
+            buffer.get(contentHash);
+            return new Header(sourceLocation, attributesPosition, lastModified, size, contentHash);
+        }
+    }
+
+    private static void skipHeader(ByteBuffer buffer) {
+        buffer.position(8);
+        int sourceLocationLength = buffer.getShort() & 0xFFFF;
+        buffer.position(buffer.position() + sourceLocationLength + 8 + 8 + 32);
+    }
+
+    private static String readUTF(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        // writeUTF uses modified UTF-8, which only differs from UTF-8 for NUL and supplementary characters
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String sourceKey(String sourceLocation) throws IOException {
+        return Paths.get(sourceLocation).toRealPath().toString();
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static final class Header {
+        private final String sourceLocation;
+        private final int attributesPosition;
+        private final long lastModified;
+        private final long size;
+        private final byte[] contentHash;
+
+        private Header(String sourceLocation, int attributesPosition, long lastModified, long size, byte[] contentHash) {
+            this.sourceLocation = sourceLocation;
+            this.attributesPosition = attributesPosition;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.contentHash = contentHash;
+        }
+
+        private boolean isOutdated(Path snapshotFile) throws IOException {
+            Path source = Paths.get(sourceLocation);
+            if (!Files.isRegularFile(source)) {
+                return false;   // keep using the snapshot, e.g. on a CI agent without the design spec
+            }
+            long sourceLastModified = Files.getLastModifiedTime(source).toMillis();
+            long sourceSize = Files.size(source);
+            if (sourceLastModified == lastModified && sourceSize == size) {
+                return false;
+            }
+            if (!Arrays.equals(SwaggerSpecCache.contentHash(source), contentHash)) {
+                return true;
+            }
+            updateAttributes(snapshotFile, sourceLastModified, sourceSize);
+            return false;
+        }
+
+        /**
+         * Records the new modification time and size of an unchanged source. The attributes are written to a copy of
+         * the snapshot, which then replaces it atomically, so that a concurrent reader never sees a partial header.
+         */
+        private void updateAttributes(Path snapshotFile, long sourceLastModified, long sourceSize) {
+            ByteBuffer attributes = ByteBuffer.allocate(2 * Long.BYTES).putLong(sourceLastModified).putLong(sourceSize);
+            attributes.flip();
+            Path tempFile = null;
+            try {
+                Path parent = snapshotFile.toAbsolutePath().getParent();
+                tempFile = Files.createTempFile(parent, snapshotFile.getFileName().toString(), ".tmp");
+                Files.copy(snapshotFile, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                Header copied = readHeader(tempFile);
+                if (copied == null || copied.attributesPosition != attributesPosition
+                        || !Arrays.equals(copied.contentHash, contentHash)) {
+                    return;   // the snapshot has been rebuilt in the meantime
+                }
+                try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                    channel.write(attributes, attributesPosition);
+                }
+                moveAtomically(tempFile, snapshotFile);
+                tempFile = null;
+            } catch (IOException e) {
+                // e.g. a read-only directory; the source is then hashed again by the next read
+            } finally {
+                if (tempFile != null) {
+                    try {
+                        Files.deleteIfExists(tempFile);
+                    } catch (IOException e) {
+                        // left behind in the snapshot directory
+                    }
+                }
+            }
+        }
+    }
+}
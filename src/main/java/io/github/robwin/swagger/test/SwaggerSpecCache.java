@@ -0,0 +1,394 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, JVM wide cache of parsed Swagger models, used whenever a spec is given by its location.
+ * <p>
+ * Only specs stored in local files are cached; {@link SwaggerSnapshot snapshot files} are refreshed before they are
+ * looked up. An entry is keyed by the real path of the file and is valid as long as the file keeps its modification
+ * time and size, or, if either of them changed, its SHA-256 content hash. Files referenced through a remote or
+ * relative {@code $ref} are not part of the key. The least recently used entry is evicted once {@code maxEntries} is
+ * exceeded.
+ * </p>
+ * <p>
+ * Lookups do not lock the cache. A missing or changed spec is parsed, interned and frozen by the calling thread and
+ * then published; threads reading the same file at the same time may parse it twice, but all of them get the model
+ * which was published.
+ * </p>
+ * <p>
+ * Cached models are shared between all assertions of the JVM and are therefore frozen, see
+ * {@link ReadOnlySwaggerModels}. Before they are frozen, their schemas and strings are interned, see
+ * {@link SwaggerModelInterner}, unless the system property {@code assertj.swagger.specCache.intern=false} is set. The
+ * cache can be turned off with the system property {@code assertj.swagger.specCache.enabled=false}; its size is set
+ * with {@code assertj.swagger.specCache.maxEntries}.
+ * </p>
+ */
+public final class SwaggerSpecCache {
+
+    public static final String ENABLED_PROPERTY = "assertj.swagger.specCache.enabled";
+    public static final String MAX_ENTRIES_PROPERTY = "assertj.swagger.specCache.maxEntries";
+    public static final String INTERN_PROPERTY = "assertj.swagger.specCache.intern";
+    private static final int DEFAULT_MAX_ENTRIES = 32;
+    private static final int HASH_BUFFER_SIZE = 8192;
+
+    private static final SwaggerSpecCache INSTANCE = new SwaggerSpecCache(
+            !Boolean.FALSE.toString().equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY)),
+            Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES));
+
+    private final ConcurrentMap<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ModelKey, CachedModel> models = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private volatile boolean enabled;
+    private final boolean intern = !Boolean.FALSE.toString().equalsIgnoreCase(System.getProperty(INTERN_PROPERTY));
+    private final AtomicLong clock = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    SwaggerSpecCache(boolean enabled, int maxEntries) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the cache shared by all assertions of this JVM
+     */
+    public static SwaggerSpecCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Reads the Swagger model at the given location through the shared cache.
+     *
+     * @param location file path, URL or classpath location of the spec
+     * @return the parsed model, read-only if it came from the cache
+     */
+    static Swagger read(String location) {
+        return INSTANCE.get(location);
+    }
+
+    /**
+     * Reads the Swagger model in the given file through the shared cache. Files which do not belong to the default file
+     * system, e.g. entries of a zip file system, are not cached.
+     *
+     * @param file spec file
+     * @return the parsed model, read-only if it came from the cache
+     */
+    static Swagger read(Path file) {
+        return file.getFileSystem() == FileSystems.getDefault() ? read(file.toString()) : SwaggerSpecLoader.load(file);
+    }
+
+    /**
+     * Returns the index of a Swagger model. The index of a model held by the shared cache is built once and kept with
+     * the model; other models are indexed on every call, as they may have changed in the meantime.
+     *
+     * @param swagger Swagger model
+     * @return index of the model
+     */
+    static SwaggerIndex index(Swagger swagger) {
+        return INSTANCE.indexOf(swagger);
+    }
+
+    SwaggerIndex indexOf(Swagger swagger) {
+        CachedModel model = models.get(new ModelKey(swagger));
+        return model != null ? model.index() : SwaggerIndex.of(swagger);
+    }
+
+    Swagger get(String location) {
+        if (SwaggerSpecLoader.isArchiveEntry(location)) {
+            return SwaggerSpecLoader.load(location);
+        }
+        Path file = toLocalFile(location);
+        if (file == null) {
+            return new SwaggerParser().read(location);
+        }
+        if (!enabled) {
+            return parse(location, file);
+        }
+        try {
+            if (SwaggerSnapshot.isSnapshot(file)) {
+                SwaggerSnapshot.refresh(file);
+            }
+            return get(location, file);
+        } catch (IOException e) {
+            return parse(location, file);
+        }
+    }
+
+    private Swagger get(String location, Path file) throws IOException {
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        long size = Files.size(file);
+        Entry entry = entries.get(file);
+        if (entry != null && entry.lastModified == lastModified && entry.size == size) {
+            hits.increment();
+            entry.lastAccess = clock.incrementAndGet();
+            return entry.model.swagger;
+        }
+
+        byte[] contentHash = contentHash(file);
+        if (entry != null && Arrays.equals(entry.contentHash, contentHash)) {
+            hits.increment();
+            return publish(file, new Entry(lastModified, size, contentHash, entry.model)).model.swagger;
+        }
+
+        Swagger swagger = parse(location, file);
+        misses.increment();
+        if (swagger == null) {
+            return null;
+        }
+        Swagger cached = ReadOnlySwaggerModels.freeze(intern ? SwaggerModelInterner.internShared(swagger) : swagger);
+        return publish(file, new Entry(lastModified, size, contentHash, new CachedModel(cached))).model.swagger;
+    }
+
+    /**
+     * Publishes an entry which has been built without holding any lock. If another thread published an entry for the
+     * same file version in the meantime, that entry wins.
+     */
+    private Entry publish(Path file, Entry candidate) {
+        candidate.lastAccess = clock.incrementAndGet();
+        while (true) {
+            Entry current = entries.putIfAbsent(file, candidate);
+            if (current == null) {
+                models.put(new ModelKey(candidate.model.swagger), candidate.model);
+                evictLeastRecentlyUsed();
+                return candidate;
+            }
+            if (current.isSameVersion(candidate)) {
+                current.lastAccess = candidate.lastAccess;
+                return current;
+            }
+            if (entries.replace(file, current, candidate)) {
+                if (current.model != candidate.model) {
+                    models.remove(new ModelKey(current.model.swagger), current.model);
+                    models.put(new ModelKey(candidate.model.swagger), candidate.model);
+                }
+                return candidate;
+            }
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        while (entries.size() > maxEntries) {
+            Map.Entry<Path, Entry> eldest = null;
+            for (Map.Entry<Path, Entry> candidate : entries.entrySet()) {
+                if (eldest == null || candidate.getValue().lastAccess < eldest.getValue().lastAccess) {
+                    eldest = candidate;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            if (entries.remove(eldest.getKey(), eldest.getValue())) {
+                evictions.increment();
+                models.remove(new ModelKey(eldest.getValue().model.swagger), eldest.getValue().model);
+            }
+        }
+    }
+
+    private static Swagger parse(String location, Path file) {
+        return SwaggerSnapshot.isSnapshot(file) ? SwaggerSnapshot.read(file) : SwaggerSpecLoader.load(file);
+    }
+
+    /**
+     * @return {@code true} unless the cache has been turned off
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns the cache on or off. Turning it off also drops all entries.
+     *
+     * @param enabled whether parsed specs are cached
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Drops all entries and resets the statistics.
+     */
+    public void clear() {
+        entries.clear();
+        models.clear();
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    /**
+     * @return a snapshot of the cache statistics
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    static Path toLocalFile(String location) {
+        if (StringUtils.isBlank(location)) {
+            return null;
+        }
+        try {
+            Path file = location.startsWith("file:") ? Paths.get(URI.create(location)) : Paths.get(location);
+            return Files.isRegularFile(file) ? file.toRealPath() : null;
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    static byte[] contentHash(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (channel.size() >= SwaggerSpecLoader.MAP_THRESHOLD) {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } else {
+                ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_SIZE);
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    digest.update(buffer);
+                    buffer.clear();
+                }
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Entry {
+        private final long lastModified;
+        private final long size;
+        private final byte[] contentHash;
+        private final CachedModel model;
+        private volatile long lastAccess;
+
+        private Entry(long lastModified, long size, byte[] contentHash, CachedModel model) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.contentHash = contentHash;
+            this.model = model;
+        }
+
+        private boolean isSameVersion(Entry other) {
+            return lastModified == other.lastModified && size == other.size && Arrays.equals(contentHash, other.contentHash);
+        }
+    }
+
+    /**
+     * A cached model together with its index, which is shared by all entries of the same file content.
+     */
+    private static final class CachedModel {
+        private final Swagger swagger;
+        private SwaggerIndex index;   // built on first use, guarded by this
+
+        private CachedModel(Swagger swagger) {
+            this.swagger = swagger;
+        }
+
+        private synchronized SwaggerIndex index() {
+            if (index == null) {
+                index = SwaggerIndex.of(swagger);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Looks up cached models by identity, as {@link Swagger#equals(Object)} compares the whole model.
+     */
+    private static final class ModelKey {
+        private final Swagger swagger;
+
+        private ModelKey(Swagger swagger) {
+            this.swagger = swagger;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ModelKey && ((ModelKey) other).swagger == swagger;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(swagger);
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counters of a {@link SwaggerSpecCache}.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+
+        Stats(long hits, long misses, long evictions, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d, evictions=%d, size=%d", hits, misses, evictions, size);
+        }
+    }
+}
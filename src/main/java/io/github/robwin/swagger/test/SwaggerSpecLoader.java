@@ -0,0 +1,216 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.github.luben.zstd.ZstdInputStream;
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+import io.swagger.parser.SwaggerResolver;
+import io.swagger.parser.util.SwaggerDeserializer;
+import io.swagger.util.Json;
+import io.swagger.util.Yaml;
+import org.apache.commons.lang3.Validate;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads Swagger models from files, archives, buffers and streams without reading the whole document into a
+ * {@code String} first, as {@code SwaggerParser} does.
+ * <p>
+ * Local files of {@value #MAP_THRESHOLD} bytes or more are memory-mapped. Gzip and Zstandard compressed specs are
+ * recognized by their magic number and decompressed while they are parsed; Zstandard requires
+ * {@code com.github.luben:zstd-jni} on the classpath. Specs inside JAR or zip archives are read from {@code jar:} URLs
+ * or from paths of a zip {@link java.nio.file.FileSystem}. JSON and YAML are told apart by the first character of the
+ * document. The parsed document is then deserialized and its references resolved the same way as by
+ * {@code SwaggerParser}.
+ * </p>
+ * <p>
+ * Documents without a {@code swagger} field, i.e. Swagger 1.2 specs, are handed to {@code SwaggerParser}, which
+ * converts them with the compat spec parser. This is only possible for local files, since the converter reads the
+ * document, and the API declarations it refers to, from their location.
+ * </p>
+ */
+final class SwaggerSpecLoader {
+
+    static final int MAP_THRESHOLD = 1 << 20;
+
+    private static final String JAR_URL_PREFIX = "jar:";
+    private static final String SWAGGER_VERSION_FIELD = "swagger";
+    private static final int SNIFF_LIMIT = 8192;
+    private static final int GZIP_MAGIC = 0x1f8b;
+    private static final int ZSTD_MAGIC = 0x28b52ffd;
+
+    private SwaggerSpecLoader() {
+    }
+
+    /**
+     * @param location spec location
+     * @return {@code true} if the location is a {@code jar:} URL, i.e. an entry of an archive
+     */
+    static boolean isArchiveEntry(String location) {
+        return location != null && location.startsWith(JAR_URL_PREFIX);
+    }
+
+    /**
+     * Loads the spec from a file of any file system, e.g. the default one or a zip file system.
+     *
+     * @param file spec file, optionally compressed
+     * @return the parsed model
+     */
+    static Swagger load(Path file) {
+        boolean local = file.getFileSystem() == FileSystems.getDefault();
+        try {
+            if (local && Files.size(file) >= MAP_THRESHOLD) {
+                try (FileChannel channel = FileChannel.open(file)) {
+                    return load(new ByteBufferBackedInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())), file.toString(), file.toString());
+                }
+            }
+            try (InputStream in = Files.newInputStream(file)) {
+                return load(in, local ? file.toString() : null, local ? file.toString() : null);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + file, e);
+        }
+    }
+
+    /**
+     * Loads the spec from an entry of an archive.
+     *
+     * @param location {@code jar:} URL of the entry, e.g. {@code jar:file:/specs.zip!/swagger.yaml}
+     * @return the parsed model
+     */
+    static Swagger load(String location) {
+        Validate.isTrue(isArchiveEntry(location), "%s is not a jar: URL", location);
+        try {
+            URLConnection connection = new URL(location).openConnection();
+            // do not keep the archive open after the entry has been read
+            connection.setUseCaches(false);
+            try (InputStream in = connection.getInputStream()) {
+                return load(in, null);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + location, e);
+        }
+    }
+
+    /**
+     * Loads the spec from the remaining bytes of a buffer. The position of the buffer is not changed.
+     *
+     * @param buffer spec document, optionally compressed
+     * @param parentLocation location relative {@code $ref}s are resolved against, or {@code null}
+     * @return the parsed model
+     */
+    static Swagger load(ByteBuffer buffer, String parentLocation) {
+        return load(new ByteBufferBackedInputStream(buffer.duplicate()), parentLocation);
+    }
+
+    /**
+     * Loads the spec from a stream, which is read to its end but not closed.
+     *
+     * @param in spec document, optionally compressed
+     * @param parentLocation location relative {@code $ref}s are resolved against, or {@code null}
+     * @return the parsed model
+     */
+    static Swagger load(InputStream in, String parentLocation) {
+        return load(in, parentLocation, null);
+    }
+
+    private static Swagger load(InputStream in, String parentLocation, String file) {
+        try {
+            InputStream document = decompressed(markable(in));
+            JsonNode node = (isJson(document) ? Json.mapper() : Yaml.mapper()).readTree(document);
+            if (node != null && !node.has(SWAGGER_VERSION_FIELD) && file != null) {
+                // e.g. a Swagger 1.2 spec, which only the compat spec parser behind SwaggerParser can convert
+                return new SwaggerParser().read(file);
+            }
+            Validate.isTrue(node != null && node.has(SWAGGER_VERSION_FIELD), "The document is not a Swagger 2.0 spec");
+            Swagger swagger = new SwaggerDeserializer().deserialize(node).getSwagger();
+            return new SwaggerResolver(swagger, null, parentLocation).resolve();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read spec", e);
+        }
+    }
+
+    private static InputStream decompressed(InputStream in) throws IOException {
+        in.mark(Integer.BYTES);
+        int magic = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            magic = magic << 8 | (in.read() & 0xff);
+        }
+        in.reset();
+        if (magic >>> 16 == GZIP_MAGIC) {
+            return markable(new GZIPInputStream(in));
+        }
+        if (magic == ZSTD_MAGIC) {
+            try {
+                return markable(Zstd.decompressed(in));
+            } catch (NoClassDefFoundError e) {
+                throw new IllegalStateException("Reading Zstandard compressed specs requires com.github.luben:zstd-jni on the classpath", e);
+            }
+        }
+        return in;
+    }
+
+    private static boolean isJson(InputStream in) throws IOException {
+        in.mark(SNIFF_LIMIT);
+        try {
+            for (int i = 0; i < SNIFF_LIMIT; i++) {
+                int c = in.read();
+                if (c == -1 || !Character.isWhitespace(c) && !isByteOrderMark(c)) {
+                    return c == '{' || c == '[';
+                }
+            }
+            return false;
+        } finally {
+            in.reset();
+        }
+    }
+
+    private static boolean isByteOrderMark(int c) {
+        return c == 0xef || c == 0xbb || c == 0xbf;
+    }
+
+    private static InputStream markable(InputStream in) {
+        return in.markSupported() ? in : new BufferedInputStream(in);
+    }
+
+    /**
+     * Keeps the reference to the optional zstd-jni library out of the loader, so that it is only resolved once a
+     * Zstandard compressed spec is read.
+     */
+    private static final class Zstd {
+
+        static InputStream decompressed(InputStream in) throws IOException {
+            return new ZstdInputStream(in);
+        }
+    }
+}
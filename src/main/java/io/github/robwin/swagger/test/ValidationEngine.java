@@ -0,0 +1,106 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Swagger;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates specs against one actual spec, see {@link SwaggerAssert}.
+ * <p>
+ * The engine is configured once and does not change afterwards, so one instance may run any number of validations,
+ * also concurrently from several threads. Every validation gets a validator of its own, which holds the state of that
+ * run: the collected errors, the report, the error budget, the metrics and the listener. What only depends on the
+ * actual spec, the resolved properties of its definitions, is worked out on first use and shared by all validations.
+ * </p>
+ * <p>
+ * Files named in the configuration, i.e. the report, the metrics and the incremental validation state, are written by
+ * every validation, so validations which run at the same time should not share such a configuration.
+ * </p>
+ */
+final class ValidationEngine {
+
+    private final Swagger actual;
+    private final SwaggerAssertionConfig assertionConfig;
+    private volatile SchemaObjectResolver actualResolver;
+
+    ValidationEngine(Swagger actual, SwaggerAssertionConfig assertionConfig) {
+        this.actual = actual;
+        this.assertionConfig = assertionConfig;
+    }
+
+    SwaggerAssertionConfig getAssertionConfig() {
+        return assertionConfig;
+    }
+
+    /**
+     * Runs a documentation-driven validation, see {@link DocumentationDrivenValidator}.
+     *
+     * @param expected expected spec
+     * @param metrics  measures the validation
+     * @param listener is told about the progress of the validation, may be {@code null}
+     * @throws AssertionError if the actual spec is not equal to the expected one
+     */
+    void validateDocumentation(Swagger expected, ValidationMetrics metrics, ValidationListener listener) {
+        new DocumentationDrivenValidator(actual, assertionConfig).validateSwagger(expected, resolverFor(expected, metrics), metrics, listener);
+    }
+
+    /**
+     * Runs a consumer-driven validation, see {@link ConsumerDrivenValidator}.
+     *
+     * @param expected consumer contract
+     * @param metrics  measures the validation
+     * @param listener is told about the progress of the validation, may be {@code null}
+     * @throws AssertionError if the actual spec does not satisfy the contract
+     */
+    void validateContract(Swagger expected, ValidationMetrics metrics, ValidationListener listener) {
+        new ConsumerDrivenValidator(actual, assertionConfig).validateSwagger(expected, resolverFor(expected, metrics), metrics, listener);
+    }
+
+    /**
+     * @param contracts contracts by consumer name
+     * @return the error messages of each consumer, see {@link ConsumerDrivenValidator#validateContracts(Map, SchemaObjectResolver)}
+     */
+    Map<String, List<String>> validateContracts(Map<String, Swagger> contracts) {
+        return new ConsumerDrivenValidator(actual, assertionConfig).validateContracts(contracts, actualResolver());
+    }
+
+    private SchemaObjectResolver resolverFor(Swagger expected, ValidationMetrics metrics) {
+        try (ValidationMetrics.Span ignored = metrics.start(ValidationMetrics.Phase.RESOLUTION)) {
+            return actualResolver().withExpected(expected, metrics);
+        }
+    }
+
+    private SchemaObjectResolver actualResolver() {
+        SchemaObjectResolver resolver = actualResolver;
+        if (resolver == null) {
+            synchronized (this) {
+                resolver = actualResolver;
+                if (resolver == null) {
+                    // its expected side is never used, every validation gets a resolver of its own which shares the actual side
+                    resolver = new SchemaObjectResolver(new Swagger(), actual);
+                    actualResolver = resolver;
+                }
+            }
+        }
+        return resolver;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+/**
+ * Receives the results of a validation as the validators produce them, e.g. to stream them into a dashboard or to
+ * aggregate them across many specs. Register it with {@link SwaggerAssert#withListener(ValidationListener)}.
+ * <p>
+ * All methods do nothing by default. If paths and definitions are validated in parallel, see
+ * {@link SwaggerAssertionConfig#getParallelism()}, the methods are called from several threads at once. Checks of a path
+ * or definition which is re-validated for the incremental validation state, see
+ * {@link SwaggerAssertionConfig#getStateFile()}, are only reported once they fail, as are failed checks taken from the
+ * state.
+ * </p>
+ */
+public interface ValidationListener {
+
+    /**
+     * Called before the operations of a path are validated.
+     *
+     * @param path name of the path, including the base path
+     */
+    default void pathStarted(String path) {
+    }
+
+    /**
+     * Called after the operations of a path are validated.
+     *
+     * @param path name of the path, including the base path
+     */
+    default void pathFinished(String path) {
+    }
+
+    /**
+     * Called after a definition is compared.
+     *
+     * @param definition name of the definition
+     */
+    default void definitionCompared(String definition) {
+    }
+
+    /**
+     * Called for every check which passed.
+     *
+     * @param type       kind of check
+     * @param path       path the check belongs to, {@code null} outside of paths
+     * @param method     HTTP method of the operation the check belongs to, {@code null} outside of operations
+     * @param definition definition the check belongs to, {@code null} outside of definitions
+     * @param property   property the check belongs to, {@code null} outside of properties
+     */
+    default void checkPassed(SwaggerAssertionType type, String path, String method, String definition, String property) {
+    }
+
+    /**
+     * Called for every check which failed, unless the validation already stopped after
+     * {@link SwaggerAssertionConfig#getMaxErrors()} failed checks.
+     *
+     * @param violation the failed check
+     */
+    default void checkFailed(Violation violation) {
+    }
+
+    /**
+     * Polled before each path, operation and definition, so that a listener can end a validation early. The checks which
+     * failed so far are reported as usual.
+     *
+     * @return {@code true} to skip the paths, operations and definitions not yet started
+     */
+    default boolean isStopRequested() {
+        return false;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+/**
+ * Where in the schemas a validator currently is, so that a failed check can be reported with its path, operation,
+ * definition and property. The validators move it along as they walk the schemas; it is only read when a check fails
+ * and a report is written, see {@link ValidationReport}.
+ */
+final class ValidationLocation {
+
+    private SwaggerAssertionType type;
+    private String path;
+    private String method;
+    private String definition;
+    private String property;
+
+    /**
+     * Starts a top-level check, e.g. the paths or the definitions.
+     */
+    void at(SwaggerAssertionType type) {
+        this.type = type;
+        this.path = null;
+        this.method = null;
+        this.definition = null;
+        this.property = null;
+    }
+
+    SwaggerAssertionType type() {
+        return type;
+    }
+
+    String path() {
+        return path;
+    }
+
+    String method() {
+        return method;
+    }
+
+    String definition() {
+        return definition;
+    }
+
+    String property() {
+        return property;
+    }
+
+    void atPath(String path) {
+        at(SwaggerAssertionType.PATHS);
+        this.path = path;
+    }
+
+    void atMethod(String method) {
+        this.method = method;
+        this.property = null;
+    }
+
+    void atDefinition(String definition) {
+        at(SwaggerAssertionType.DEFINITIONS);
+        this.definition = definition;
+    }
+
+    void atProperty(String property) {
+        this.property = property;
+    }
+
+    Violation violation(SwaggerAssertionType checkType, String message, Object expected, Object actual) {
+        return new Violation(checkType != null ? checkType : type, path, method, definition, property,
+                expected == null ? null : String.valueOf(expected), actual == null ? null : String.valueOf(actual), message);
+    }
+}
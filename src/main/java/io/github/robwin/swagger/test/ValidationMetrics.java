@@ -0,0 +1,360 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Where a validation spent its time, see {@link SwaggerAssert#getMetrics()}. Collected only if
+ * {@link SwaggerAssertionConfig#isMetricsEnabled()}, otherwise all values are zero.
+ * <p>
+ * Phases nest: the time of {@link Phase#PATHS} includes the parameters, responses and response properties of the
+ * paths, the time of {@link Phase#DEFINITIONS} the resolution and properties of the definitions. Phases which run in
+ * parallel, see {@link SwaggerAssertionConfig#getParallelism()}, add up the time of all threads. Allocated bytes are
+ * measured per thread with the {@code ThreadMXBean} of the JVM and are {@code -1} where it cannot measure them.
+ * </p>
+ */
+public final class ValidationMetrics {
+
+    /**
+     * A part of the validation which is measured on its own.
+     */
+    public enum Phase {
+        /** Reading and parsing the expected spec. */
+        LOADING,
+        /** Resolving the properties of definitions, following {@code $ref}s and {@code allOf} compositions. */
+        RESOLUTION,
+        /** Validating paths, one measurement per path. */
+        PATHS,
+        /** Validating definitions, one measurement per definition. */
+        DEFINITIONS,
+        /** Validating the parameters of operations, one measurement per operation. */
+        PARAMETERS,
+        /** Validating the responses of operations, one measurement per operation. */
+        RESPONSES,
+        /** Validating properties of definitions and responses, one measurement per property. */
+        PROPERTIES
+    }
+
+    static final ValidationMetrics DISABLED = new ValidationMetrics(false, 0);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final com.sun.management.ThreadMXBean THREADS = allocationMeasuringThreadMXBean();
+    private static final Comparator<Entry> BY_WALL_TIME = Comparator.comparingLong(Entry::getWallTimeNanos);
+
+    private final boolean enabled;
+    private final int slowestEntries;
+    private final AtomicLongArray measurements = new AtomicLongArray(Phase.values().length);
+    private final AtomicLongArray wallTimeNanos = new AtomicLongArray(Phase.values().length);
+    private final AtomicLongArray allocatedBytes = new AtomicLongArray(Phase.values().length);
+    private final AtomicLongArray checks = new AtomicLongArray(SwaggerAssertionType.values().length);
+    private final PriorityQueue<Entry> slowestPaths = new PriorityQueue<>(BY_WALL_TIME);
+    private final PriorityQueue<Entry> slowestDefinitions = new PriorityQueue<>(BY_WALL_TIME);
+
+    private ValidationMetrics(boolean enabled, int slowestEntries) {
+        this.enabled = enabled;
+        this.slowestEntries = slowestEntries;
+    }
+
+    /**
+     * @param assertionConfig assertion configuration
+     * @return new metrics for one validation, {@link #DISABLED} if the configuration does not ask for metrics
+     */
+    static ValidationMetrics of(SwaggerAssertionConfig assertionConfig) {
+        return assertionConfig.isMetricsEnabled() ? new ValidationMetrics(true, assertionConfig.getSlowestEntries()) : DISABLED;
+    }
+
+    /**
+     * @return {@code false} if no metrics were collected
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param phase phase
+     * @return number of times the phase was measured, e.g. the number of validated paths
+     */
+    public long getMeasurements(Phase phase) {
+        return measurements.get(phase.ordinal());
+    }
+
+    /**
+     * @param phase phase
+     * @return wall time spent in the phase, in nanoseconds
+     */
+    public long getWallTimeNanos(Phase phase) {
+        return wallTimeNanos.get(phase.ordinal());
+    }
+
+    /**
+     * @param phase phase
+     * @return bytes allocated in the phase, {@code -1} if the JVM cannot measure them
+     */
+    public long getAllocatedBytes(Phase phase) {
+        return THREADS == null ? -1 : allocatedBytes.get(phase.ordinal());
+    }
+
+    /**
+     * @param type kind of check
+     * @return number of checks of that kind which were run, passed or failed
+     */
+    public long getChecks(SwaggerAssertionType type) {
+        return checks.get(type.ordinal());
+    }
+
+    /**
+     * @return the slowest paths, slowest first, at most {@link SwaggerAssertionConfig#getSlowestEntries()}
+     */
+    public List<Entry> getSlowestPaths() {
+        return sorted(slowestPaths);
+    }
+
+    /**
+     * @return the slowest definitions, slowest first, at most {@link SwaggerAssertionConfig#getSlowestEntries()}
+     */
+    public List<Entry> getSlowestDefinitions() {
+        return sorted(slowestDefinitions);
+    }
+
+    /**
+     * @return the metrics as a JSON object with the fields {@code phases}, {@code checks}, {@code slowestPaths} and
+     * {@code slowestDefinitions}
+     */
+    public String toJson() {
+        StringWriter json = new StringWriter();
+        try {
+            writeJson(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Writes {@link #toJson()} to a file, replacing an existing one.
+     */
+    void writeJson(String file) {
+        Path path = Paths.get(file);
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                writeJson(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write validation metrics " + path, e);
+        }
+    }
+
+    private void writeJson(Writer out) throws IOException {
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(out)) {
+            json.useDefaultPrettyPrinter();
+            json.writeStartObject();
+            json.writeObjectFieldStart("phases");
+            for (Phase phase : Phase.values()) {
+                json.writeObjectFieldStart(phase.name());
+                json.writeNumberField("measurements", getMeasurements(phase));
+                json.writeNumberField("wallTimeNanos", getWallTimeNanos(phase));
+                json.writeNumberField("allocatedBytes", getAllocatedBytes(phase));
+                json.writeEndObject();
+            }
+            json.writeEndObject();
+            json.writeObjectFieldStart("checks");
+            for (SwaggerAssertionType type : SwaggerAssertionType.values()) {
+                json.writeNumberField(type.name(), getChecks(type));
+            }
+            json.writeEndObject();
+            writeEntries(json, "slowestPaths", getSlowestPaths());
+            writeEntries(json, "slowestDefinitions", getSlowestDefinitions());
+            json.writeEndObject();
+        }
+    }
+
+    private static void writeEntries(JsonGenerator json, String name, List<Entry> entries) throws IOException {
+        json.writeArrayFieldStart(name);
+        for (Entry entry : entries) {
+            json.writeStartObject();
+            json.writeStringField("name", entry.getName());
+            json.writeNumberField("wallTimeNanos", entry.getWallTimeNanos());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    /**
+     * Starts measuring a phase. Disabled metrics return a span which measures nothing, so that instrumented code
+     * neither reads the clock nor allocates.
+     *
+     * @param phase phase
+     * @return span to close when the phase ends
+     */
+    Span start(Phase phase) {
+        return start(phase, null);
+    }
+
+    /**
+     * @param phase phase
+     * @param name  path or definition measured, which may then be one of the slowest
+     * @return span to close when the phase ends
+     */
+    Span start(Phase phase, String name) {
+        return enabled ? new Span(this, phase, name) : Span.NONE;
+    }
+
+    void countCheck(SwaggerAssertionType type) {
+        if (enabled && type != null) {
+            checks.incrementAndGet(type.ordinal());
+        }
+    }
+
+    private void record(Phase phase, String name, long nanos, long bytes) {
+        measurements.incrementAndGet(phase.ordinal());
+        wallTimeNanos.addAndGet(phase.ordinal(), nanos);
+        allocatedBytes.addAndGet(phase.ordinal(), bytes);
+        if (name != null && slowestEntries > 0) {
+            if (phase == Phase.PATHS) {
+                keepSlowest(slowestPaths, new Entry(name, nanos));
+            } else if (phase == Phase.DEFINITIONS) {
+                keepSlowest(slowestDefinitions, new Entry(name, nanos));
+            }
+        }
+    }
+
+    private void keepSlowest(PriorityQueue<Entry> slowest, Entry entry) {
+        synchronized (slowest) {
+            if (slowest.size() < slowestEntries) {
+                slowest.add(entry);
+            } else if (slowest.peek().getWallTimeNanos() < entry.getWallTimeNanos()) {
+                slowest.poll();
+                slowest.add(entry);
+            }
+        }
+    }
+
+    private static List<Entry> sorted(PriorityQueue<Entry> slowest) {
+        List<Entry> entries;
+        synchronized (slowest) {
+            entries = new ArrayList<>(slowest);
+        }
+        entries.sort(Collections.reverseOrder(BY_WALL_TIME));
+        return entries;
+    }
+
+    private static long threadAllocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationMeasuringThreadMXBean() {
+        try {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+                    && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled()) {
+                return (com.sun.management.ThreadMXBean) threads;
+            }
+        } catch (LinkageError | RuntimeException e) {
+            // not a HotSpot-based JVM, allocations are not measured
+        }
+        return null;
+    }
+
+    /**
+     * A path or definition and the wall time spent validating it.
+     */
+    public static final class Entry {
+
+        private final String name;
+        private final long wallTimeNanos;
+
+        Entry(String name, long wallTimeNanos) {
+            this.name = name;
+            this.wallTimeNanos = wallTimeNanos;
+        }
+
+        /**
+         * @return name of the path or definition
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return wall time spent validating it, in nanoseconds
+         */
+        public long getWallTimeNanos() {
+            return wallTimeNanos;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + wallTimeNanos + "ns";
+        }
+    }
+
+    /**
+     * One measurement of a phase, to be closed when the phase ends, e.g. with try-with-resources.
+     */
+    static final class Span implements AutoCloseable {
+
+        static final Span NONE = new Span(null, null, null);
+
+        private final ValidationMetrics metrics;
+        private final Phase phase;
+        private final String name;
+        private final long startNanos;
+        private final long startBytes;
+
+        private Span(ValidationMetrics metrics, Phase phase, String name) {
+            this.metrics = metrics;
+            this.phase = phase;
+            this.name = name;
+            this.startBytes = metrics == null ? 0 : threadAllocatedBytes();
+            this.startNanos = metrics == null ? 0 : System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            if (metrics != null) {
+                long nanos = System.nanoTime() - startNanos;
+                metrics.record(phase, name, nanos, threadAllocatedBytes() - startBytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The checks a validator runs for a given {@link SwaggerAssertionConfig}, worked out once from its assertion flags.
+ * <p>
+ * {@link #getSteps()} lists the top-level checks in the order they run; a disabled check is not part of the plan. If
+ * the number of errors is limited, see {@link SwaggerAssertionConfig#getMaxErrors()}, the cheap key set checks of paths
+ * and definitions run before the paths and definitions are compared in depth, so that a validation which stops early
+ * stops on the errors which are found fastest.
+ * {@link #getOperationSteps()} lists the operations compared for every path. The finer flags are resolved into plain
+ * fields, so a check reads a field instead of looking up a flag. Plans are immutable and shared by all configurations
+ * with the same flags.
+ * </p>
+ */
+final class ValidationPlan {
+
+    /**
+     * Top-level checks, in the order they run unless cheap checks run first.
+     */
+    enum Step {
+        VERSION,
+        INFO,
+        /**
+         * Compares the key sets of the paths.
+         */
+        PATH_KEYS,
+        /**
+         * Compares the paths one by one, after {@link #PATH_KEYS}.
+         */
+        PATHS,
+        /**
+         * Compares the key sets of the definitions.
+         */
+        DEFINITION_KEYS,
+        /**
+         * Compares the definitions one by one, after {@link #DEFINITION_KEYS}.
+         */
+        DEFINITIONS
+    }
+
+    /**
+     * Compares one operation of a path.
+     */
+    static final class OperationStep {
+
+        private final String httpMethod;
+        private final Function<Path, Operation> operation;
+
+        private OperationStep(String httpMethod, Function<Path, Operation> operation) {
+            this.httpMethod = httpMethod;
+            this.operation = operation;
+        }
+
+        String getHttpMethod() {
+            return httpMethod;
+        }
+
+        Operation operationOf(Path path) {
+            return operation.apply(path);
+        }
+
+        @Override
+        public String toString() {
+            return httpMethod;
+        }
+    }
+
+    private static final List<OperationStep> OPERATION_STEPS = Collections.unmodifiableList(Arrays.asList(
+            new OperationStep("GET", Path::getGet),
+            new OperationStep("DELETE", Path::getDelete),
+            new OperationStep("POST", Path::getPost),
+            new OperationStep("PUT", Path::getPut),
+            new OperationStep("PATCH", Path::getPatch),
+            new OperationStep("OPTIONS", Path::getOptions)));
+
+    private static final Map<Set<SwaggerAssertionType>, ValidationPlan> PLANS = new ConcurrentHashMap<>();
+    private static final Map<Set<SwaggerAssertionType>, ValidationPlan> CHEAP_CHECKS_FIRST_PLANS = new ConcurrentHashMap<>();
+
+    private final List<Step> steps;
+    private final boolean modelsValidated;
+    private final boolean propertiesValidated;
+    private final boolean stringEnumsValidated;
+    private final boolean responsesStrictlyMatched;
+
+    private ValidationPlan(Set<SwaggerAssertionType> enabled, boolean cheapChecksFirst) {
+        List<Step> plannedSteps = new ArrayList<>(Step.values().length);
+        boolean paths = enabled.contains(SwaggerAssertionType.PATHS);
+        boolean definitions = enabled.contains(SwaggerAssertionType.DEFINITIONS);
+        if (enabled.contains(SwaggerAssertionType.VERSION)) {
+            plannedSteps.add(Step.VERSION);
+        }
+        if (enabled.contains(SwaggerAssertionType.INFO)) {
+            plannedSteps.add(Step.INFO);
+        }
+        if (cheapChecksFirst) {
+            if (paths) {
+                plannedSteps.add(Step.PATH_KEYS);
+            }
+            if (definitions) {
+                plannedSteps.add(Step.DEFINITION_KEYS);
+            }
+            if (paths) {
+                plannedSteps.add(Step.PATHS);
+            }
+        } else if (paths) {
+            plannedSteps.add(Step.PATH_KEYS);
+            plannedSteps.add(Step.PATHS);
+        }
+        if (definitions) {
+            if (!cheapChecksFirst) {
+                plannedSteps.add(Step.DEFINITION_KEYS);
+            }
+            plannedSteps.add(Step.DEFINITIONS);
+        }
+        this.steps = Collections.unmodifiableList(plannedSteps);
+        this.modelsValidated = enabled.contains(SwaggerAssertionType.MODELS);
+        this.propertiesValidated = enabled.contains(SwaggerAssertionType.PROPERTIES);
+        // ref, array and byte array properties get the basic checks whether their flag is set or not
+        this.stringEnumsValidated = propertiesValidated && enabled.contains(SwaggerAssertionType.STRING_PROPERTIES);
+        this.responsesStrictlyMatched = enabled.contains(SwaggerAssertionType.STRICT_VALIDATION_ON_PATH);
+    }
+
+    /**
+     * @param assertionConfig assertion configuration
+     * @return the plan for the assertion flags of the configuration
+     */
+    static ValidationPlan of(SwaggerAssertionConfig assertionConfig) {
+        Set<SwaggerAssertionType> enabled = EnumSet.noneOf(SwaggerAssertionType.class);
+        for (SwaggerAssertionType assertionType : SwaggerAssertionType.values()) {
+            if (assertionConfig.swaggerAssertionEnabled(assertionType)) {
+                enabled.add(assertionType);
+            }
+        }
+        if (assertionConfig.getMaxErrors() > 0) {
+            return CHEAP_CHECKS_FIRST_PLANS.computeIfAbsent(enabled, flags -> new ValidationPlan(flags, true));
+        }
+        return PLANS.computeIfAbsent(enabled, flags -> new ValidationPlan(flags, false));
+    }
+
+    List<Step> getSteps() {
+        return steps;
+    }
+
+    List<OperationStep> getOperationSteps() {
+        return OPERATION_STEPS;
+    }
+
+    boolean isModelsValidated() {
+        return modelsValidated;
+    }
+
+    boolean isPropertiesValidated() {
+        return propertiesValidated;
+    }
+
+    boolean isStringEnumsValidated() {
+        return stringEnumsValidated;
+    }
+
+    boolean isResponsesStrictlyMatched() {
+        return responsesStrictlyMatched;
+    }
+
+    @Override
+    public String toString() {
+        return "steps=" + steps + ", operations=" + OPERATION_STEPS + ", models=" + modelsValidated + ", properties="
+                + propertiesValidated + ", stringEnums=" + stringEnumsValidated + ", strictResponses=" + responsesStrictlyMatched;
+    }
+}
@@ -0,0 +1,417 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes the failed checks of one validation to a file as they are found, see
+ * {@link SwaggerAssertionConfig#getReportFile()}.
+ * <p>
+ * Every {@link Violation} goes straight through a buffered writer to the file, and only the number of violations per
+ * {@link SwaggerAssertionType} is kept, so the memory a validation takes no longer grows with the number of errors.
+ * The {@code AssertionError} of a failed validation then only summarizes the report, see {@link #assertNoViolations()}.
+ * </p>
+ * <p>
+ * The tasks of a parallel validation write to reports of their own, see {@link #buffer()}, whose violations are added to
+ * the report of the validation in item order once all tasks are done, so the file lists the violations in the same
+ * order as a sequential run.
+ * </p>
+ */
+final class ValidationReport implements Closeable {
+
+    /**
+     * File formats of the report.
+     */
+    enum Format {
+        /**
+         * One JSON object per violation and line.
+         */
+        JSONL,
+        /**
+         * A JUnit XML test suite with a failed test case per violation, for CI servers which show JUnit results.
+         */
+        JUNIT,
+        /**
+         * A SARIF 2.1.0 log with a result per violation, for code scanning tools.
+         */
+        SARIF;
+
+        /**
+         * @param name     format name, {@code jsonl}, {@code junit} or {@code sarif}; {@code null} to derive the format
+         *                 from the extension of {@code file}
+         * @param file     report file
+         * @return the format
+         */
+        static Format of(String name, String file) {
+            if (name != null) {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            }
+            String lowerCaseFile = file.toLowerCase(Locale.ROOT);
+            if (lowerCaseFile.endsWith(".xml")) {
+                return JUNIT;
+            }
+            if (lowerCaseFile.endsWith(".sarif") || lowerCaseFile.endsWith(".sarif.json")) {
+                return SARIF;
+            }
+            return JSONL;
+        }
+    }
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Path file;
+    private final ReportWriter writer;
+    private final Map<SwaggerAssertionType, Integer> violationCounts = new EnumMap<>(SwaggerAssertionType.class);
+    private int violationCount;
+
+    private ValidationReport(Path file, ReportWriter writer) {
+        this.file = file;
+        this.writer = writer;
+    }
+
+    /**
+     * Opens the report file of a validation, replacing an existing one.
+     *
+     * @param assertionConfig assertion configuration
+     * @param validation      name of the validation, e.g. {@code documentation-driven}
+     * @return the report, {@code null} if the configuration has no report file
+     */
+    static ValidationReport open(SwaggerAssertionConfig assertionConfig, String validation) {
+        if (assertionConfig.getReportFile() == null) {
+            return null;
+        }
+        Path file = Paths.get(assertionConfig.getReportFile());
+        Format format = Format.of(assertionConfig.getReportFormat(), assertionConfig.getReportFile());
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            ReportWriter writer;
+            switch (format) {
+                case JUNIT:
+                    writer = new JUnitWriter(out, validation);
+                    break;
+                case SARIF:
+                    writer = new SarifWriter(out, validation);
+                    break;
+                default:
+                    writer = new JsonLinesWriter(out, validation);
+            }
+            return new ValidationReport(file, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open validation report " + file, e);
+        } catch (XMLStreamException e) {
+            throw new UncheckedIOException(new IOException("Failed to open validation report " + file, e));
+        }
+    }
+
+    /**
+     * Opens a report which keeps its violations in memory, for a task of a parallel validation.
+     *
+     * @return an empty report without a file
+     */
+    static ValidationReport buffer() {
+        return new ValidationReport(null, new BufferWriter());
+    }
+
+    /**
+     * @return {@code true} if the report was opened with {@link #buffer()}
+     */
+    boolean isBuffer() {
+        return writer instanceof BufferWriter;
+    }
+
+    /**
+     * @return the violations of a report opened with {@link #buffer()}, in the order they were added
+     */
+    List<Violation> getBufferedViolations() {
+        return ((BufferWriter) writer).violations;
+    }
+
+    synchronized void add(Violation violation) {
+        violationCount++;
+        violationCounts.merge(violation.getType(), 1, Integer::sum);
+        try {
+            writer.write(violation);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write validation report " + file, e);
+        } catch (XMLStreamException e) {
+            throw new UncheckedIOException(new IOException("Failed to write validation report " + file, e));
+        }
+    }
+
+    synchronized int getViolationCount() {
+        return violationCount;
+    }
+
+    /**
+     * Completes the file, e.g. closes the XML elements of a JUnit report, and closes it.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write validation report " + file, e);
+        } catch (XMLStreamException e) {
+            throw new UncheckedIOException(new IOException("Failed to write validation report " + file, e));
+        }
+    }
+
+    /**
+     * @throws AssertionError with the number of violations per {@link SwaggerAssertionType} and the report file, if
+     *                        there are any violations
+     */
+    synchronized void assertNoViolations() {
+        if (violationCount == 0) {
+            return;
+        }
+        StringBuilder message = new StringBuilder(LINE_SEPARATOR)
+                .append(violationCount).append(violationCount == 1 ? " assertion failed" : " assertions failed")
+                .append(", see ").append(file.toAbsolutePath()).append(':').append(LINE_SEPARATOR);
+        for (Map.Entry<SwaggerAssertionType, Integer> count : violationCounts.entrySet()) {
+            message.append("  ").append(count.getKey()).append(": ").append(count.getValue()).append(LINE_SEPARATOR);
+        }
+        throw new AssertionError(message.toString());
+    }
+
+    private interface ReportWriter {
+
+        void write(Violation violation) throws IOException, XMLStreamException;
+
+        void close() throws IOException, XMLStreamException;
+    }
+
+    /**
+     * @return {@code Pet.name} for a property, {@code GET /pets} for an operation, {@code null} outside of paths and
+     * definitions
+     */
+    private static String locationOf(Violation violation) {
+        if (violation.getDefinition() != null) {
+            return violation.getDefinition() + (violation.getProperty() != null ? "." + violation.getProperty() : "");
+        }
+        if (violation.getPath() != null) {
+            return (violation.getMethod() != null ? violation.getMethod() + " " : "") + violation.getPath();
+        }
+        return null;
+    }
+
+    private static void writeFields(JsonGenerator json, Violation violation) throws IOException {
+        writeField(json, "path", violation.getPath());
+        writeField(json, "method", violation.getMethod());
+        writeField(json, "definition", violation.getDefinition());
+        writeField(json, "property", violation.getProperty());
+        writeField(json, "expected", violation.getExpected());
+        writeField(json, "actual", violation.getActual());
+    }
+
+    private static void writeField(JsonGenerator json, String name, String value) throws IOException {
+        if (value != null) {
+            json.writeStringField(name, value);
+        }
+    }
+
+    private static final class BufferWriter implements ReportWriter {
+
+        private final List<Violation> violations = new ArrayList<>();
+
+        @Override
+        public void write(Violation violation) {
+            violations.add(violation);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class JsonLinesWriter implements ReportWriter {
+
+        private final JsonGenerator json;
+        private final String validation;
+
+        JsonLinesWriter(Writer out, String validation) throws IOException {
+            this.json = JSON_FACTORY.createGenerator(out);
+            this.json.setRootValueSeparator(null);
+            this.validation = validation;
+        }
+
+        @Override
+        public void write(Violation violation) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("validation", validation);
+            json.writeStringField("type", violation.getType().name());
+            writeFields(json, violation);
+            json.writeStringField("message", violation.getMessage());
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.close();
+        }
+    }
+
+    /**
+     * Writes the SARIF log as one JSON document whose results array stays open until the report is closed.
+     */
+    private static final class SarifWriter implements ReportWriter {
+
+        private final JsonGenerator json;
+
+        SarifWriter(Writer out, String validation) throws IOException {
+            this.json = JSON_FACTORY.createGenerator(out);
+            json.writeStartObject();
+            json.writeStringField("$schema", "https://json.schemastore.org/sarif-2.1.0.json");
+            json.writeStringField("version", "2.1.0");
+            json.writeArrayFieldStart("runs");
+            json.writeStartObject();
+            json.writeObjectFieldStart("tool");
+            json.writeObjectFieldStart("driver");
+            json.writeStringField("name", "assertj-swagger");
+            json.writeStringField("informationUri", "https://github.com/RobWin/assertj-swagger");
+            json.writeArrayFieldStart("rules");
+            for (SwaggerAssertionType type : SwaggerAssertionType.values()) {
+                json.writeStartObject();
+                json.writeStringField("id", type.name());
+                json.writeObjectFieldStart("shortDescription");
+                json.writeStringField("text", type.getBarePropertyName());
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndObject();
+            json.writeObjectFieldStart("automationDetails");
+            json.writeStringField("id", validation);
+            json.writeEndObject();
+            json.writeArrayFieldStart("results");
+        }
+
+        @Override
+        public void write(Violation violation) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("ruleId", violation.getType().name());
+            json.writeStringField("level", "error");
+            json.writeObjectFieldStart("message");
+            json.writeStringField("text", violation.getMessage());
+            json.writeEndObject();
+            String location = locationOf(violation);
+            if (location != null) {
+                json.writeArrayFieldStart("locations");
+                json.writeStartObject();
+                json.writeArrayFieldStart("logicalLocations");
+                json.writeStartObject();
+                json.writeStringField("fullyQualifiedName", location);
+                json.writeEndObject();
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeEndArray();
+            }
+            json.writeObjectFieldStart("properties");
+            writeFields(json, violation);
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndArray();
+            json.writeEndObject();
+            json.close();
+        }
+    }
+
+    /**
+     * Writes a JUnit test suite with one failed test case per violation. The suite has no test and failure counts as
+     * they are only known at the end; CI servers count the test cases themselves.
+     */
+    private static final class JUnitWriter implements ReportWriter {
+
+        private final Writer out;
+        private final XMLStreamWriter xml;
+        private final String validation;
+
+        JUnitWriter(Writer out, String validation) throws XMLStreamException {
+            this.out = out;
+            this.xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+            this.validation = validation;
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeCharacters("\n");
+            xml.writeStartElement("testsuite");
+            xml.writeAttribute("name", "assertj-swagger " + validation);
+            xml.writeCharacters("\n");
+        }
+
+        @Override
+        public void write(Violation violation) throws XMLStreamException {
+            xml.writeCharacters("  ");
+            xml.writeStartElement("testcase");
+            xml.writeAttribute("classname", validation + "." + violation.getType().name());
+            String location = locationOf(violation);
+            xml.writeAttribute("name", location != null ? location : violation.getType().getBarePropertyName());
+            xml.writeStartElement("failure");
+            xml.writeAttribute("type", violation.getType().name());
+            if (violation.getExpected() != null) {
+                xml.writeAttribute("expected", violation.getExpected());
+            }
+            if (violation.getActual() != null) {
+                xml.writeAttribute("actual", violation.getActual());
+            }
+            xml.writeCharacters(violation.getMessage());
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeCharacters("\n");
+        }
+
+        @Override
+        public void close() throws XMLStreamException, IOException {
+            xml.writeEndElement();
+            xml.writeCharacters("\n");
+            xml.writeEndDocument();
+            xml.close();
+            out.close();
+        }
+    }
+}
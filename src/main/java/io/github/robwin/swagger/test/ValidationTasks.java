@@ -0,0 +1,203 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import org.assertj.core.api.SoftAssertions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Splits the validation of independent items, e.g. paths, definitions or consumer contracts, across a fork-join pool.
+ * <p>
+ * Every task validates a contiguous range of items with a validator of its own, which collects the errors in its own
+ * {@link SoftAssertions} or report. The validators of all ranges are then handed back in item order, so that the
+ * caller can merge their errors into its own in that order, and the error report lists the same errors in the same
+ * order as a sequential run. Only the source location AssertJ adds to every error message differs: it points to the
+ * merge instead of the assertion in the validator.
+ * </p>
+ * <p>
+ * The tasks run in the common fork-join pool if its parallelism is the requested one. Otherwise they run in a pool
+ * kept for the requested parallelism, so that repeated assertions do not start new threads. Such a pool holds no
+ * threads while it is idle: its daemon worker threads end after a short idle time, like those of the common pool, and
+ * are started again on demand, so a kept pool neither pins threads nor keeps the JVM from exiting.
+ * </p>
+ */
+final class ValidationTasks {
+
+    private static final int RANGES_PER_THREAD = 4;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();   // by parallelism
+
+    private ValidationTasks() {
+    }
+
+    /**
+     * Validates all items in parallel.
+     *
+     * @param items         items to validate
+     * @param parallelism   number of threads
+     * @param taskValidator creates a validator which collects the errors of one range of items
+     * @param validation    validates one item
+     * @param <V>           validator type
+     * @param <T>           item type
+     * @return the validators of the ranges, in item order
+     */
+    static <V, T> List<V> forEach(List<T> items, int parallelism, Supplier<V> taskValidator, BiConsumer<V, T> validation) {
+        int rangeSize = Math.max(1, items.size() / (parallelism * RANGES_PER_THREAD));
+        return invoke(parallelism, new RangeTask<>(items, 0, items.size(), rangeSize, taskValidator, validation));
+    }
+
+    /**
+     * Applies a function to all items, in parallel if {@code parallelism} is greater than one.
+     *
+     * @param items       items
+     * @param parallelism number of threads
+     * @param function    function to apply to each item
+     * @param <T>         item type
+     * @param <R>         result type
+     * @return the results, in item order
+     */
+    static <T, R> List<R> map(List<T> items, int parallelism, Function<T, R> function) {
+        if (parallelism <= 1 || items.size() <= 1) {
+            List<R> results = new ArrayList<>(items.size());
+            for (T item : items) {
+                results.add(function.apply(item));
+            }
+            return results;
+        }
+        return invoke(parallelism, new MapTask<>(items, 0, items.size(), function));
+    }
+
+    private static <R> R invoke(int parallelism, ForkJoinTask<R> task) {
+        return poolOf(parallelism).invoke(task);
+    }
+
+    static ForkJoinPool poolOf(int parallelism) {
+        if (parallelism == ForkJoinPool.getCommonPoolParallelism()) {
+            return ForkJoinPool.commonPool();
+        }
+        return POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+
+    /**
+     * Returns the messages of the errors collected so far, to be merged into other {@code SoftAssertions} with
+     * {@code fail}. The source location which {@link SoftAssertions#errorsCollected()} appends to each message is
+     * stripped, {@code fail} appends a new one.
+     *
+     * @param softAssertions soft assertions
+     * @return error messages
+     */
+    static List<String> errorMessagesOf(SoftAssertions softAssertions) {
+        List<String> errorMessages = new ArrayList<>();
+        for (Throwable error : softAssertions.errorsCollected()) {
+            errorMessages.add(withoutLocation(error.getMessage()));
+        }
+        return errorMessages;
+    }
+
+    static String withoutLocation(String errorMessage) {
+        int lastLine = errorMessage.lastIndexOf(LINE_SEPARATOR + "at ");
+        return lastLine < 0 ? errorMessage : errorMessage.substring(0, lastLine);
+    }
+
+    private static class RangeTask<V, T> extends RecursiveTask<List<V>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> items;
+        private final int from;
+        private final int to;
+        private final int rangeSize;
+        private final Supplier<V> taskValidator;
+        private final BiConsumer<V, T> validation;
+
+        RangeTask(List<T> items, int from, int to, int rangeSize, Supplier<V> taskValidator, BiConsumer<V, T> validation) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.rangeSize = rangeSize;
+            this.taskValidator = taskValidator;
+            this.validation = validation;
+        }
+
+        @Override
+        protected List<V> compute() {
+            if (to - from <= rangeSize) {
+                V validator = taskValidator.get();
+                for (int i = from; i < to; i++) {
+                    validation.accept(validator, items.get(i));
+                }
+                List<V> validators = new ArrayList<>(1);
+                validators.add(validator);
+                return validators;
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask<V, T> left = new RangeTask<>(items, from, middle, rangeSize, taskValidator, validation);
+            RangeTask<V, T> right = new RangeTask<>(items, middle, to, rangeSize, taskValidator, validation);
+            left.fork();
+            List<V> rightValidators = right.compute();
+            List<V> validators = new ArrayList<>(left.join());
+            validators.addAll(rightValidators);
+            return validators;
+        }
+    }
+
+    private static class MapTask<T, R> extends RecursiveTask<List<R>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> items;
+        private final int from;
+        private final int to;
+        private final Function<T, R> function;
+
+        MapTask(List<T> items, int from, int to, Function<T, R> function) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.function = function;
+        }
+
+        @Override
+        protected List<R> compute() {
+            if (to - from == 1) {
+                List<R> results = new ArrayList<>(1);
+                results.add(function.apply(items.get(from)));
+                return results;
+            }
+            int middle = (from + to) >>> 1;
+            MapTask<T, R> left = new MapTask<>(items, from, middle, function);
+            MapTask<T, R> right = new MapTask<>(items, middle, to, function);
+            left.fork();
+            List<R> rightResults = right.compute();
+            List<R> results = new ArrayList<>(left.join());
+            results.addAll(rightResults);
+            return results;
+        }
+    }
+}
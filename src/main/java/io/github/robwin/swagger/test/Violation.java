@@ -0,0 +1,107 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+/**
+ * A failed check, as written to the validation report, see {@link SwaggerAssertionConfig#getReportFile()}.
+ */
+public final class Violation {
+
+    private final SwaggerAssertionType type;
+    private final String path;
+    private final String method;
+    private final String definition;
+    private final String property;
+    private final String expected;
+    private final String actual;
+    private final String message;
+
+    Violation(SwaggerAssertionType type, String path, String method, String definition, String property,
+              String expected, String actual, String message) {
+        this.type = type;
+        this.path = path;
+        this.method = method;
+        this.definition = definition;
+        this.property = property;
+        this.expected = expected;
+        this.actual = actual;
+        this.message = message;
+    }
+
+    /**
+     * @return the kind of check which failed
+     */
+    public SwaggerAssertionType getType() {
+        return type;
+    }
+
+    /**
+     * @return path the check belongs to, {@code null} outside of paths
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return HTTP method of the operation the check belongs to, {@code null} outside of operations
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return definition the check belongs to, {@code null} outside of definitions
+     */
+    public String getDefinition() {
+        return definition;
+    }
+
+    /**
+     * @return property of the definition the check belongs to, {@code null} outside of properties
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * @return what the expected schema declares, {@code null} if the check has no single expected value
+     */
+    public String getExpected() {
+        return expected;
+    }
+
+    /**
+     * @return what the actual schema declares, {@code null} if the check has no single actual value
+     */
+    public String getActual() {
+        return actual;
+    }
+
+    /**
+     * @return the error message of the check, as it would appear in the {@code AssertionError}
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + message;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.properties.Property;
+
+import java.util.Arrays;
+
+/**
+ * Pairs of nested properties which are still to be compared, kept in arrays which grow as needed and are reused across
+ * comparisons, so that arbitrarily deep schemas are walked without recursion and without allocating per level. Also
+ * keeps the names of the properties on the way to the one being compared, by depth.
+ */
+final class WorkStack {
+
+    private Property[] actualProperties = new Property[16];
+    private Property[] expectedProperties = new Property[16];
+    private String[] names = new String[16];
+    private int[] depths = new int[16];
+    private int size;
+    private String[] path = new String[16];
+    private int depth;
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void push(Property actualProperty, Property expectedProperty, String name, int depth) {
+        if (size == depths.length) {
+            int capacity = size * 2;
+            actualProperties = Arrays.copyOf(actualProperties, capacity);
+            expectedProperties = Arrays.copyOf(expectedProperties, capacity);
+            names = Arrays.copyOf(names, capacity);
+            depths = Arrays.copyOf(depths, capacity);
+        }
+        actualProperties[size] = actualProperty;
+        expectedProperties[size] = expectedProperty;
+        names[size] = name;
+        depths[size] = depth;
+        size++;
+    }
+
+    /**
+     * Pops the top frame and makes its property the current one. Frames are popped depth first, so the names of all
+     * properties above the current one are still in the path.
+     *
+     * @return index of the frame, valid until the next push
+     */
+    int pop() {
+        int frame = --size;
+        depth = depths[frame];
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+        }
+        path[depth] = names[frame];
+        return frame;
+    }
+
+    Property actualProperty(int frame) {
+        return actualProperties[frame];
+    }
+
+    Property expectedProperty(int frame) {
+        return expectedProperties[frame];
+    }
+
+    int depth(int frame) {
+        return depths[frame];
+    }
+
+    void clear(int frame) {
+        actualProperties[frame] = null;
+        expectedProperties[frame] = null;
+        names[frame] = null;
+    }
+
+    /**
+     * Drops the frames above the given size, e.g. when a comparison has failed early.
+     */
+    void truncate(int newSize) {
+        while (size > newSize) {
+            clear(--size);
+        }
+    }
+
+    void reverse(int from) {
+        for (int i = from, j = size - 1; i < j; i++, j--) {
+            swap(actualProperties, i, j);
+            swap(expectedProperties, i, j);
+            swap(names, i, j);
+            int swappedDepth = depths[i];
+            depths[i] = depths[j];
+            depths[j] = swappedDepth;
+        }
+    }
+
+    private static <T> void swap(T[] array, int i, int j) {
+        T swapped = array[i];
+        array[i] = array[j];
+        array[j] = swapped;
+    }
+
+    String currentPath() {
+        StringBuilder currentPath = new StringBuilder();
+        for (int i = 1; i <= depth; i++) {
+            if (i > 1) {
+                currentPath.append('.');
+            }
+            currentPath.append(path[i]);
+        }
+        return currentPath.toString();
+    }
+}
@@ -18,13 +18,27 @@
  */
 package io.github.robwin.swagger;
 
+import io.github.robwin.swagger.test.ContractVerdict;
 import io.github.robwin.swagger.test.SwaggerAssert;
+import io.github.robwin.swagger.test.SwaggerAssertionConfig;
 import io.github.robwin.swagger.test.SwaggerAssertions;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.StringProperty;
 import io.swagger.parser.SwaggerParser;
 import org.apache.commons.lang3.Validate;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class SwaggerConsumerDrivenAssertTest {
 
@@ -56,6 +70,27 @@ public class SwaggerConsumerDrivenAssertTest {
         SwaggerAssertions.assertThat(implFirstSwaggerLocation.getAbsolutePath()).satisfiesContract(designFirstSwaggerLocation.getAbsolutePath());
     }
 
+    @Test
+    public void shouldMatchPathsWithRenamedPathParameters() {
+        File implFirstSwaggerLocation = new File(SwaggerConsumerDrivenAssertTest.class.getResource("/swagger.json").getFile());
+        File designFirstSwaggerLocation = new File(SwaggerConsumerDrivenAssertTest.class.getResource("/swagger-renamed-path-parameters.json").getFile());
+        SwaggerAssertions.assertThat(implFirstSwaggerLocation.getAbsolutePath()).satisfiesContract(designFirstSwaggerLocation.getAbsolutePath());
+    }
+
+    @Test
+    public void shouldTolerateOptionalParameterInLargeSpecs() {
+        File implFirstSwaggerLocation = new File(SwaggerConsumerDrivenAssertTest.class.getResource("/swagger-added-optional-parameter.json").getFile());
+        File designFirstSwaggerLocation = new File(SwaggerConsumerDrivenAssertTest.class.getResource("/swagger.yaml").getFile());
+        SwaggerAssertions.assertThatLargeSpec(implFirstSwaggerLocation.getAbsolutePath()).satisfiesContract(designFirstSwaggerLocation.getAbsolutePath());
+    }
+
+    @Test(expected = AssertionError.class)
+    public void shouldFindDifferencesInLargeSpecs() {
+        File implFirstSwaggerLocation = new File(SwaggerConsumerDrivenAssertTest.class.getResource("/swagger-added-required-parameter.json").getPath());
+        File designFirstSwaggerLocation = new File(SwaggerConsumerDrivenAssertTest.class.getResource("/swagger.yaml").getPath());
+        SwaggerAssertions.assertThatLargeSpec(implFirstSwaggerLocation.getAbsolutePath()).satisfiesContract(designFirstSwaggerLocation.getAbsolutePath());
+    }
+
     @Test(expected = AssertionError.class)
     public void shouldFindDifferencesInInfo() {
         // Otherwise-good comparison will fail here, because 'info.title' is different
@@ -120,6 +155,23 @@ public class SwaggerConsumerDrivenAssertTest {
                 .satisfiesContract(designFirstSwaggerLocation.getAbsolutePath());
     }
 
+    @Test
+    public void shouldTolerateAdditionalPropertiesOfNestedObjects() {
+        File swaggerLocation = new File(SwaggerConsumerDrivenAssertTest.class.getResource("/swagger.json").getFile());
+        Swagger actual = new SwaggerParser().read(swaggerLocation.getAbsolutePath());
+        Swagger expected = new SwaggerParser().read(swaggerLocation.getAbsolutePath());
+        Map<String, Property> actualAddress = new LinkedHashMap<>();
+        actualAddress.put("street", new StringProperty());
+        actualAddress.put("zip", new StringProperty());
+        ((ModelImpl) actual.getDefinitions().get("User")).addProperty("address", new ObjectProperty(actualAddress));
+        ((ModelImpl) expected.getDefinitions().get("User")).addProperty("address", new ObjectProperty(Collections.singletonMap("street", new StringProperty())));
+
+        SwaggerAssertions.assertThat(actual).satisfiesContract(expected);
+        assertThatThrownBy(() -> SwaggerAssertions.assertThat(actual).isEqualTo(expected))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("address");
+    }
+
     @Test
     public void shouldHandleDefinitionsUsingAllOf() {
         File implFirstSwaggerLocation = new File(SwaggerConsumerDrivenAssertTest.class.getResource("/swagger-allOf-test-flat.json").getPath());
@@ -178,4 +230,77 @@ public class SwaggerConsumerDrivenAssertTest {
         SwaggerAssertions.assertThat(implFirstSwaggerLocation.getAbsolutePath())
                          .satisfiesContract(designFirstSwaggerLocation.getAbsolutePath());
     }
+
+    @Test
+    public void shouldReturnVerdictPerConsumer() {
+        // given
+        Map<String, Swagger> contracts = new LinkedHashMap<>();
+        contracts.put("design", read("/swagger.yaml"));
+        contracts.put("without-some-operations", read("/swagger-path-without-some-operations.json"));
+        contracts.put("required-parameter", read("/swagger-added-required-parameter.json"));
+
+        // when
+        Map<String, ContractVerdict> verdicts = new SwaggerAssert(read("/swagger.json")).verifyContracts(contracts);
+
+        // then
+        assertThat(verdicts).containsOnlyKeys("design", "without-some-operations", "required-parameter");
+        assertThat(verdicts.get("design").isSatisfied()).isTrue();
+        assertThat(verdicts.get("without-some-operations").isSatisfied()).isTrue();
+        assertThat(verdicts.get("required-parameter").isSatisfied()).isFalse();
+        assertThat(verdicts.get("required-parameter").getErrorMessages()).isNotEmpty();
+    }
+
+    @Test
+    public void shouldReportSameErrorsForContractsVerifiedAtOnce() {
+        // given
+        Properties parallelProps = new Properties();
+        parallelProps.setProperty("assertj.swagger.parallelism", "4");
+        Map<String, Swagger> contracts = new LinkedHashMap<>();
+        contracts.put("design", read("/swagger.yaml"));
+        contracts.put("no-definitions", read("/swagger-no-definitions.json"));
+
+        // when
+        Map<String, ContractVerdict> verdicts = new SwaggerAssert(read("/wrong_swagger.json")).verifyContracts(contracts);
+        Map<String, ContractVerdict> parallelVerdicts = new SwaggerAssert(read("/wrong_swagger.json"),
+            new SwaggerAssertionConfig(parallelProps)).verifyContracts(contracts);
+
+        // then
+        assertThat(verdicts.get("design").getErrorMessages()).isNotEmpty()
+            .isEqualTo(parallelVerdicts.get("design").getErrorMessages());
+        assertSameErrors(errorsOf(new SwaggerAssert(read("/wrong_swagger.json")), "/swagger.yaml"), verdicts.get("design"));
+        assertSameErrors(errorsOf(new SwaggerAssert(read("/wrong_swagger.json")), "/swagger-no-definitions.json"),
+            verdicts.get("no-definitions"));
+    }
+
+    @Test(expected = AssertionError.class)
+    public void shouldFailWhenOneOfTheContractsIsNotSatisfied() {
+        Map<String, Swagger> contracts = new LinkedHashMap<>();
+        contracts.put("design", read("/swagger.yaml"));
+        contracts.put("required-parameter", read("/swagger-added-required-parameter.json"));
+        new SwaggerAssert(read("/swagger.json")).satisfiesContracts(contracts);
+    }
+
+    private static Swagger read(String resource) {
+        return new SwaggerParser().read(new File(SwaggerConsumerDrivenAssertTest.class.getResource(resource).getPath()).getAbsolutePath());
+    }
+
+    private static String errorsOf(SwaggerAssert swaggerAssert, String contractResource) {
+        try {
+            swaggerAssert.satisfiesContract(new File(SwaggerConsumerDrivenAssertTest.class.getResource(contractResource).getPath()).getAbsolutePath());
+            return "";
+        } catch (AssertionError e) {
+            return e.getMessage();
+        }
+    }
+
+    private static void assertSameErrors(String errors, ContractVerdict verdict) {
+        if (verdict.isSatisfied()) {
+            assertThat(errors).isEmpty();
+            return;
+        }
+        assertThat(errors).contains(String.format("The following %d assertion", verdict.getErrorMessages().size()));
+        for (int i = 0; i < verdict.getErrorMessages().size(); i++) {
+            assertThat(errors).contains(String.format("%d) %s", i + 1, verdict.getErrorMessages().get(i)));
+        }
+    }
 }
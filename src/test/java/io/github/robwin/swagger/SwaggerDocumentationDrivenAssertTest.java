@@ -23,21 +23,42 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.robwin.swagger.test.StreamingSwaggerAssert;
 import io.github.robwin.swagger.test.SwaggerAssert;
 import io.github.robwin.swagger.test.SwaggerAssertionConfig;
+import io.github.robwin.swagger.test.SwaggerAssertionType;
 import io.github.robwin.swagger.test.SwaggerAssertions;
+import io.github.robwin.swagger.test.ValidationListener;
+import io.github.robwin.swagger.test.ValidationMetrics;
+import io.github.robwin.swagger.test.Violation;
 import io.swagger.parser.SwaggerParser;
 import org.apache.commons.lang3.Validate;
 import org.junit.After;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 public class SwaggerDocumentationDrivenAssertTest {
 
     private static final String SWAGGER_CONFIG_LOCATION = "assertj-swagger.properties";
     private static final File SWAGGER_CONFIG = new File(SWAGGER_CONFIG_LOCATION);
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @After
     public void tearDown() {
         SWAGGER_CONFIG.deleteOnExit();
@@ -53,6 +74,14 @@ public class SwaggerDocumentationDrivenAssertTest {
             .isEqualTo(designFirstSwaggerLocation.getAbsolutePath());
     }
 
+    @Test
+    public void shouldReadSwagger12Specs() {
+        String swagger12Location = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger-1.2.json").getFile()).getAbsolutePath();
+        SwaggerAssertions.assertThat(swagger12Location)
+            .isEqualTo(swagger12Location);
+    }
+
     @Test(expected = AssertionError.class)
     public void shouldFindDifferencesInImplementation() {
         File implFirstSwaggerLocation = new File(
@@ -259,6 +288,316 @@ public class SwaggerDocumentationDrivenAssertTest {
         swaggerAssert.isEqualTo(designFirstSwaggerLocation.getAbsolutePath());
     }
 
+    @Test
+    public void shouldReportSameErrorsWhenValidatingInParallel() {
+        File implFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/wrong_swagger.json").getPath());
+        File designFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger.yaml").getPath());
+        Properties parallelProps = new Properties();
+        parallelProps.setProperty("assertj.swagger.parallelism", "4");
+
+        String sequentialErrors = errorsOf(new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig()), designFirstSwaggerLocation.getAbsolutePath());
+        String parallelErrors = errorsOf(new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig(parallelProps)), designFirstSwaggerLocation.getAbsolutePath());
+
+        assertThat(parallelErrors).isNotNull().isEqualTo(sequentialErrors);
+    }
+
+    @Test
+    public void shouldMatchPathsWithRenamedPathParameters() {
+        File implFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger.json").getFile());
+        File designFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger-renamed-path-parameters.json").getFile());
+        SwaggerAssertions.assertThat(implFirstSwaggerLocation.getAbsolutePath())
+            .isEqualTo(designFirstSwaggerLocation.getAbsolutePath());
+    }
+
+    @Test
+    public void shouldFindNoDifferencesInLargeSpecs() {
+        File implFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger.json").getFile());
+        File designFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger.yaml").getFile());
+        SwaggerAssertions.assertThatLargeSpec(implFirstSwaggerLocation.getAbsolutePath())
+            .isEqualTo(designFirstSwaggerLocation.getAbsolutePath());
+    }
+
+    @Test
+    public void shouldReportSameErrorsForLargeSpecs() {
+        File implFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/wrong_swagger.json").getPath());
+        File designFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger.yaml").getPath());
+
+        String errors = errorsOf(new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig()), designFirstSwaggerLocation.getAbsolutePath());
+        String streamingErrors = null;
+        try {
+            new StreamingSwaggerAssert(implFirstSwaggerLocation.getAbsolutePath(), new SwaggerAssertionConfig())
+                .isEqualTo(designFirstSwaggerLocation.getAbsolutePath());
+        } catch (AssertionError e) {
+            streamingErrors = e.getMessage().replaceAll("(?m)^at .*$", "");
+        }
+
+        assertThat(streamingErrors).isNotNull().isEqualTo(errors);
+    }
+
+    @Test
+    public void shouldWriteFailedChecksToReport() throws IOException {
+        File implFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/wrong_swagger.json").getPath());
+        File designFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger.yaml").getPath());
+        File reportFile = new File(temporaryFolder.getRoot(), "reports/assertj-swagger.jsonl");
+        Properties reportProps = new Properties();
+        reportProps.setProperty("assertj.swagger.reportFile", reportFile.getAbsolutePath());
+
+        String errors = errorsOf(new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig()), designFirstSwaggerLocation.getAbsolutePath());
+        String summary = errorsOf(new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig(reportProps)), designFirstSwaggerLocation.getAbsolutePath());
+
+        List<String> lines = Files.readAllLines(reportFile.toPath());
+        assertThat(errors).contains("The following " + lines.size() + " assertions failed");
+        assertThat(summary).contains(lines.size() + " assertions failed, see " + reportFile.getAbsolutePath())
+            .doesNotContain("Checking");
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (String line : lines) {
+            JsonNode violation = objectMapper.readTree(line);
+            assertThat(violation.get("validation").asText()).isEqualTo("documentation-driven");
+            assertThat(errors).contains(violation.get("message").asText());
+        }
+        assertThat(objectMapper.readTree(lines.get(0)).get("type").asText()).isEqualTo("PATHS");
+    }
+
+    @Test
+    public void shouldWriteSameReportWhenValidatingInParallel() throws IOException {
+        File implFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/wrong_swagger.json").getPath());
+        File designFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger.yaml").getPath());
+        File sequentialReportFile = new File(temporaryFolder.getRoot(), "sequential.jsonl");
+        File parallelReportFile = new File(temporaryFolder.getRoot(), "parallel.jsonl");
+        Properties sequentialProps = new Properties();
+        sequentialProps.setProperty("assertj.swagger.reportFile", sequentialReportFile.getAbsolutePath());
+        Properties parallelProps = new Properties();
+        parallelProps.setProperty("assertj.swagger.reportFile", parallelReportFile.getAbsolutePath());
+        parallelProps.setProperty("assertj.swagger.parallelism", "4");
+
+        errorsOf(new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig(sequentialProps)), designFirstSwaggerLocation.getAbsolutePath());
+        errorsOf(new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig(parallelProps)), designFirstSwaggerLocation.getAbsolutePath());
+
+        assertThat(Files.readAllLines(parallelReportFile.toPath()))
+            .isNotEmpty()
+            .isEqualTo(Files.readAllLines(sequentialReportFile.toPath()));
+    }
+
+    @Test
+    public void shouldStopAfterMaxErrors() {
+        File implFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/wrong_swagger.json").getPath());
+        File designFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger.yaml").getPath());
+        Properties failFastProps = new Properties();
+        failFastProps.setProperty("assertj.swagger.failFast", "true");
+        Properties maxErrorsProps = new Properties();
+        maxErrorsProps.setProperty("assertj.swagger.maxErrors", "3");
+
+        String failFastErrors = errorsOf(new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig(failFastProps)), designFirstSwaggerLocation.getAbsolutePath());
+        String maxErrors = errorsOf(new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig(maxErrorsProps)), designFirstSwaggerLocation.getAbsolutePath());
+
+        assertThat(failFastErrors).contains("The following assertion failed").contains("Checking Paths");
+        assertThat(maxErrors).contains("The following 3 assertions failed");
+    }
+
+    @Test
+    public void shouldStopAfterSameErrorsWhenValidatingInParallel() {
+        File implFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/wrong_swagger.json").getPath());
+        File designFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger.yaml").getPath());
+        Properties sequentialProps = new Properties();
+        sequentialProps.setProperty("assertj.swagger.maxErrors", "5");
+        Properties parallelProps = new Properties();
+        parallelProps.putAll(sequentialProps);
+        parallelProps.setProperty("assertj.swagger.parallelism", "4");
+
+        String sequentialErrors = errorsOf(new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig(sequentialProps)), designFirstSwaggerLocation.getAbsolutePath());
+        for (int i = 0; i < 5; i++) {
+            String parallelErrors = errorsOf(new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+                new SwaggerAssertionConfig(parallelProps)), designFirstSwaggerLocation.getAbsolutePath());
+
+            assertThat(parallelErrors).contains("The following 5 assertions failed").isEqualTo(sequentialErrors);
+        }
+    }
+
+    @Test
+    public void shouldWriteMetricsFile() throws IOException {
+        File implFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/wrong_swagger.json").getPath());
+        File designFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger.yaml").getPath());
+        File metricsFile = new File(temporaryFolder.getRoot(), "metrics/assertj-swagger.json");
+        Properties metricsProps = new Properties();
+        metricsProps.setProperty("assertj.swagger.metricsFile", metricsFile.getAbsolutePath());
+        SwaggerAssert swaggerAssert = new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig(metricsProps));
+
+        assertThat(errorsOf(swaggerAssert, designFirstSwaggerLocation.getAbsolutePath())).isNotNull();
+
+        JsonNode metrics = new ObjectMapper().readTree(metricsFile);
+        assertThat(metrics.get("phases").get("PATHS").get("measurements").asLong())
+            .isEqualTo(swaggerAssert.getMetrics().getMeasurements(ValidationMetrics.Phase.PATHS)).isPositive();
+        assertThat(metrics.get("checks").get("DEFINITIONS").asLong()).isPositive();
+        assertThat(metrics.get("slowestPaths").size()).isEqualTo(swaggerAssert.getMetrics().getSlowestPaths().size());
+    }
+
+    @Test
+    public void shouldTellListenerAboutPathsAndChecks() {
+        File implFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/wrong_swagger.json").getPath());
+        File designFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger.yaml").getPath());
+        List<String> startedPaths = new ArrayList<>();
+        List<String> finishedPaths = new ArrayList<>();
+        List<Violation> violations = new ArrayList<>();
+        AtomicInteger passedChecks = new AtomicInteger();
+        SwaggerAssert swaggerAssert = new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig()).withListener(new ValidationListener() {
+                @Override
+                public void pathStarted(String path) {
+                    startedPaths.add(path);
+                }
+
+                @Override
+                public void pathFinished(String path) {
+                    finishedPaths.add(path);
+                }
+
+                @Override
+                public void checkPassed(SwaggerAssertionType type, String path, String method, String definition, String property) {
+                    passedChecks.incrementAndGet();
+                }
+
+                @Override
+                public void checkFailed(Violation violation) {
+                    violations.add(violation);
+                }
+            });
+
+        String errors = errorsOf(swaggerAssert, designFirstSwaggerLocation.getAbsolutePath());
+
+        assertThat(startedPaths).isNotEmpty().isEqualTo(finishedPaths);
+        assertThat(passedChecks.get()).isPositive();
+        assertThat(errors).contains("The following " + violations.size() + " assertions failed");
+        for (Violation violation : violations) {
+            assertThat(errors).contains(violation.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldStopWhenListenerRequestsIt() {
+        File implFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/wrong_swagger.json").getPath());
+        File designFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger.yaml").getPath());
+        List<String> startedPaths = new ArrayList<>();
+        SwaggerAssert swaggerAssert = new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig()).withListener(new ValidationListener() {
+                @Override
+                public void pathStarted(String path) {
+                    startedPaths.add(path);
+                }
+
+                @Override
+                public boolean isStopRequested() {
+                    return !startedPaths.isEmpty();
+                }
+            });
+
+        errorsOf(swaggerAssert, designFirstSwaggerLocation.getAbsolutePath());
+
+        assertThat(startedPaths).hasSize(1);
+    }
+
+    @Test
+    public void shouldNotAccumulateErrorsAcrossValidations() {
+        File implFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/wrong_swagger.json").getPath());
+        File designFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger.yaml").getPath());
+        SwaggerAssert swaggerAssert = new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig());
+
+        String firstErrors = errorsOf(swaggerAssert, designFirstSwaggerLocation.getAbsolutePath());
+        String secondErrors = errorsOf(swaggerAssert, designFirstSwaggerLocation.getAbsolutePath());
+
+        assertThat(secondErrors).isEqualTo(firstErrors);
+    }
+
+    @Test
+    public void shouldShareSwaggerAssertAcrossThreads() throws Exception {
+        File implFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/wrong_swagger.json").getPath());
+        String designFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger.yaml").getPath()).getAbsolutePath();
+        String sameSwaggerLocation = implFirstSwaggerLocation.getAbsolutePath();
+        SwaggerAssert swaggerAssert = new SwaggerAssert(new SwaggerParser().read(implFirstSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig());
+        String expectedErrors = errorsOf(swaggerAssert, designFirstSwaggerLocation);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                String expectedLocation = i % 2 == 0 ? designFirstSwaggerLocation : sameSwaggerLocation;
+                results.add(executor.submit(() -> errorsOf(swaggerAssert, expectedLocation)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get()).isEqualTo(i % 2 == 0 ? expectedErrors : null);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldCompareInlineSchemaWithReferencedDefinition() {
+        String designFirstSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger-ref-deep.json").getPath()).getAbsolutePath();
+        File inlineSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger-ref-deep-inline.json").getPath());
+        File wrongInlineSwaggerLocation = new File(
+            SwaggerDocumentationDrivenAssertTest.class.getResource("/swagger-ref-deep-inline-wrong.json").getPath());
+
+        String inlineErrors = errorsOf(new SwaggerAssert(new SwaggerParser().read(inlineSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig()), designFirstSwaggerLocation);
+        String wrongInlineErrors = errorsOf(new SwaggerAssert(new SwaggerParser().read(wrongInlineSwaggerLocation.getAbsolutePath()),
+            new SwaggerAssertionConfig()), designFirstSwaggerLocation);
+
+        assertThat(inlineErrors).isNull();
+        assertThat(wrongInlineErrors).contains("The following assertion failed")
+            .contains("Checking response schema of response '200'").contains("#/definitions/Pet");
+    }
+
+    private String errorsOf(SwaggerAssert swaggerAssert, String expectedLocation) {
+        try {
+            swaggerAssert.isEqualTo(expectedLocation);
+            return null;
+        } catch (AssertionError e) {
+            // the source locations AssertJ appends differ between a sequential and a parallel run
+            return e.getMessage().replaceAll("(?m)^at .*$", "");
+        }
+    }
+
     private SwaggerAssertionConfig getConfig() throws IOException {
         Properties props = new Properties();
         props.load(new FileReader(SWAGGER_CONFIG));
@@ -18,14 +18,19 @@
  */
 package io.github.robwin.swagger.test;
 
+import io.swagger.models.Operation;
 import io.swagger.models.Path;
 import io.swagger.models.Swagger;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.PathParameter;
 import io.swagger.parser.SwaggerParser;
+import org.assertj.core.api.SoftAssertions;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 
 import java.io.File;
+import java.math.BigDecimal;
 import java.util.Map;
 import java.util.Properties;
 
@@ -121,11 +126,79 @@ public class AbstractContractValidatorTest {
         }
     }
 
-    private static class DummyValidator extends AbstractContractValidator {
+    /**
+     * Tests matchExpectedPaths().
+     */
+    public static class MatchExpectedPaths {
+        @Test
+        public void shouldMatchPathsWithRenamedPathParameters() {
+            // given
+            Swagger actual = new Swagger().basePath("/v2")
+                    .path("/pets/{petId}", new Path().get(new Operation().parameter(new PathParameter().name("petId").type("string"))));
+            Swagger expected = new Swagger().basePath("/v2")
+                    .path("/pets/{id}/", new Path().get(new Operation().parameter(new PathParameter().name("id").type("string"))));
+            DummyValidator validator = new DummyValidator();
+            Map<String, Path> actualPaths = validator.getPathsIncludingBasePath(actual);
+            // when
+            Map<String, Path> paths = validator.matchExpectedPaths(actualPaths, validator.findExpectedPaths(expected, new SwaggerAssertionConfig(new Properties())));
+            // then
+            assertThat(paths.keySet(), is(actualPaths.keySet()));
+            Parameter parameter = paths.get("/v2/pets/{petId}").getGet().getParameters().get(0);
+            assertThat(parameter.getName(), is("petId"));
+            assertThat(((PathParameter) parameter).getType(), is("string"));
+            assertThat(expected.getPath("/pets/{id}/").getGet().getParameters().get(0).getName(), is("id"));
+        }
+
+        @Test
+        public void shouldCopyRenamedPathParametersOnce() {
+            // given
+            PathParameter expectedParameter = new PathParameter().name("id").type("integer").format("int64")
+                    .description("pet id").example("42");
+            expectedParameter.setMinimum(new BigDecimal("1"));
+            expectedParameter.setDefaultValue("7");
+            Swagger actual = new Swagger().path("/pets/{petId}", new Path());
+            Swagger expected = new Swagger().path("/pets/{id}", new Path().get(new Operation().parameter(expectedParameter)));
+            DummyValidator validator = new DummyValidator();
+            // when
+            Map<String, Path> paths = validator.matchExpectedPaths(actual.getPaths(), expected.getPaths());
+            // then
+            Path path = paths.get("/pets/{petId}");
+            assertThat(paths.get("/pets/{petId}"), is(sameInstance(path)));
+            PathParameter parameter = (PathParameter) path.getGet().getParameters().get(0);
+            assertThat(parameter.getName(), is("petId"));
+            assertThat(parameter.getIn(), is("path"));
+            assertThat(parameter.getType(), is("integer"));
+            assertThat(parameter.getFormat(), is("int64"));
+            assertThat(parameter.getDescription(), is("pet id"));
+            assertThat(parameter.getMinimum(), is(new BigDecimal("1")));
+            assertThat(String.valueOf(parameter.getExample()), is("42"));
+            assertThat(String.valueOf(parameter.getDefaultValue()), is("7"));
+        }
+
+        @Test
+        public void shouldPreferPathsWithTheSameName() {
+            // given
+            Swagger actual = new Swagger().path("/pets/{petId}", new Path()).path("/pets/{id}", new Path());
+            Swagger expected = new Swagger().path("/pets/{id}", new Path());
+            DummyValidator validator = new DummyValidator();
+            // when
+            Map<String, Path> paths = validator.matchExpectedPaths(actual.getPaths(), expected.getPaths());
+            // then
+            assertThat(paths, is(sameInstance(expected.getPaths())));
+        }
+    }
+
+    private static class DummyValidator extends AbstractContractValidator<DummyValidator> {
         @Override
         public void validateSwagger(Swagger expected, SchemaObjectResolver schemaObjectResolver) {
 
         }
+
+        @Override
+        DummyValidator forTask(SoftAssertions taskSoftAssertions, ValidationReport taskReport, ErrorBudget taskErrorBudget, ValidationMetrics taskMetrics,
+                               ValidationListener taskListener) {
+            return new DummyValidator();
+        }
     }
 
 }
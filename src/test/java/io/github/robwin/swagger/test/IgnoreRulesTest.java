@@ -0,0 +1,110 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests IgnoreRules.
+ */
+public class IgnoreRulesTest {
+
+    @Test
+    public void shouldMatchExactNames() {
+        // given
+        IgnoreRules rules = IgnoreRules.compile(Arrays.asList("/v1/friends/{id}", "Pet"));
+        // when / then
+        assertThat(rules.matches("/v1/friends/{id}"), is(true));
+        assertThat(rules.matches("Pet"), is(true));
+        assertThat(rules.matches("/v1/friends"), is(false));
+        assertThat(rules.matches("Pets"), is(false));
+    }
+
+    @Test
+    public void shouldMatchGlobs() {
+        // given
+        IgnoreRules rules = IgnoreRules.compile(Arrays.asList("glob:/internal/**", "glob:/v?/users/*"));
+        // when / then
+        assertThat(rules.matches("/internal/health"), is(true));
+        assertThat(rules.matches("/internal/metrics/{name}"), is(true));
+        assertThat(rules.matches("/v1/users/{id}"), is(true));
+        assertThat(rules.matches("/v1/users/{id}/pets"), is(false));
+        assertThat(rules.matches("/public/internal/health"), is(false));
+    }
+
+    @Test
+    public void shouldMatchGlobsSharingLeadingSegments() {
+        // given
+        IgnoreRules rules = IgnoreRules.compile(Arrays.asList(
+                "glob:/v1/pets/*", "glob:/v1/pets/*/photos", "glob:/v1/*/admin/**", "glob:/v1/st**re", "glob:/v2/*-legacy"));
+        // when / then
+        assertThat(rules.matches("/v1/pets/{id}"), is(true));
+        assertThat(rules.matches("/v1/pets/{id}/photos"), is(true));
+        assertThat(rules.matches("/v1/users/admin/roles/{id}"), is(true));
+        assertThat(rules.matches("/v1/store/inventory/core"), is(true));
+        assertThat(rules.matches("/v2/orders-legacy"), is(true));
+        assertThat(rules.matches("/v1/pets"), is(false));
+        assertThat(rules.matches("/v1/pets/{id}/tags"), is(false));
+        assertThat(rules.matches("/v1/users/admin"), is(false));
+        assertThat(rules.matches("/v2/orders"), is(false));
+    }
+
+    @Test
+    public void shouldMatchNamesWithWildcardsWithoutPrefixExactly() {
+        // given
+        IgnoreRules rules = IgnoreRules.compile(Collections.singletonList("/v1/search?q"));
+        // when / then
+        assertThat(rules.matches("/v1/search?q"), is(true));
+        assertThat(rules.matches("/v1/searchXq"), is(false));
+    }
+
+    @Test
+    public void shouldMatchRegularExpressions() {
+        // given
+        IgnoreRules rules = IgnoreRules.compile(Collections.singletonList("regex:Legacy[A-Z].*"));
+        // when / then
+        assertThat(rules.matches("LegacyOrder"), is(true));
+        assertThat(rules.matches("Legacyorder"), is(false));
+    }
+
+    @Test
+    public void shouldMatchQualifiedPropertyNames() {
+        // given
+        IgnoreRules rules = IgnoreRules.compile(Arrays.asList("Pet.name", "com.example.Order.id", "glob:*.audit*"));
+        // when / then
+        assertThat(rules.matches("Pet", "name"), is(true));
+        assertThat(rules.matches("com.example.Order", "id"), is(true));
+        assertThat(rules.matches("User", "auditLog"), is(true));
+        assertThat(rules.matches("Pet", "tag"), is(false));
+        assertThat(rules.matches("Pet.name", ""), is(false));
+    }
+
+    @Test
+    public void shouldBeEmptyWithoutRules() {
+        assertThat(IgnoreRules.compile(Collections.emptyList()).isEmpty(), is(true));
+        assertThat(IgnoreRules.compile(Collections.singletonList("Pet")).isEmpty(), is(false));
+        assertThat(IgnoreRules.compile(Collections.singletonList("glob:Pet*")).isEmpty(), is(false));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.parser.SwaggerParser;
+import io.swagger.util.Json;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests IncrementalValidationState.
+ */
+public class IncrementalValidationStateTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldKeepVerdictsAcrossBuilds() {
+        // given
+        Path stateFile = temporaryFolder.getRoot().toPath().resolve("state.json");
+        SwaggerAssertionConfig config = new SwaggerAssertionConfig();
+        IncrementalValidationState.Section section = new IncrementalValidationState(stateFile).section("test", config);
+        section.record("path /pets", 1L, 2L, Collections.singletonList("error"));
+        section.save();
+        // when
+        IncrementalValidationState.Section nextBuild = new IncrementalValidationState(stateFile).section("test", config);
+        // then
+        assertThat(nextBuild.errorMessages("path /pets", 1L, 2L), is(Collections.singletonList("error")));
+        assertThat(nextBuild.errorMessages("path /pets", 1L, 3L), is(nullValue()));
+    }
+
+    @Test
+    public void shouldKeepVerdictsPerConfiguration() {
+        // given
+        Path stateFile = temporaryFolder.getRoot().toPath().resolve("state.json");
+        IncrementalValidationState state = new IncrementalValidationState(stateFile);
+        state.section("test", new SwaggerAssertionConfig()).record("path /pets", 1L, 2L, Collections.<String>emptyList());
+        Properties properties = new Properties();
+        properties.setProperty("assertj.swagger.validateProperties", "false");
+        // when
+        List<String> errorMessages = state.section("test", new SwaggerAssertionConfig(properties)).errorMessages("path /pets", 1L, 2L);
+        // then
+        assertThat(errorMessages, is(nullValue()));
+    }
+
+    @Test
+    public void shouldReportSameErrorsWhenReusingVerdicts() {
+        // given
+        File stateFile = new File(temporaryFolder.getRoot(), "state.json");
+        Properties properties = new Properties();
+        properties.setProperty("assertj.swagger.stateFile", stateFile.getAbsolutePath());
+        SwaggerAssertionConfig config = new SwaggerAssertionConfig(properties);
+        // when
+        String firstErrors = errorsOf(config);
+        String secondErrors = errorsOf(config);
+        // then
+        assertThat(Files.isRegularFile(stateFile.toPath()), is(true));
+        assertThat(firstErrors, is(notNullValue()));
+        assertThat(secondErrors, is(firstErrors));
+        assertThat(errorsOf(new SwaggerAssertionConfig()), is(firstErrors));
+    }
+
+    @Test
+    public void shouldRevalidatePathWhenReferencedDefinitionChanged() throws Exception {
+        // given an inline response schema which is compared with a reference to Pet
+        File stateFile = new File(temporaryFolder.getRoot(), "state.json");
+        Properties properties = new Properties();
+        properties.setProperty("assertj.swagger.stateFile", stateFile.getAbsolutePath());
+        SwaggerAssertionConfig config = new SwaggerAssertionConfig(properties);
+        Swagger actual = buildSwaggerFrom("/swagger.json");
+        Swagger expected = buildSwaggerFrom("/swagger.json");
+        ModelImpl inlinePet = (ModelImpl) Json.mapper().readValue(Json.mapper().writeValueAsString(actual.getDefinitions().get("Pet")), Model.class);
+        inlinePet.setType("object");
+        actual.getPath("/pets/{petId}").getGet().getResponses().get("200").setResponseSchema(inlinePet);
+        String firstErrors = errorsOf(actual, expected, config);
+        // when Pet gains a property on both sides, which the inline schema lacks
+        ((ModelImpl) actual.getDefinitions().get("Pet")).getProperties().put("age", new IntegerProperty());
+        ((ModelImpl) expected.getDefinitions().get("Pet")).getProperties().put("age", new IntegerProperty());
+        String secondErrors = errorsOf(actual, expected, config);
+        // then
+        assertThat(firstErrors, is(nullValue()));
+        assertThat(secondErrors, is(notNullValue()));
+        assertThat(secondErrors, is(errorsOf(actual, expected, new SwaggerAssertionConfig())));
+    }
+
+    private String errorsOf(SwaggerAssertionConfig config) {
+        return errorsOf(buildSwaggerFrom("/wrong_swagger.json"), buildSwaggerFrom("/swagger.yaml"), config);
+    }
+
+    private String errorsOf(Swagger actual, Swagger expected, SwaggerAssertionConfig config) {
+        try {
+            new DocumentationDrivenValidator(actual, config).validateSwagger(expected, new SchemaObjectResolver(expected, actual));
+            return null;
+        } catch (AssertionError e) {
+            // the source locations AssertJ appends differ between validated and reused verdicts
+            return e.getMessage().replaceAll("(?m)^at .*$", "");
+        }
+    }
+
+    private static Swagger buildSwaggerFrom(String filename) {
+        File swaggerFile = new File(IncrementalValidationStateTest.class.getResource(filename).getPath());
+        return new SwaggerParser().read(swaggerFile.getAbsolutePath());
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests PathTrie.
+ */
+public class PathTrieTest {
+
+    @Test
+    public void shouldMatchRenamedPathTemplates() {
+        // given
+        PathTrie trie = new PathTrie("", Arrays.asList("/pets", "/pets/{petId}", "/pets/{petId}/photos/{photoId}.{format}"));
+        // when / then
+        assertThat(trie.match("/pets/{id}"), is("/pets/{petId}"));
+        assertThat(trie.match("/pets/{id}/photos/{pid}.{ext}"), is("/pets/{petId}/photos/{photoId}.{format}"));
+        assertThat(trie.match("/pets/mine"), is(nullValue()));
+        assertThat(trie.match("/pets/{id}/photos"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldIgnoreTrailingSlashes() {
+        // given
+        PathTrie trie = new PathTrie("", Collections.singletonList("/pets"));
+        // when / then
+        assertThat(trie.match("/pets/"), is("/pets"));
+    }
+
+    @Test
+    public void shouldMatchUnderPrefix() {
+        // given
+        PathTrie trie = new PathTrie("/v2", Arrays.asList("/pets", "/pets/{petId}"));
+        // when / then
+        assertThat(trie.match("/v2/pets/{id}/"), is("/v2/pets/{petId}"));
+        assertThat(trie.match("/pets/{id}"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldPairPathParametersByPosition() {
+        // when
+        Map<String, String> parameterNames = PathTrie.parameterNames("/users/{user}/pets/{petId}", "/users/{userId}/pets/{petId}");
+        // then
+        assertThat(parameterNames, is(Collections.singletonMap("user", "userId")));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.StringProperty;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests PropertyValidator.
+ */
+public class PropertyValidatorTest {
+
+    @Test
+    public void shouldValidateItemsAndAdditionalProperties() {
+        // given
+        SoftAssertions softAssertions = new SoftAssertions();
+        PropertyValidator propertyValidator = new PropertyValidator(new SwaggerAssertionConfig(), softAssertions);
+        // when
+        propertyValidator.validateProperty(new ArrayProperty(new IntegerProperty()), new ArrayProperty(new StringProperty()),
+                LazyDescription.of("Checking property 'tags'"));
+        propertyValidator.validateProperty(new MapProperty(new StringProperty()), new MapProperty(new StringProperty()),
+                LazyDescription.of("Checking property 'labels'"));
+        // then
+        assertThat(softAssertions.errorsCollected().size(), is(2));
+        assertThat(softAssertions.errorsCollected().get(0).getMessage(), containsString("Checking property 'tags', nested property 'items'"));
+    }
+
+    @Test
+    public void shouldValidateDeeplyNestedObjects() {
+        // given
+        SoftAssertions softAssertions = new SoftAssertions();
+        PropertyValidator propertyValidator = new PropertyValidator(new SwaggerAssertionConfig(), softAssertions);
+        // when
+        propertyValidator.validateProperty(nested(5000, new StringProperty()), nested(5000, new StringProperty()),
+                LazyDescription.of("Checking property 'root'"));
+        int errorsOfEqualObjects = softAssertions.errorsCollected().size();
+        propertyValidator.validateProperty(nested(3, new IntegerProperty()), nested(3, new StringProperty()),
+                LazyDescription.of("Checking property 'root'"));
+        // then
+        assertThat(errorsOfEqualObjects, is(0));
+        assertThat(softAssertions.errorsCollected().size(), is(2));
+        assertThat(softAssertions.errorsCollected().get(0).getMessage(), containsString("nested property 'child.child.leaf'"));
+    }
+
+    @Test
+    public void shouldValidatePropertyNamesOfNestedObjects() {
+        // given
+        SoftAssertions softAssertions = new SoftAssertions();
+        PropertyValidator propertyValidator = new PropertyValidator(new SwaggerAssertionConfig(), softAssertions);
+        Map<String, Property> expectedProperties = new LinkedHashMap<>();
+        expectedProperties.put("street", new StringProperty());
+        expectedProperties.put("city", new StringProperty());
+        // when
+        propertyValidator.validateProperty(new ObjectProperty(Collections.singletonMap("street", new StringProperty())),
+                new ObjectProperty(expectedProperties), LazyDescription.of("Checking property 'address'"));
+        // then
+        assertThat(softAssertions.errorsCollected().size(), is(1));
+        assertThat(softAssertions.errorsCollected().get(0).getMessage(), containsString("city"));
+    }
+
+    @Test
+    public void shouldAllowAdditionalPropertiesOfNestedObjectsWhenConsumerDriven() {
+        // given
+        SoftAssertions softAssertions = new SoftAssertions();
+        SwaggerAssertionConfig assertionConfig = new SwaggerAssertionConfig();
+        PropertyValidator propertyValidator = new PropertyValidator(new LazySoftAssertions(softAssertions), assertionConfig.getValidationPlan(), true);
+        Map<String, Property> actualProperties = new LinkedHashMap<>();
+        actualProperties.put("street", new StringProperty());
+        actualProperties.put("zip", new StringProperty());
+        // when
+        propertyValidator.validateProperty(new ObjectProperty(actualProperties),
+                new ObjectProperty(Collections.singletonMap("street", new StringProperty())), LazyDescription.of("Checking property 'address'"));
+        int errorsOfExtendedObject = softAssertions.errorsCollected().size();
+        propertyValidator.validateProperty(new ObjectProperty(actualProperties),
+                new ObjectProperty(Collections.singletonMap("city", new StringProperty())), LazyDescription.of("Checking property 'address'"));
+        // then
+        assertThat(errorsOfExtendedObject, is(0));
+        assertThat(softAssertions.errorsCollected().size(), is(1));
+        assertThat(softAssertions.errorsCollected().get(0).getMessage(), containsString("city"));
+    }
+
+    private static Property nested(int depth, Property leaf) {
+        Property property = new ObjectProperty(Collections.singletonMap("leaf", leaf));
+        for (int i = 1; i < depth; i++) {
+            property = new ObjectProperty(Collections.singletonMap("child", property));
+        }
+        return property;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.LongProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests SchemaComparator.
+ */
+public class SchemaComparatorTest {
+
+    @Test
+    public void shouldCompareReferencedDefinitionsOfDifferentNames() {
+        // given
+        Swagger expected = new Swagger().model("Pet", pet(new StringProperty()));
+        Swagger actual = new Swagger()
+                .model("Animal", pet(new StringProperty()))
+                .model("Creature", pet(new LongProperty()));
+        SchemaComparator schemaComparator = new SchemaObjectResolver(expected, actual).getSchemaComparator();
+        // when
+        boolean equivalent = schemaComparator.isEquivalent(new RefProperty("Animal"), new RefProperty("Pet"));
+        boolean changed = schemaComparator.isEquivalent(new RefProperty("Creature"), new RefProperty("Pet"));
+        // then
+        assertThat(equivalent, is(true));
+        assertThat(changed, is(false));
+        assertThat(schemaComparator.memoizedPairs(), is(2));
+    }
+
+    @Test
+    public void shouldCompareInlineSchemaWithReferencedDefinition() {
+        // given
+        Swagger expected = new Swagger().model("Pet", pet(new StringProperty()));
+        SchemaComparator schemaComparator = new SchemaObjectResolver(expected, new Swagger()).getSchemaComparator();
+        // when
+        boolean equivalent = schemaComparator.isEquivalent(new ObjectProperty(properties(new StringProperty())), new RefProperty("Pet"));
+        boolean changed = schemaComparator.isEquivalent(new ObjectProperty(properties(new LongProperty())), new RefProperty("Pet"));
+        // then
+        assertThat(equivalent, is(true));
+        assertThat(changed, is(false));
+    }
+
+    @Test
+    public void shouldCompareRecursiveDefinitions() {
+        // given
+        Swagger expected = new Swagger()
+                .model("Node", node("Node", new StringProperty()));
+        Swagger actual = new Swagger()
+                .model("TreeNode", node("TreeNode", new StringProperty()))
+                .model("ListNode", node("Leaf", new StringProperty()))
+                .model("Leaf", node("Leaf", new LongProperty()));
+        SchemaComparator schemaComparator = new SchemaObjectResolver(expected, actual).getSchemaComparator();
+        // when
+        boolean equivalent = schemaComparator.isEquivalent(new RefProperty("TreeNode"), new RefProperty("Node"));
+        boolean changed = schemaComparator.isEquivalent(new RefProperty("ListNode"), new RefProperty("Node"));
+        // then
+        assertThat(equivalent, is(true));
+        assertThat(changed, is(false));
+    }
+
+    @Test
+    public void shouldAllowAdditionalActualPropertiesWhenConsumerDriven() {
+        // given
+        Swagger expected = new Swagger().model("Pet", pet(new StringProperty()));
+        Swagger actual = new Swagger().model("Pet", pet(new StringProperty()).property("age", new LongProperty()));
+        SchemaObjectResolver schemaObjectResolver = new SchemaObjectResolver(expected, actual);
+        // when
+        boolean consumerDriven = schemaObjectResolver.getConsumerDrivenSchemaComparator().isEquivalent(new RefProperty("Pet"), new RefProperty("#/definitions/Pet"));
+        boolean documentationDriven = schemaObjectResolver.getSchemaComparator().isEquivalent(new RefProperty("Pet"), new RefProperty("#/definitions/Pet"));
+        boolean missing = schemaObjectResolver.getConsumerDrivenSchemaComparator().isEquivalent(new ObjectProperty(properties(new StringProperty())),
+                new ObjectProperty(pet(new StringProperty()).property("age", new LongProperty()).getProperties()));
+        // then
+        assertThat(consumerDriven, is(true));
+        assertThat(documentationDriven, is(false));
+        assertThat(missing, is(false));
+    }
+
+    @Test
+    public void shouldCompareDeeplyNestedSchemas() {
+        // given
+        SchemaComparator schemaComparator = new SchemaObjectResolver(new Swagger(), new Swagger()).getSchemaComparator();
+        // when
+        boolean equivalent = schemaComparator.isEquivalent(nested(5000, new StringProperty()), nested(5000, new StringProperty()));
+        boolean changed = schemaComparator.isEquivalent(nested(5000, new LongProperty()), nested(5000, new StringProperty()));
+        // then
+        assertThat(equivalent, is(true));
+        assertThat(changed, is(false));
+    }
+
+    private static ModelImpl pet(Property name) {
+        ModelImpl pet = new ModelImpl().type(ModelImpl.OBJECT);
+        pet.setProperties(properties(name));
+        return pet;
+    }
+
+    private static Map<String, Property> properties(Property name) {
+        Map<String, Property> properties = new LinkedHashMap<>();
+        properties.put("id", new LongProperty());
+        properties.put("name", name);
+        return properties;
+    }
+
+    private static Property nested(int depth, Property leaf) {
+        Property property = new ObjectProperty(Collections.singletonMap("leaf", leaf));
+        for (int i = 1; i < depth; i++) {
+            property = new ObjectProperty(Collections.singletonMap("child", property));
+        }
+        return property;
+    }
+
+    private static ModelImpl node(String next, Property value) {
+        return new ModelImpl()
+                .type(ModelImpl.OBJECT)
+                .property("value", value)
+                .property("next", new RefProperty(next));
+    }
+}
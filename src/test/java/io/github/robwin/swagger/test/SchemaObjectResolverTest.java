@@ -0,0 +1,102 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.ComposedModel;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.RefModel;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.StringProperty;
+import io.swagger.parser.SwaggerParser;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests SchemaObjectResolver.
+ */
+public class SchemaObjectResolverTest {
+
+    @Test
+    public void shouldResolveDefinitionPropertiesOnce() {
+        // given
+        Swagger swagger = buildSwaggerFrom("/swagger-allOf-test-inheritance.json");
+        SchemaObjectResolver resolver = new SchemaObjectResolver(swagger, swagger);
+        Model order = swagger.getDefinitions().get("Order");
+        // when
+        Map<String, Property> first = resolver.resolvePropertiesFromActual(order);
+        Map<String, Property> second = resolver.resolvePropertiesFromActual(order);
+        // then
+        assertThat(second, is(sameInstance(first)));
+        assertThat(first.keySet(), hasItems("id", "petId", "quantity"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldReturnUnmodifiableProperties() {
+        // given
+        Swagger swagger = buildSwaggerFrom("/swagger-allOf-test-inheritance.json");
+        SchemaObjectResolver resolver = new SchemaObjectResolver(swagger, swagger);
+        // when
+        Map<String, Property> properties = resolver.resolvePropertiesFromExpected(swagger.getDefinitions().get("Order"));
+        // then
+        properties.put("extra", new StringProperty());
+    }
+
+    @Test
+    public void shouldResolveDefinitionsInReferenceCycles() {
+        // given
+        Swagger swagger = buildSwaggerFrom("/swagger-allOf-test-inheritance-cycles.json");
+        SchemaObjectResolver resolver = new SchemaObjectResolver(swagger, swagger);
+        // when
+        Map<String, Property> order = resolver.resolvePropertiesFromActual(swagger.getDefinitions().get("Order"));
+        Map<String, Property> order1 = resolver.resolvePropertiesFromActual(swagger.getDefinitions().get("Order1"));
+        // then
+        assertThat(order.keySet(), hasItems("id", "petId", "quantity", "shipDate", "status", "complete"));
+        assertThat(order1.keySet(), hasItems("petId", "quantity", "shipDate", "status", "complete"));
+    }
+
+    @Test
+    public void shouldResolveDeepInheritanceChains() {
+        // given
+        Swagger swagger = new Swagger();
+        swagger.addDefinition("Level0", new ModelImpl().property("level0", new StringProperty()));
+        for (int level = 1; level <= 6; level++) {
+            ComposedModel child = new ComposedModel();
+            child.setAllOf(Arrays.asList(new RefModel("Level" + (level - 1)), new ModelImpl().property("level" + level, new StringProperty())));
+            swagger.addDefinition("Level" + level, child);
+        }
+        SchemaObjectResolver resolver = new SchemaObjectResolver(swagger, swagger);
+        // when
+        Map<String, Property> properties = resolver.resolvePropertiesFromExpected(swagger.getDefinitions().get("Level6"));
+        // then
+        assertThat(properties.keySet(), hasItems("level0", "level1", "level2", "level3", "level4", "level5", "level6"));
+    }
+
+    private static Swagger buildSwaggerFrom(String filename) {
+        File swaggerFile = new File(SchemaObjectResolverTest.class.getResource(filename).getPath());
+        return new SwaggerParser().read(swaggerFile.getAbsolutePath());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Model;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests SpooledSpec.
+ */
+public class SpooledSpecTest {
+
+    private static final String CYCLIC_SPEC = SpooledSpecTest.class.getResource("/swagger-allOf-test-inheritance-cycles.json").getPath();
+
+    @Test
+    public void shouldRecordReferencesOfDefinitionsWhenSpooling() {
+        try (SpooledSpec spec = SpooledSpec.read(CYCLIC_SPEC)) {
+            // when
+            SpooledSection<Model> definitions = (SpooledSection<Model>) spec.swagger().getDefinitions();
+            // then
+            assertThat(definitions.getReferences("Order"), is(Arrays.asList("AbstractOrder", "Order1")));
+            assertThat(definitions.getReferences("Order1"), is(Collections.singletonList("Order2")));
+            assertThat(definitions.getReferences("AbstractOrder"), is(Collections.<String>emptyList()));
+        }
+    }
+
+    @Test
+    public void shouldResolveCyclicDefinitions() {
+        try (SpooledSpec spec = SpooledSpec.read(CYCLIC_SPEC)) {
+            // given
+            SchemaObjectResolver resolver = new SchemaObjectResolver(spec.swagger(), spec.swagger());
+            // when
+            Model order = spec.swagger().getDefinitions().get("Order");
+            // then
+            assertThat(resolver.resolvePropertiesFromExpected(order).keySet(), hasItems("id", "petId", "quantity"));
+        }
+    }
+
+    @Test
+    public void shouldKeepRecentlyReadEntries() {
+        try (SpooledSpec spec = SpooledSpec.read(CYCLIC_SPEC)) {
+            // when
+            Model first = spec.swagger().getDefinitions().get("Order");
+            Model second = spec.swagger().getDefinitions().get("Order");
+            // then
+            assertThat(second, is(sameInstance(first)));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Path;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.QueryParameter;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.parser.SwaggerParser;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests StructuralFingerprints.
+ */
+public class StructuralFingerprintsTest {
+
+    @Test
+    public void shouldFindIdenticalPathsAndDefinitionsEqual() {
+        // given
+        Swagger expected = buildSwaggerFrom("/swagger.json");
+        Swagger actual = buildSwaggerFrom("/swagger.json");
+        StructuralFingerprints fingerprints = new StructuralFingerprints(new SwaggerAssertionConfig(), new SchemaObjectResolver(expected, actual));
+        // then
+        for (Map.Entry<String, Path> path : expected.getPaths().entrySet()) {
+            assertThat(path.getKey(), pathsEqual(fingerprints, actual.getPath(path.getKey()), path.getValue()), is(true));
+        }
+        for (Map.Entry<String, Model> definition : expected.getDefinitions().entrySet()) {
+            assertThat(definition.getKey(), definitionsEqual(fingerprints, definition.getKey(), actual.getDefinitions().get(definition.getKey()), definition.getValue()), is(true));
+        }
+    }
+
+    @Test
+    public void shouldDetectChangedParameter() {
+        // given
+        Swagger expected = buildSwaggerFrom("/swagger.json");
+        Swagger actual = buildSwaggerFrom("/swagger.json");
+        ((QueryParameter) actual.getPath("/users/login").getGet().getParameters().get(1)).setType("integer");
+        StructuralFingerprints fingerprints = new StructuralFingerprints(new SwaggerAssertionConfig(), new SchemaObjectResolver(expected, actual));
+        // then
+        assertThat(pathsEqual(fingerprints, actual.getPath("/users/login"), expected.getPath("/users/login")), is(false));
+        assertThat(pathsEqual(fingerprints, actual.getPath("/users/logout"), expected.getPath("/users/logout")), is(true));
+    }
+
+    @Test
+    public void shouldDetectChangedDefinitionBehindReference() {
+        // given
+        Swagger expected = buildSwaggerFrom("/swagger.json");
+        Swagger actual = buildSwaggerFrom("/swagger.json");
+        ((ModelImpl) actual.getDefinitions().get("Category")).getProperties().put("code", new IntegerProperty());
+        StructuralFingerprints fingerprints = new StructuralFingerprints(new SwaggerAssertionConfig(), new SchemaObjectResolver(expected, actual));
+        // then the response of the path refers to Pet, which refers to Category
+        assertThat(pathsEqual(fingerprints, actual.getPath("/pets/{petId}"), expected.getPath("/pets/{petId}")), is(false));
+        assertThat(pathsEqual(fingerprints, actual.getPath("/users/{username}"), expected.getPath("/users/{username}")), is(true));
+        assertThat(definitionsEqual(fingerprints, "Pet", actual.getDefinitions().get("Pet"), expected.getDefinitions().get("Pet")), is(false));
+        assertThat(definitionsEqual(fingerprints, "Tag", actual.getDefinitions().get("Tag"), expected.getDefinitions().get("Tag")), is(true));
+    }
+
+    @Test
+    public void shouldFollowCyclicReferences() {
+        // given
+        Swagger expected = buildSwaggerFrom("/swagger.json");
+        Swagger actual = buildSwaggerFrom("/swagger.json");
+        ((ModelImpl) expected.getDefinitions().get("Category")).getProperties().put("pet", new RefProperty("#/definitions/Pet"));
+        ((ModelImpl) actual.getDefinitions().get("Category")).getProperties().put("pet", new RefProperty("#/definitions/Pet"));
+        StructuralFingerprints fingerprints = new StructuralFingerprints(new SwaggerAssertionConfig(), new SchemaObjectResolver(expected, actual));
+        // then
+        assertThat(pathsEqual(fingerprints, actual.getPath("/pets/{petId}"), expected.getPath("/pets/{petId}")), is(true));
+        ((ModelImpl) actual.getDefinitions().get("Pet")).getProperties().put("age", new IntegerProperty());
+        fingerprints = new StructuralFingerprints(new SwaggerAssertionConfig(), new SchemaObjectResolver(expected, actual));
+        assertThat(pathsEqual(fingerprints, actual.getPath("/pets/{petId}"), expected.getPath("/pets/{petId}")), is(false));
+    }
+
+    @Test
+    public void shouldUseGlobalConsumesOfEachSide() {
+        // given
+        Swagger expected = buildSwaggerFrom("/swagger.json");
+        Swagger actual = buildSwaggerFrom("/swagger.json");
+        actual.setConsumes(Collections.singletonList("application/json"));
+        StructuralFingerprints fingerprints = new StructuralFingerprints(new SwaggerAssertionConfig(), new SchemaObjectResolver(expected, actual));
+        // then
+        assertThat(pathsEqual(fingerprints, actual.getPath("/users/logout"), expected.getPath("/users/logout")), is(false));
+    }
+
+    @Test
+    public void shouldNeverFindDefinitionsWithIgnoredPropertiesEqual() {
+        // given
+        Swagger expected = buildSwaggerFrom("/swagger.json");
+        Swagger actual = buildSwaggerFrom("/swagger.json");
+        Properties properties = new Properties();
+        properties.setProperty("assertj.swagger.propertiesToIgnoreInExpected", "Pet.name");
+        StructuralFingerprints fingerprints = new StructuralFingerprints(new SwaggerAssertionConfig(properties), new SchemaObjectResolver(expected, actual));
+        // then
+        assertThat(definitionsEqual(fingerprints, "Pet", actual.getDefinitions().get("Pet"), expected.getDefinitions().get("Pet")), is(false));
+        assertThat(definitionsEqual(fingerprints, "Tag", actual.getDefinitions().get("Tag"), expected.getDefinitions().get("Tag")), is(true));
+    }
+
+    @Test
+    public void shouldLeaveOutPropertiesWhenPropertiesAreNotValidated() {
+        // given
+        Swagger expected = buildSwaggerFrom("/swagger.json");
+        Swagger actual = buildSwaggerFrom("/swagger.json");
+        ((ModelImpl) actual.getDefinitions().get("Tag")).getProperties().put("name", new IntegerProperty());
+        Properties properties = new Properties();
+        properties.setProperty("assertj.swagger.validateProperties", "false");
+        StructuralFingerprints defaultFingerprints = new StructuralFingerprints(new SwaggerAssertionConfig(), new SchemaObjectResolver(expected, actual));
+        StructuralFingerprints fingerprints = new StructuralFingerprints(new SwaggerAssertionConfig(properties), new SchemaObjectResolver(expected, actual));
+        // then
+        assertThat(definitionsEqual(defaultFingerprints, "Tag", actual.getDefinitions().get("Tag"), expected.getDefinitions().get("Tag")), is(false));
+        assertThat(definitionsEqual(fingerprints, "Tag", actual.getDefinitions().get("Tag"), expected.getDefinitions().get("Tag")), is(true));
+    }
+
+    private static boolean pathsEqual(StructuralFingerprints fingerprints, Path actualPath, Path expectedPath) {
+        long actualFingerprint = fingerprints.ofPath(actualPath, true);
+        return actualFingerprint != StructuralFingerprints.UNKNOWN && actualFingerprint == fingerprints.ofPath(expectedPath, false);
+    }
+
+    private static boolean definitionsEqual(StructuralFingerprints fingerprints, String definitionName, Model actualDefinition, Model expectedDefinition) {
+        long actualFingerprint = fingerprints.ofDefinition(definitionName, actualDefinition, true);
+        return actualFingerprint != StructuralFingerprints.UNKNOWN && actualFingerprint == fingerprints.ofDefinition(definitionName, expectedDefinition, false);
+    }
+
+    private static Swagger buildSwaggerFrom(String filename) {
+        File swaggerFile = new File(StructuralFingerprintsTest.class.getResource(filename).getPath());
+        return new SwaggerParser().read(swaggerFile.getAbsolutePath());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests SwaggerBatchRunner.
+ */
+public class SwaggerBatchRunnerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldValidateEveryPairOfSpecs() throws Exception {
+        // given
+        Path actual = temporaryFolder.newFolder("actual").toPath();
+        Path expected = temporaryFolder.newFolder("expected").toPath();
+        copy("/swagger.json", actual.resolve("a/swagger.json"));
+        copy("/swagger.json", expected.resolve("a/swagger.json"));
+        copy("/wrong_swagger.json", actual.resolve("b/swagger.yaml"));
+        copy("/swagger.yaml", expected.resolve("b/swagger.yaml"));
+        copy("/swagger.json", expected.resolve("c/swagger.json"));
+        copy("/swagger.json", expected.resolve("notes.txt"));
+        // when
+        BatchSummary summary = new SwaggerBatchRunner(new SwaggerAssertionConfig(), 2)
+                .validateDocumentation(actual, expected, SwaggerBatchRunner.DEFAULT_GLOB);
+        // then
+        assertThat(summary.getResults().size(), is(3));
+        assertThat(summary.getResults().get(0).getSpec(), is("a/swagger.json"));
+        assertThat(summary.getResults().get(0).getStatus(), is(BatchSummary.Status.PASSED));
+        assertThat(summary.getResults().get(1).getSpec(), is("b/swagger.yaml"));
+        assertThat(summary.getResults().get(1).getStatus(), is(BatchSummary.Status.FAILED));
+        assertThat(summary.getResults().get(1).getErrorMessages().isEmpty(), is(false));
+        assertThat(summary.getResults().get(2).getSpec(), is("c/swagger.json"));
+        assertThat(summary.getResults().get(2).getStatus(), is(BatchSummary.Status.ERROR));
+        assertThat(summary.isSuccessful(), is(false));
+        assertThat(summary.toString(), containsString("3 specs"));
+        assertThat(summary.toString(), containsString("1 passed, 1 failed, 1 could not be validated"));
+    }
+
+    @Test
+    public void shouldVerifyEveryContractAgainstProvider() throws Exception {
+        // given
+        Path contracts = temporaryFolder.newFolder("contracts").toPath();
+        copy("/swagger.json", contracts.resolve("web.json"));
+        copy("/swagger.yaml", contracts.resolve("mobile.yaml"));
+        // when
+        BatchSummary summary = new SwaggerBatchRunner(new SwaggerAssertionConfig(), 2)
+                .verifyContracts(resource("/swagger.json"), contracts, SwaggerBatchRunner.DEFAULT_GLOB);
+        // then
+        assertThat(summary.getResults().size(), is(2));
+        assertThat(summary.count(BatchSummary.Status.PASSED), is(2));
+        assertThat(summary.isSuccessful(), is(true));
+    }
+
+    @Test
+    public void shouldExitWithStatusOfBatch() throws Exception {
+        // given
+        Path actual = temporaryFolder.newFolder("actual").toPath();
+        Path expected = temporaryFolder.newFolder("expected").toPath();
+        copy("/swagger.json", actual.resolve("swagger.json"));
+        copy("/swagger.json", expected.resolve("swagger.json"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        // when
+        int passed = SwaggerBatchRunner.run(new String[]{"--actual", actual.toString(), "--expected", expected.toString(), "--threads", "1"},
+                new PrintStream(out), new PrintStream(err));
+        copy("/wrong_swagger.json", actual.resolve("swagger.json"));
+        int failed = SwaggerBatchRunner.run(new String[]{"--actual", actual.toString(), "--expected", expected.toString()},
+                new PrintStream(out), new PrintStream(err));
+        int invalid = SwaggerBatchRunner.run(new String[]{"--actual", actual.toString()}, new PrintStream(out), new PrintStream(err));
+        // then
+        assertThat(passed, is(0));
+        assertThat(failed, is(1));
+        assertThat(invalid, is(2));
+        assertThat(out.toString(), containsString("1 passed, 0 failed"));
+        assertThat(err.toString(), containsString("Usage: SwaggerBatchRunner"));
+    }
+
+    private static void copy(String resource, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.copy(resource(resource), target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Path resource(String resource) {
+        try {
+            return Paths.get(SwaggerBatchRunnerTest.class.getResource(resource).toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.github.robwin.swagger.test.SwaggerIndex.ParameterKey;
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Response;
+import io.swagger.models.Swagger;
+import io.swagger.models.parameters.HeaderParameter;
+import io.swagger.models.parameters.Parameter;
+import io.swagger.models.parameters.QueryParameter;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.parser.SwaggerParser;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests SwaggerIndex.
+ */
+public class SwaggerIndexTest {
+
+    @Test
+    public void shouldIndexOperationsAndParameters() {
+        // given
+        Swagger swagger = new SwaggerParser().read(new File(SwaggerIndexTest.class.getResource("/swagger.json").getFile()).getAbsolutePath());
+        // when
+        SwaggerIndex index = SwaggerIndex.of(swagger);
+        // then
+        Operation delete = swagger.getPath("/pets/{petId}").getDelete();
+        assertThat(index.getOperation("/pets/{petId}", HttpMethod.DELETE), is(sameInstance(delete)));
+        assertThat(index.getOperation("/pets/{petId}", HttpMethod.PUT), is(nullValue()));
+        assertThat(index.getOperation("/unknown", HttpMethod.GET), is(nullValue()));
+        assertThat(new ArrayList<>(index.getParameters("/pets/{petId}", HttpMethod.DELETE).keySet()),
+                is(Arrays.asList(ParameterKey.of("api_key", "header"), ParameterKey.of("petId", "path"))));
+        assertThat(index.getParameter("/pets/{petId}", HttpMethod.DELETE, ParameterKey.of("petId", "path")), is(sameInstance(delete.getParameters().get(1))));
+        assertThat(index.getParameter("/pets/{petId}", HttpMethod.DELETE, ParameterKey.of("petId", "query")), is(nullValue()));
+        assertThat(index.parametersOf(delete), is(sameInstance(index.getParameters("/pets/{petId}", HttpMethod.DELETE))));
+        assertThat(index.parametersOf(new Operation()), is(nullValue()));
+    }
+
+    @Test
+    public void shouldDistinguishParametersByLocation() {
+        // given
+        Parameter queryParameter = new QueryParameter().name("id");
+        Parameter headerParameter = new HeaderParameter().name("id");
+        Swagger swagger = new Swagger().path("/items", new Path().get(new Operation().parameter(queryParameter).parameter(headerParameter)));
+        // when
+        SwaggerIndex index = SwaggerIndex.of(swagger);
+        // then
+        assertThat(index.getParameters("/items", HttpMethod.GET).size(), is(2));
+        assertThat(index.getParameter("/items", HttpMethod.GET, ParameterKey.of(queryParameter)), is(sameInstance(queryParameter)));
+        assertThat(index.getParameter("/items", HttpMethod.GET, ParameterKey.of(headerParameter)), is(sameInstance(headerParameter)));
+    }
+
+    @Test
+    public void shouldIndexResponsesAndResponseHeaders() {
+        // given
+        Response ok = new Response().description("OK").header("X-Rate-Limit", new IntegerProperty());
+        Swagger swagger = new Swagger().path("/items", new Path().get(new Operation().response(200, ok)));
+        // when
+        SwaggerIndex index = SwaggerIndex.of(swagger);
+        // then
+        assertThat(index.getResponse("/items", HttpMethod.GET, "200"), is(sameInstance(ok)));
+        assertThat(index.getResponse("/items", HttpMethod.GET, "404"), is(nullValue()));
+        Map<String, ?> headers = index.getResponseHeaders("/items", HttpMethod.GET, "200");
+        assertThat(headers.get("X-Rate-Limit"), is(sameInstance(ok.getHeaders().get("X-Rate-Limit"))));
+        assertThat(index.getResponseHeaders("/items", HttpMethod.GET, "404").isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.ModelImpl;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.LongProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.StringProperty;
+import io.swagger.parser.SwaggerParser;
+import io.swagger.util.Json;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests SwaggerModelInterner.
+ */
+public class SwaggerModelInternerTest {
+
+    @Test
+    public void shouldShareEqualSchemasOfDifferentSpecs() {
+        // given
+        SwaggerModelInterner interner = new SwaggerModelInterner();
+        String location = SwaggerModelInternerTest.class.getResource("/swagger.json").getPath();
+        Swagger swagger = new SwaggerParser().read(location);
+        Swagger otherSwagger = new SwaggerParser().read(location);
+        // when
+        interner.intern(swagger);
+        interner.intern(otherSwagger);
+        // then
+        assertThat(Json.pretty(otherSwagger), is(Json.pretty(new SwaggerParser().read(location))));
+        assertThat(otherSwagger.getDefinitions().get("Pet"), is(not(sameInstance(swagger.getDefinitions().get("Pet")))));
+        assertThat(otherSwagger.getDefinitions().get("Pet").getProperties().get("category"),
+                is(sameInstance(swagger.getDefinitions().get("Pet").getProperties().get("category"))));
+        assertThat(otherSwagger.getPaths().get("/pets").getPost().getSummary(),
+                is(sameInstance(swagger.getPaths().get("/pets").getPost().getSummary())));
+        assertThat(interner.getSharedSchemas() * 2 >= interner.getInternedSchemas(), is(true));
+    }
+
+    @Test
+    public void shouldKeepSchemasWhichDifferInNestedProperties() {
+        // given
+        SwaggerModelInterner interner = new SwaggerModelInterner();
+        Swagger swagger = new Swagger().model("Owner", new ModelImpl()
+                .property("address", new ObjectProperty(properties("street", new StringProperty())))
+                .property("location", new ObjectProperty(properties("street", new LongProperty())))
+                .property("name", new StringProperty().description("Name of the owner"))
+                .property("nickname", new StringProperty().description("Nickname of the owner")));
+        // when
+        interner.intern(swagger);
+        // then
+        Property address = swagger.getDefinitions().get("Owner").getProperties().get("address");
+        Property location = swagger.getDefinitions().get("Owner").getProperties().get("location");
+        Property name = swagger.getDefinitions().get("Owner").getProperties().get("name");
+        Property nickname = swagger.getDefinitions().get("Owner").getProperties().get("nickname");
+        assertThat(address, is(not(sameInstance(location))));
+        assertThat(name, is(not(sameInstance(nickname))));
+        assertThat(interner.getSharedSchemas(), is(0L));
+    }
+
+    @Test
+    public void shouldShareSchemasOfSpecsInternedConcurrently() throws Exception {
+        // given
+        SwaggerModelInterner interner = new SwaggerModelInterner();
+        String location = SwaggerModelInternerTest.class.getResource("/swagger.json").getPath();
+        List<Callable<Swagger>> tasks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Swagger swagger = new SwaggerParser().read(location);
+            tasks.add(() -> interner.intern(swagger));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        // when
+        List<Future<Swagger>> interned;
+        try {
+            interned = executor.invokeAll(tasks);
+        } finally {
+            executor.shutdown();
+        }
+        // then
+        Property category = interned.get(0).get().getDefinitions().get("Pet").getProperties().get("category");
+        for (Future<Swagger> swagger : interned) {
+            assertThat(swagger.get().getDefinitions().get("Pet").getProperties().get("category"), is(sameInstance(category)));
+        }
+    }
+
+    @Test
+    public void shouldKeepPropertiesWhichDifferInDeclaredFields() {
+        // given
+        SwaggerModelInterner interner = new SwaggerModelInterner();
+        Swagger swagger = new Swagger().model("Owner", new ModelImpl()
+                .property("name", new StringProperty().pattern("[a-z]+"))
+                .property("nickname", new StringProperty().pattern("[A-Z]+")));
+        // when
+        interner.intern(swagger);
+        // then
+        assertThat(swagger.getDefinitions().get("Owner").getProperties().get("name"),
+                is(not(sameInstance(swagger.getDefinitions().get("Owner").getProperties().get("nickname")))));
+        assertThat(interner.getSharedSchemas(), is(0L));
+    }
+
+    private static Map<String, Property> properties(String name, Property property) {
+        Map<String, Property> properties = new LinkedHashMap<>();
+        properties.put(name, property);
+        return properties;
+    }
+}
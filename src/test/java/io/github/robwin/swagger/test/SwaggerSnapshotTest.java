@@ -0,0 +1,119 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests SwaggerSnapshot.
+ */
+public class SwaggerSnapshotTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldRestoreEqualModelFromSnapshot() throws IOException {
+        // given
+        File source = copyOfSpec("/swagger.yaml", "swagger.yaml");
+        Path snapshot = temporaryFolder.getRoot().toPath().resolve("swagger" + SwaggerSnapshot.FILE_EXTENSION);
+        SwaggerSnapshot.write(source.getAbsolutePath(), snapshot);
+        // when
+        Swagger restored = SwaggerSnapshot.read(snapshot);
+        // then
+        Swagger parsed = new SwaggerParser().read(source.getAbsolutePath());
+        new SwaggerAssert(restored).isEqualTo(parsed);
+        new SwaggerAssert(parsed).isEqualTo(restored);
+    }
+
+    @Test
+    public void shouldRebuildSnapshotIfSourceChanged() throws IOException {
+        // given
+        File source = copyOfSpec("/swagger.json", "swagger.json");
+        Path snapshot = temporaryFolder.getRoot().toPath().resolve("swagger" + SwaggerSnapshot.FILE_EXTENSION);
+        SwaggerSnapshot.load(source.getAbsolutePath(), snapshot);
+        // when
+        String content = new String(Files.readAllBytes(source.toPath()), StandardCharsets.UTF_8);
+        Files.write(source.toPath(), content.replace("\"/pets\"", "\"/animals\"").getBytes(StandardCharsets.UTF_8));
+        Swagger restored = SwaggerSnapshot.read(snapshot);
+        // then
+        assertThat(restored.getPaths().containsKey("/animals"), is(true));
+        assertThat(restored.getPaths().containsKey("/pets"), is(false));
+    }
+
+    @Test
+    public void shouldRecordNewModificationTimeOfUnchangedSource() throws IOException {
+        // given
+        File source = copyOfSpec("/swagger.json", "swagger.json");
+        Path snapshot = temporaryFolder.getRoot().toPath().resolve("swagger" + SwaggerSnapshot.FILE_EXTENSION);
+        SwaggerSnapshot.write(source.getAbsolutePath(), snapshot);
+        byte[] written = Files.readAllBytes(snapshot);
+        Object writtenFileKey = Files.readAttributes(snapshot, BasicFileAttributes.class).fileKey();
+        long touched = source.lastModified() + 60000;
+        Files.setLastModifiedTime(source.toPath(), FileTime.fromMillis(touched));
+        // when
+        Swagger restored = SwaggerSnapshot.read(snapshot);
+        // then
+        assertThat(restored.getPaths().containsKey("/pets"), is(true));
+        byte[] updated = Files.readAllBytes(snapshot);
+        assertThat(updated.length, is(written.length));
+        assertThat(Files.readAttributes(snapshot, BasicFileAttributes.class).fileKey(), is(not(writtenFileKey)));
+        assertThat(temporaryFolder.getRoot().list().length, is(2));
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(snapshot))) {
+            in.readInt();
+            in.readInt();
+            in.readUTF();
+            assertThat(in.readLong(), is(touched));
+        }
+    }
+
+    @Test
+    public void shouldAcceptSnapshotLocation() throws IOException {
+        // given
+        File source = copyOfSpec("/swagger.yaml", "swagger.yaml");
+        Path snapshot = temporaryFolder.getRoot().toPath().resolve("swagger" + SwaggerSnapshot.FILE_EXTENSION);
+        SwaggerSnapshot.write(source.getAbsolutePath(), snapshot);
+        File actual = new File(SwaggerSnapshotTest.class.getResource("/swagger.json").getPath());
+        // then
+        SwaggerAssertions.assertThat(actual.getAbsolutePath()).isEqualTo(snapshot.toString());
+    }
+
+    private File copyOfSpec(String resource, String fileName) throws IOException {
+        File spec = temporaryFolder.newFile(fileName);
+        Files.copy(SwaggerSnapshotTest.class.getResourceAsStream(resource), spec.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return spec;
+    }
+}
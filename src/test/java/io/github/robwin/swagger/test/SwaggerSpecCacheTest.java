@@ -0,0 +1,165 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Path;
+import io.swagger.models.Swagger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests SwaggerSpecCache.
+ */
+public class SwaggerSpecCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldServeUnchangedSpecFromCache() throws IOException {
+        // given
+        SwaggerSpecCache cache = new SwaggerSpecCache(true, 4);
+        File spec = copyOfSpec("/swagger.json");
+        // when
+        Swagger first = cache.get(spec.getAbsolutePath());
+        Swagger second = cache.get(spec.getAbsolutePath());
+        // then
+        assertThat(second, is(sameInstance(first)));
+        assertThat(cache.stats().getHits(), is(1L));
+        assertThat(cache.stats().getMisses(), is(1L));
+    }
+
+    @Test
+    public void shouldShareIndexOfCachedSpec() throws IOException {
+        // given
+        SwaggerSpecCache cache = new SwaggerSpecCache(true, 4);
+        Swagger cached = cache.get(copyOfSpec("/swagger.json").getAbsolutePath());
+        Swagger notCached = new Swagger();
+        // when
+        SwaggerIndex first = cache.indexOf(cached);
+        SwaggerIndex second = cache.indexOf(cached);
+        // then
+        assertThat(second, is(sameInstance(first)));
+        assertThat(cache.indexOf(notCached), is(not(sameInstance(cache.indexOf(notCached)))));
+    }
+
+    @Test
+    public void shouldHandOutPublishedSpecToConcurrentReaders() throws Exception {
+        // given
+        SwaggerSpecCache cache = new SwaggerSpecCache(true, 4);
+        String location = copyOfSpec("/swagger.json").getAbsolutePath();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Callable<Swagger>> readers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            readers.add(() -> cache.get(location));
+        }
+        // when
+        List<Future<Swagger>> results;
+        try {
+            results = executor.invokeAll(readers);
+        } finally {
+            executor.shutdown();
+        }
+        // then
+        Swagger published = cache.get(location);
+        for (Future<Swagger> result : results) {
+            assertThat(result.get(), is(sameInstance(published)));
+        }
+        assertThat(cache.indexOf(published), is(sameInstance(cache.indexOf(published))));
+        assertThat(cache.stats().getSize(), is(1));
+    }
+
+    @Test
+    public void shouldReparseChangedSpec() throws IOException {
+        // given
+        SwaggerSpecCache cache = new SwaggerSpecCache(true, 4);
+        File spec = copyOfSpec("/swagger.json");
+        Swagger first = cache.get(spec.getAbsolutePath());
+        // when
+        String content = new String(Files.readAllBytes(spec.toPath()), StandardCharsets.UTF_8);
+        Files.write(spec.toPath(), content.replace("\"/pets\"", "\"/animals\"").getBytes(StandardCharsets.UTF_8));
+        Swagger second = cache.get(spec.getAbsolutePath());
+        // then
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(second.getPaths().containsKey("/animals"), is(true));
+        assertThat(cache.stats().getMisses(), is(2L));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedSpec() throws IOException {
+        // given
+        SwaggerSpecCache cache = new SwaggerSpecCache(true, 1);
+        File firstSpec = copyOfSpec("/swagger.json");
+        File secondSpec = copyOfSpec("/swagger-singleresource.json");
+        // when
+        cache.get(firstSpec.getAbsolutePath());
+        cache.get(secondSpec.getAbsolutePath());
+        cache.get(firstSpec.getAbsolutePath());
+        // then
+        assertThat(cache.stats().getEvictions(), is(2L));
+        assertThat(cache.stats().getMisses(), is(3L));
+        assertThat(cache.stats().getSize(), is(1));
+    }
+
+    @Test
+    public void shouldNotCacheIfDisabled() throws IOException {
+        // given
+        SwaggerSpecCache cache = new SwaggerSpecCache(false, 4);
+        File spec = copyOfSpec("/swagger.json");
+        // when
+        Swagger first = cache.get(spec.getAbsolutePath());
+        Swagger second = cache.get(spec.getAbsolutePath());
+        // then
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(cache.stats().getSize(), is(0));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldHandOutReadOnlyModels() throws IOException {
+        // given
+        SwaggerSpecCache cache = new SwaggerSpecCache(true, 4);
+        File spec = copyOfSpec("/swagger.json");
+        // when
+        Swagger swagger = cache.get(spec.getAbsolutePath());
+        // then
+        swagger.getPaths().put("/extra", new Path());
+    }
+
+    private File copyOfSpec(String resource) throws IOException {
+        File spec = temporaryFolder.newFile();
+        Files.copy(SwaggerSpecCacheTest.class.getResourceAsStream(resource), spec.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return spec;
+    }
+}
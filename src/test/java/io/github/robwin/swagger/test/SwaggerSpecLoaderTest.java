@@ -0,0 +1,171 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+import io.swagger.util.Json;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests SwaggerSpecLoader.
+ */
+public class SwaggerSpecLoaderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldLoadSameModelAsSwaggerParser() {
+        for (String spec : Arrays.asList("/swagger.json", "/swagger.yaml", "/swagger-allOf-composition.json")) {
+            // given
+            Path file = resource(spec);
+            // when
+            Swagger swagger = SwaggerSpecLoader.load(file);
+            // then
+            assertThat(spec, Json.pretty(swagger), is(Json.pretty(new SwaggerParser().read(file.toString()))));
+        }
+    }
+
+    @Test
+    public void shouldConvertSwagger12SpecLikeSwaggerParser() {
+        // given
+        Path file = resource("/swagger-1.2.json");
+        // when
+        Swagger swagger = SwaggerSpecLoader.load(file);
+        // then
+        assertThat(swagger.getSwagger(), is("2.0"));
+        assertThat(swagger.getDefinitions().keySet(), is(Collections.singleton("Pet")));
+        assertThat(Json.pretty(swagger), is(Json.pretty(new SwaggerParser().read(file.toString()))));
+    }
+
+    @Test
+    public void shouldLoadGzipCompressedSpec() throws IOException {
+        // given
+        File compressed = temporaryFolder.newFile("swagger.yaml.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed.toPath()))) {
+            Files.copy(resource("/swagger.yaml"), out);
+        }
+        // when
+        Swagger swagger = SwaggerSpecLoader.load(compressed.toPath());
+        // then
+        assertThat(Json.pretty(swagger), is(Json.pretty(parse("/swagger.yaml"))));
+    }
+
+    @Test
+    public void shouldLoadZstdCompressedSpec() throws IOException {
+        // given
+        File compressed = temporaryFolder.newFile("swagger.json.zst");
+        try (OutputStream out = new ZstdOutputStream(Files.newOutputStream(compressed.toPath()))) {
+            Files.copy(resource("/swagger.json"), out);
+        }
+        // when
+        Swagger swagger = SwaggerSpecLoader.load(compressed.toPath());
+        // then
+        assertThat(Json.pretty(swagger), is(Json.pretty(parse("/swagger.json"))));
+    }
+
+    @Test
+    public void shouldLoadSpecFromArchive() throws IOException {
+        // given
+        File archive = temporaryFolder.newFile("specs.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(archive.toPath()))) {
+            out.putNextEntry(new ZipEntry("api/swagger.yaml"));
+            Files.copy(resource("/swagger.yaml"), out);
+            out.closeEntry();
+        }
+        String location = "jar:" + archive.toURI() + "!/api/swagger.yaml";
+        // when
+        Swagger fromUrl = SwaggerSpecCache.read(location);
+        Swagger fromFileSystem;
+        try (FileSystem zip = FileSystems.newFileSystem(URI.create("jar:" + archive.toURI()), Collections.<String, Object>emptyMap())) {
+            fromFileSystem = SwaggerSpecCache.read(zip.getPath("api", "swagger.yaml"));
+        }
+        // then
+        String expected = Json.pretty(parse("/swagger.yaml"));
+        assertThat(Json.pretty(fromUrl), is(expected));
+        assertThat(Json.pretty(fromFileSystem), is(expected));
+    }
+
+    @Test
+    public void shouldDetectFormatFromLeadingBytes() throws IOException {
+        // given
+        ByteBuffer yaml = ByteBuffer.wrap(Files.readAllBytes(resource("/swagger.yaml")));
+        byte[] json = Files.readAllBytes(resource("/swagger.json"));
+        // when
+        Swagger fromBuffer = SwaggerSpecLoader.load(yaml, null);
+        Swagger fromStream = SwaggerSpecLoader.load(new ByteArrayInputStream(json), null);
+        // then
+        assertThat(yaml.position(), is(0));
+        assertThat(Json.pretty(fromBuffer), is(Json.pretty(parse("/swagger.yaml"))));
+        assertThat(Json.pretty(fromStream), is(Json.pretty(parse("/swagger.json"))));
+    }
+
+    @Test
+    public void shouldMemoryMapLargeSpec() throws IOException {
+        // given
+        File large = temporaryFolder.newFile("large-swagger.json");
+        byte[] padding = new byte[SwaggerSpecLoader.MAP_THRESHOLD];
+        Arrays.fill(padding, (byte) ' ');
+        try (OutputStream out = Files.newOutputStream(large.toPath())) {
+            Files.copy(resource("/swagger.json"), out);
+            out.write(padding);
+        }
+        // when
+        Swagger swagger = SwaggerSpecLoader.load(large.toPath());
+        // then
+        assertThat(Json.pretty(swagger), is(Json.pretty(parse("/swagger.json"))));
+    }
+
+    private static Path resource(String name) {
+        try {
+            return Paths.get(SwaggerSpecLoaderTest.class.getResource(name).toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Swagger parse(String name) {
+        return new SwaggerParser().read(resource(name).toString());
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Swagger;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests ValidationMetrics.
+ */
+public class ValidationMetricsTest {
+
+    @Test
+    public void shouldNotMeasureUnlessEnabled() {
+        // given
+        ValidationMetrics metrics = ValidationMetrics.of(new SwaggerAssertionConfig());
+        // when
+        ValidationMetrics.Span span = metrics.start(ValidationMetrics.Phase.PATHS, "/pets");
+        span.close();
+        metrics.countCheck(SwaggerAssertionType.PATHS);
+        // then
+        assertThat(metrics, is(sameInstance(ValidationMetrics.DISABLED)));
+        assertThat(span, is(sameInstance(ValidationMetrics.Span.NONE)));
+        assertThat(metrics.getMeasurements(ValidationMetrics.Phase.PATHS), is(0L));
+        assertThat(metrics.getChecks(SwaggerAssertionType.PATHS), is(0L));
+        assertThat(metrics.getSlowestPaths().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldKeepOnlyTheSlowestEntries() throws InterruptedException {
+        // given
+        Properties props = new Properties();
+        props.setProperty("assertj.swagger.metrics", "true");
+        props.setProperty("assertj.swagger.slowestEntries", "2");
+        ValidationMetrics metrics = ValidationMetrics.of(new SwaggerAssertionConfig(props));
+        // when
+        for (int millis : new int[]{1, 20, 5, 10}) {
+            try (ValidationMetrics.Span ignored = metrics.start(ValidationMetrics.Phase.DEFINITIONS, "Def" + millis)) {
+                Thread.sleep(millis);
+            }
+        }
+        // then
+        List<ValidationMetrics.Entry> slowest = metrics.getSlowestDefinitions();
+        assertThat(metrics.getMeasurements(ValidationMetrics.Phase.DEFINITIONS), is(4L));
+        assertThat(slowest.size(), is(2));
+        assertThat(slowest.get(0).getName(), is("Def20"));
+        assertThat(slowest.get(1).getName(), is("Def10"));
+    }
+
+    @Test
+    public void shouldCountChecksAndMeasurePhasesOfAValidation() {
+        // given
+        Properties props = new Properties();
+        props.setProperty("assertj.swagger.metrics", "true");
+        Swagger swagger = SwaggerSpecCache.read(ValidationMetricsTest.class.getResource("/swagger.json").getPath());
+        SwaggerAssert swaggerAssert = new SwaggerAssert(swagger, new SwaggerAssertionConfig(props));
+        // when
+        swaggerAssert.isEqualTo(ValidationMetricsTest.class.getResource("/swagger.yaml").getPath());
+        // then
+        ValidationMetrics metrics = swaggerAssert.getMetrics();
+        assertThat(metrics.isEnabled(), is(true));
+        assertThat(metrics.getMeasurements(ValidationMetrics.Phase.LOADING), is(1L));
+        assertThat(metrics.getMeasurements(ValidationMetrics.Phase.PATHS), is((long) swagger.getPaths().size()));
+        assertThat(metrics.getMeasurements(ValidationMetrics.Phase.DEFINITIONS), is((long) swagger.getDefinitions().size()));
+        assertThat(metrics.getChecks(SwaggerAssertionType.PATHS) > 0, is(true));
+        assertThat(metrics.getChecks(SwaggerAssertionType.DEFINITIONS) > 0, is(true));
+        assertThat(metrics.getSlowestPaths().size(), is(Math.min(10, swagger.getPaths().size())));
+        assertThat(metrics.toJson(), containsString("\"slowestDefinitions\""));
+    }
+}
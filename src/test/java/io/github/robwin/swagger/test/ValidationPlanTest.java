@@ -0,0 +1,103 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests ValidationPlan.
+ */
+public class ValidationPlanTest {
+
+    @Test
+    public void shouldPlanOnlyEnabledStepsInOrder() {
+        // given
+        Properties props = new Properties();
+        props.setProperty("assertj.swagger.validateVersion", "true");
+        props.setProperty("assertj.swagger.validateDefinitions", "false");
+        // when
+        ValidationPlan plan = new SwaggerAssertionConfig(props).getValidationPlan();
+        // then
+        assertThat(plan.getSteps(), is(Arrays.asList(ValidationPlan.Step.VERSION, ValidationPlan.Step.PATH_KEYS, ValidationPlan.Step.PATHS)));
+    }
+
+    @Test
+    public void shouldRunKeySetChecksFirstIfErrorsAreLimited() {
+        // given
+        Properties props = new Properties();
+        props.setProperty("assertj.swagger.failFast", "true");
+        // when
+        ValidationPlan plan = new SwaggerAssertionConfig(props).getValidationPlan();
+        // then
+        assertThat(plan.getSteps(), is(Arrays.asList(ValidationPlan.Step.PATH_KEYS, ValidationPlan.Step.DEFINITION_KEYS,
+                ValidationPlan.Step.PATHS, ValidationPlan.Step.DEFINITIONS)));
+        assertThat(plan, is(not(sameInstance(new SwaggerAssertionConfig().getValidationPlan()))));
+    }
+
+    @Test
+    public void shouldResolveFinerFlags() {
+        // given
+        Properties props = new Properties();
+        props.setProperty("assertj.swagger.validateProperties", "false");
+        props.setProperty("assertj.swagger.validateResponseWithStrictlyMatch", "false");
+        // when
+        ValidationPlan defaultPlan = new SwaggerAssertionConfig().getValidationPlan();
+        ValidationPlan plan = new SwaggerAssertionConfig(props).getValidationPlan();
+        // then
+        assertThat(defaultPlan.isPropertiesValidated(), is(true));
+        assertThat(defaultPlan.isStringEnumsValidated(), is(true));
+        assertThat(plan.isPropertiesValidated(), is(false));
+        assertThat(plan.isStringEnumsValidated(), is(false));
+        assertThat(plan.isResponsesStrictlyMatched(), is(false));
+        assertThat(plan.isModelsValidated(), is(true));
+    }
+
+    @Test
+    public void shouldShareThePlanOfConfigsWithTheSameFlags() {
+        // given
+        Properties props = new Properties();
+        props.setProperty("assertj.swagger.pathsToIgnoreInExpected", "/pets");
+        // when
+        ValidationPlan plan = new SwaggerAssertionConfig().getValidationPlan();
+        ValidationPlan otherPlan = new SwaggerAssertionConfig(props).getValidationPlan();
+        // then
+        assertThat(otherPlan, is(sameInstance(plan)));
+    }
+
+    @Test
+    public void shouldCompareOperationsInDeclarationOrder() {
+        // given
+        Operation get = new Operation();
+        Path path = new Path().get(get);
+        // when
+        ValidationPlan.OperationStep first = new SwaggerAssertionConfig().getValidationPlan().getOperationSteps().get(0);
+        // then
+        assertThat(first.getHttpMethod(), is("GET"));
+        assertThat(first.operationOf(path), is(sameInstance(get)));
+        assertThat(new SwaggerAssertionConfig().getValidationPlan().getOperationSteps().toString(), is("[GET, DELETE, POST, PUT, PATCH, OPTIONS]"));
+    }
+}
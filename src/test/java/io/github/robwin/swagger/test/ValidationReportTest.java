@@ -0,0 +1,125 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Properties;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests ValidationReport.
+ */
+public class ValidationReportTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteJsonLines() throws Exception {
+        // given
+        File reportFile = new File(temporaryFolder.getRoot(), "report.jsonl");
+        // when
+        writeReport(reportFile, null);
+        // then
+        List<String> lines = Files.readAllLines(reportFile.toPath());
+        assertThat(lines.size(), is(2));
+        JsonNode property = new ObjectMapper().readTree(lines.get(1));
+        assertThat(property.get("type").asText(), is("PROPERTIES"));
+        assertThat(property.get("definition").asText(), is("Pet"));
+        assertThat(property.get("property").asText(), is("name"));
+        assertThat(property.get("expected").asText(), is("string"));
+        assertThat(property.get("actual").asText(), is("integer"));
+        assertThat(property.has("path"), is(false));
+    }
+
+    @Test
+    public void shouldWriteJUnitXml() throws Exception {
+        // given
+        File reportFile = new File(temporaryFolder.getRoot(), "report.xml");
+        // when
+        writeReport(reportFile, null);
+        // then
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(reportFile);
+        assertThat(document.getDocumentElement().getTagName(), is("testsuite"));
+        assertThat(document.getElementsByTagName("testcase").getLength(), is(2));
+        assertThat(document.getElementsByTagName("failure").getLength(), is(2));
+        assertThat(document.getElementsByTagName("testcase").item(0).getAttributes().getNamedItem("name").getNodeValue(), is("GET /pets"));
+    }
+
+    @Test
+    public void shouldWriteSarif() throws Exception {
+        // given
+        File reportFile = new File(temporaryFolder.getRoot(), "report.json");
+        // when
+        writeReport(reportFile, "sarif");
+        // then
+        JsonNode run = new ObjectMapper().readTree(reportFile).get("runs").get(0);
+        assertThat(run.get("results").size(), is(2));
+        assertThat(run.get("results").get(1).get("ruleId").asText(), is("PROPERTIES"));
+        assertThat(run.get("results").get(1).get("locations").get(0).get("logicalLocations").get(0).get("fullyQualifiedName").asText(), is("Pet.name"));
+    }
+
+    @Test
+    public void shouldSummarizeViolations() {
+        // given
+        File reportFile = new File(temporaryFolder.getRoot(), "report.jsonl");
+        ValidationReport report = writeReport(reportFile, null);
+        // when
+        try {
+            report.assertNoViolations();
+            fail("AssertionError expected");
+        } catch (AssertionError e) {
+            // then
+            assertThat(e.getMessage(), containsString("2 assertions failed, see " + reportFile.getAbsolutePath()));
+            assertThat(e.getMessage(), containsString("PROPERTIES: 1"));
+            assertThat(e.getMessage(), not(containsString("Checking")));
+        }
+    }
+
+    private ValidationReport writeReport(File reportFile, String format) {
+        Properties props = new Properties();
+        props.setProperty("assertj.swagger.reportFile", reportFile.getAbsolutePath());
+        if (format != null) {
+            props.setProperty("assertj.swagger.reportFormat", format);
+        }
+        ValidationReport report = ValidationReport.open(new SwaggerAssertionConfig(props), "test");
+        ValidationLocation location = new ValidationLocation();
+        location.atPath("/pets");
+        location.atMethod("GET");
+        report.add(location.violation(null, "[Checking 'GET' operation of path '/pets'] expected not null", "not null", null));
+        location.atDefinition("Pet");
+        location.atProperty("name");
+        report.add(location.violation(SwaggerAssertionType.PROPERTIES, "[Checking property 'name' of definition 'Pet'] <integer>", "string", "integer"));
+        report.close();
+        return report;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests ValidationTasks.
+ */
+public class ValidationTasksTest {
+
+    @Test
+    public void shouldReusePoolOfSameParallelism() {
+        // given
+        int parallelism = ForkJoinPool.getCommonPoolParallelism() + 1;
+        List<Integer> items = Arrays.asList(1, 2, 3, 4);
+        // when
+        List<ForkJoinPool> firstPools = ValidationTasks.map(items, parallelism, item -> ForkJoinTask.getPool());
+        List<ForkJoinPool> secondPools = ValidationTasks.map(items, parallelism, item -> ForkJoinTask.getPool());
+        // then
+        assertThat(firstPools.get(0), is(notNullValue()));
+        assertThat(firstPools.get(0).getParallelism(), is(parallelism));
+        assertThat(secondPools.get(0), is(sameInstance(firstPools.get(0))));
+    }
+
+    @Test
+    public void shouldUseCommonPoolOfSameParallelism() {
+        assertThat(ValidationTasks.poolOf(ForkJoinPool.getCommonPoolParallelism()), is(sameInstance(ForkJoinPool.commonPool())));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ *
+ *  Copyright 2018 Robert Winkler
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package io.github.robwin.swagger.test;
+
+import io.swagger.models.Model;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.StringProperty;
+import io.swagger.parser.SwaggerParser;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests that comparing equivalent specs allocates next to nothing per path and definition.
+ */
+public class ValidatorAllocationTest {
+
+    private static final int COPIES = 200;
+    // creating an AssertJ assert object and formatting its description for every check took hundreds of KB per entry
+    private static final long MAX_BYTES_PER_ENTRY = 8 * 1024;
+
+    @Test
+    public void shouldAllocateLittleWhenDocumentationDrivenValidationPasses() {
+        assertAllocationPerEntry(true);
+    }
+
+    @Test
+    public void shouldAllocateLittleWhenConsumerDrivenValidationPasses() {
+        assertAllocationPerEntry(false);
+    }
+
+    private void assertAllocationPerEntry(boolean documentationDriven) {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+        // given
+        Swagger expected = largeSpec(false);
+        Swagger actual = largeSpec(true);
+        SchemaObjectResolver schemaObjectResolver = new SchemaObjectResolver(expected, actual);
+        SwaggerAssertionConfig config = new SwaggerAssertionConfig();
+        assertThat(entriesOfEqualFingerprints(actual, expected, schemaObjectResolver, config), is(0));
+        int entries = expected.getPaths().size() + expected.getDefinitions().size();
+        validate(documentationDriven, actual, expected, schemaObjectResolver, config);  // warm up
+
+        // when
+        long threadId = Thread.currentThread().getId();
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        validate(documentationDriven, actual, expected, schemaObjectResolver, config);
+        long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+        // then
+        assertThat("bytes per entry: " + allocated / entries, allocated / entries < MAX_BYTES_PER_ENTRY, is(true));
+    }
+
+    private void validate(boolean documentationDriven, Swagger actual, Swagger expected,
+                          SchemaObjectResolver schemaObjectResolver, SwaggerAssertionConfig config) {
+        ContractValidator validator = documentationDriven
+                ? new DocumentationDrivenValidator(actual, config)
+                : new ConsumerDrivenValidator(actual, config);
+        validator.validateSwagger(expected, schemaObjectResolver);
+    }
+
+    /**
+     * Counts the paths and definitions which the validators would skip because their fingerprints are equal.
+     */
+    private int entriesOfEqualFingerprints(Swagger actual, Swagger expected, SchemaObjectResolver schemaObjectResolver,
+                                           SwaggerAssertionConfig config) {
+        StructuralFingerprints fingerprints = new StructuralFingerprints(config, schemaObjectResolver);
+        int equal = 0;
+        for (Map.Entry<String, Path> path : expected.getPaths().entrySet()) {
+            if (fingerprints.ofPath(actual.getPaths().get(path.getKey()), true) == fingerprints.ofPath(path.getValue(), false)) {
+                equal++;
+            }
+        }
+        for (Map.Entry<String, Model> definition : expected.getDefinitions().entrySet()) {
+            String name = definition.getKey();
+            if (fingerprints.ofDefinition(name, actual.getDefinitions().get(name), true)
+                    == fingerprints.ofDefinition(name, definition.getValue(), false)) {
+                equal++;
+            }
+        }
+        return equal;
+    }
+
+    /**
+     * Repeats the paths and definitions of the bundled spec, every call returns an independent object graph. Every
+     * definition gets an enum property. The reordered spec lists the media types an operation produces and the values
+     * of the enums in reverse order. The validators compare both as sets, so the specs are equivalent, but the
+     * fingerprints differ and no path or definition is skipped.
+     */
+    private Swagger largeSpec(boolean reordered) {
+        File swaggerFile = new File(ValidatorAllocationTest.class.getResource("/swagger.json").getFile());
+        Swagger template = new SwaggerParser().read(swaggerFile.getAbsolutePath());
+        Map<String, Path> paths = new LinkedHashMap<>();
+        Map<String, Model> definitions = new LinkedHashMap<>();
+        for (int i = 0; i < COPIES; i++) {
+            Swagger copy = new SwaggerParser().read(swaggerFile.getAbsolutePath());
+            for (Map.Entry<String, Path> path : copy.getPaths().entrySet()) {
+                if (reordered) {
+                    for (Operation operation : path.getValue().getOperations()) {
+                        operation.setProduces(reversed(operation.getProduces()));
+                    }
+                }
+                paths.put("/copy" + i + path.getKey(), path.getValue());
+            }
+            for (Map.Entry<String, Model> definition : copy.getDefinitions().entrySet()) {
+                List<String> kinds = Arrays.asList("plain", "extended");
+                definition.getValue().getProperties().put("kind", new StringProperty()._enum(reordered ? reversed(kinds) : kinds));
+                definitions.put(definition.getKey(), definition.getValue());
+            }
+        }
+        template.setPaths(paths);
+        template.setDefinitions(definitions);
+        return template;
+    }
+
+    private static List<String> reversed(List<String> values) {
+        if (values == null) {
+            return null;
+        }
+        List<String> reversedValues = new ArrayList<>(values);
+        Collections.reverse(reversedValues);
+        return reversedValues;
+    }
+}